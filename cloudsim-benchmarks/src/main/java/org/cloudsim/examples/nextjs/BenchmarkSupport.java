@@ -0,0 +1,48 @@
+package org.cloudsim.examples.nextjs;
+
+import ch.qos.logback.classic.Level;
+import org.cloudsimplus.util.Log;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Shared setup for benchmarks that drive the simulation
+ */
+final class BenchmarkSupport {
+
+    // Well below the capacity of a 4-core VM, so runs measure simulation cost rather than queueing
+    private static final double REQUESTS_PER_VM_SECOND = 20.0;
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Silences CloudSim Plus event logging and console progress output, which would
+     * otherwise dominate the measured time
+     */
+    static PrintStream quiet() {
+        Log.setLevel(Level.ERROR);
+        PrintStream original = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        }));
+        return original;
+    }
+
+    /**
+     * Generated Poisson arrivals sized to produce about the given number of requests
+     * at a fixed load per VM
+     */
+    static ArrivalSource arrivals(long requests, int vms, long seed) {
+        double rate = REQUESTS_PER_VM_SECOND * vms;
+        return new GeneratedArrivalSource(ArrivalRateModel.poisson(rate), requests / rate,
+            GeneratedArrivalSource.DEFAULT_WORKLOAD_MIX, 1.0, seed);
+    }
+}
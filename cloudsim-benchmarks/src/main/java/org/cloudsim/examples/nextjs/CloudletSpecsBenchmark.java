@@ -0,0 +1,101 @@
+package org.cloudsim.examples.nextjs;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.cloudlets.CloudletSimple;
+import org.cloudsimplus.utilizationmodels.UtilizationModel;
+import org.cloudsimplus.utilizationmodels.UtilizationModelDynamic;
+import org.cloudsimplus.utilizationmodels.UtilizationModelFull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap retained by a workload of generated requests held as cloudlets, with
+ * a map from cloudlet id to workload type as createCloudlets kept it, against
+ * the same requests held as {@link CloudletSpecs}.
+ *
+ * The score is the time to build the workload; the heap it retains, measured
+ * after a full collection, is printed when the trial ends.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class CloudletSpecsBenchmark {
+
+    private static final int VMS = 1000;
+
+    @Param({"cloudlets", "specs"})
+    public String representation;
+
+    @Param({"1000000"})
+    public int cloudlets;
+
+    private Object workload;
+    private long retainedBytes;
+    private int size;
+
+    @TearDown
+    public void tearDown() {
+        System.out.printf("%n%s: %d requests retain %.1f MB, %d bytes each%n",
+            representation, size, retainedBytes / (1024.0 * 1024.0), retainedBytes / Math.max(1, size));
+    }
+
+    @Benchmark
+    public Object build() throws IOException {
+        workload = null;
+        long before = usedHeap();
+        ArrivalSource source = BenchmarkSupport.arrivals(cloudlets, VMS,
+            ExistingNextJSCloudSimIntegration.DEFAULT_SEED);
+        if (representation.equals("specs")) {
+            CloudletSpecs specs = CloudletSpecs.record(source);
+            size = specs.size();
+            workload = specs;
+        } else {
+            UtilizationModel cpuModel = new UtilizationModelFull();
+            UtilizationModel ramAndBwModel = new UtilizationModelDynamic(0.02);
+            List<Cloudlet> list = new ArrayList<>();
+            Map<Integer, String> types = new HashMap<>();
+            while (source.next()) {
+                Cloudlet cloudlet = new CloudletSimple(list.size(), source.getLength(), source.getPesNumber())
+                    .setFileSize(source.getRequestBytes())
+                    .setOutputSize(source.getResponseBytes());
+                cloudlet.setUtilizationModelCpu(cpuModel)
+                    .setUtilizationModelRam(ramAndBwModel)
+                    .setUtilizationModelBw(ramAndBwModel);
+                cloudlet.setSubmissionDelay(source.getArrivalTime());
+                types.put(list.size(), source.getWorkloadType().getLabel());
+                list.add(cloudlet);
+            }
+            size = list.size();
+            workload = new Object[] {list, types};
+        }
+        retainedBytes = usedHeap() - before;
+        return workload;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
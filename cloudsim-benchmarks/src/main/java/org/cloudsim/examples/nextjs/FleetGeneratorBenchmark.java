@@ -0,0 +1,70 @@
+package org.cloudsim.examples.nextjs;
+
+import org.cloudsimplus.core.CloudSimPlus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Setup cost of a datacenter generated from a declared fleet at region scale,
+ * with every host built up front against hosts built as VMs are placed.
+ *
+ * Each run instantiates the scenario and places one 4-core VM per hundred
+ * hosts; there are no cloudlets, so the simulation ends once the VMs are
+ * created. Run with -prof gc to compare the heap allocated per run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class FleetGeneratorBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int hosts;
+
+    @Param({"false", "true"})
+    public boolean lazy;
+
+    private ScenarioTemplate template;
+    private PrintStream console;
+
+    @Setup
+    public void setUp() {
+        console = BenchmarkSupport.quiet();
+        FleetSpec fleet = new FleetSpec.Builder()
+            .addClass("general", hosts - hosts / 10, 32, 2800, 65536, 25000, 500000)
+            .addClass("cdn", hosts / 10, 8, 2000, 16384, 50000, 1000000)
+            .build();
+        template = fleet.addTo(new ScenarioTemplate.Builder())
+            .setLazyHosts(lazy)
+            .addVms(Math.max(1, hosts / 100), 2500, 4, 4096, 1200, 12000)
+            .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(console);
+    }
+
+    @Benchmark
+    public ScenarioTemplate.Instance generateAndPlace() {
+        CloudSimPlus simulation = new CloudSimPlus();
+        ScenarioTemplate.Instance instance = template.instantiate(simulation);
+        simulation.start();
+        return instance;
+    }
+}
@@ -0,0 +1,83 @@
+package org.cloudsim.examples.nextjs;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of parsing one metrics document, the work behind
+ * parseExistingAppMetrics on every metrics file change.
+ *
+ * The document is shaped like the Node monitor's output with a growing
+ * routes map, so the per-route cost can be read off the scores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricsParserBenchmark {
+
+    @Param({"0", "10", "100", "1000", "10000"})
+    public int routes;
+
+    private final MetricsJsonParser parser = new MetricsJsonParser();
+    private String json;
+
+    @Setup
+    public void setUp() {
+        json = generateMetricsJson(routes);
+    }
+
+    @Benchmark
+    public MetricsSnapshot parse() {
+        return parser.parse(json);
+    }
+
+    /**
+     * Builds a document shaped like the output of the Node monitor's writeMetricsFile()
+     */
+    static String generateMetricsJson(int routes) {
+        StringBuilder sb = new StringBuilder(256 + routes * 32);
+        sb.append("{\n");
+        sb.append("  \"projectName\": \"benchmark-app\",\n");
+        sb.append("  \"responseTime\": 123.456789,\n");
+        sb.append("  \"cpuUsage\": 42.5,\n");
+        sb.append("  \"memoryUsage\": 87.31,\n");
+        sb.append("  \"requestCount\": ").append(routes * 17L + 1000).append(",\n");
+        sb.append("  \"errorCount\": 12,\n");
+        sb.append("  \"successCount\": ").append(routes * 17L + 988).append(",\n");
+        sb.append("  \"activeConnections\": 7,\n");
+        sb.append("  \"timestamp\": 1760000000000,\n");
+        sb.append("  \"uptime\": 3600000,\n");
+        sb.append("  \"pages\": {\n    \"home\": 250,\n    \"api\": 600,\n    \"other\": 150\n  },\n");
+        sb.append("  \"routes\": {");
+        for (int i = 0; i < routes; i++) {
+            sb.append(i == 0 ? "\n" : ",\n");
+            sb.append("    \"").append(i % 3 == 0 ? "/api/resource/" : "/pages/section/").append(i)
+                .append("\": ").append(17 + (i % 50));
+        }
+        sb.append(routes == 0 ? "},\n" : "\n  },\n");
+        sb.append("  \"buildInfo\": {\n    \"lastBuild\": \"2025-01-01T00:00:00.000Z\",\n");
+        sb.append("    \"buildTime\": 5400000,\n    \"isProduction\": true\n  },\n");
+        sb.append("  \"requestRate\": 4.2,\n");
+        sb.append("  \"errorRate\": 1.1,\n");
+        sb.append("  \"successRate\": 98.9,\n");
+        sb.append("  \"lastUpdated\": \"2025-01-01T01:00:00.000Z\",\n");
+        sb.append("  \"integration\": {\n    \"cloudsimReady\": true,\n");
+        sb.append("    \"monitoringActive\": true,\n    \"version\": \"2.0\"\n  }\n");
+        sb.append("}");
+        return sb.toString();
+    }
+}
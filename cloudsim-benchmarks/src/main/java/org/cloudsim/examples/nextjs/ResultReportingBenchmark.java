@@ -0,0 +1,125 @@
+package org.cloudsim.examples.nextjs;
+
+import org.cloudsimplus.brokers.DatacenterBroker;
+import org.cloudsimplus.brokers.DatacenterBrokerSimple;
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.core.CloudSimPlus;
+import org.cloudsimplus.datacenters.DatacenterSimple;
+import org.cloudsimplus.hosts.Host;
+import org.cloudsimplus.hosts.HostSimple;
+import org.cloudsimplus.resources.Pe;
+import org.cloudsimplus.resources.PeSimple;
+import org.cloudsimplus.schedulers.cloudlet.CloudletSchedulerTimeShared;
+import org.cloudsimplus.vms.Vm;
+import org.cloudsimplus.vms.VmSimple;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the result-reporting path: aggregating every finished cloudlet and
+ * reading the per-workload means, totals and percentiles the reports print.
+ *
+ * The cloudlets come from one real simulation run during setup, so their
+ * timings and workload mix match what the reports see.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class ResultReportingBenchmark {
+
+    private static final int VMS = 10;
+
+    @Param({"1000", "100000", "1000000"})
+    public int cloudlets;
+
+    private final List<Cloudlet> finished = new ArrayList<>();
+    private final List<WorkloadType> types = new ArrayList<>();
+
+    @Setup
+    public void setUp() throws IOException {
+        PrintStream console = BenchmarkSupport.quiet();
+        try {
+            runSimulation();
+        } finally {
+            System.setOut(console);
+        }
+    }
+
+    private void runSimulation() throws IOException {
+        CloudSimPlus simulation = new CloudSimPlus();
+        List<Host> hostList = new ArrayList<>();
+        for (int i = 0; i < VMS; i++) {
+            List<Pe> peList = new ArrayList<>();
+            for (int p = 0; p < 8; p++) {
+                peList.add(new PeSimple(2500));
+            }
+            hostList.add(new HostSimple(16384, 25000, 500000, peList));
+        }
+        new DatacenterSimple(simulation, hostList);
+
+        DatacenterBroker broker = new DatacenterBrokerSimple(simulation);
+        List<Vm> vmList = new ArrayList<>();
+        for (int i = 0; i < VMS; i++) {
+            vmList.add(new VmSimple(2500, 4).setRam(4096).setBw(1200).setSize(12000)
+                .setCloudletScheduler(new CloudletSchedulerTimeShared()));
+        }
+        broker.submitVmList(vmList);
+
+        WorkloadTypeIndex workloadTypes = new WorkloadTypeIndex();
+        CloudletArrivalEngine engine = new CloudletArrivalEngine(simulation, broker,
+            BenchmarkSupport.arrivals(cloudlets, VMS, ExistingNextJSCloudSimIntegration.DEFAULT_SEED),
+            WorkloadUtilizationProfiles.DEFAULT,
+            (cloudlet, type) -> workloadTypes.put(cloudlet.getId(), type));
+        FinishedCloudletReleaser releaser = new FinishedCloudletReleaser(simulation, broker, cloudlet -> {
+            finished.add(cloudlet);
+            types.add(workloadTypes.remove(cloudlet.getId()));
+        });
+        engine.start();
+        releaser.start();
+        simulation.start();
+        releaser.stop();
+    }
+
+    @TearDown
+    public void tearDown() {
+        finished.clear();
+        types.clear();
+    }
+
+    @Benchmark
+    public double aggregateAndReport() {
+        SimulationResultAggregator results = new SimulationResultAggregator();
+        for (int i = 0; i < finished.size(); i++) {
+            results.record(finished.get(i), types.get(i));
+        }
+
+        double checksum = results.getTotalExecutionTime() + results.getMeanExecutionTime();
+        for (WorkloadType type : WorkloadType.values()) {
+            checksum += results.getMeanExecutionTime(type) + results.getTotalExecutionTime(type);
+            checksum += results.getExecutionTimes(type).getPercentile(50)
+                + results.getExecutionTimes(type).getPercentile(99.9)
+                + results.getWaitTimes(type).getPercentile(99)
+                + results.getFinishTimes(type).getPercentile(99);
+        }
+        return checksum;
+    }
+}
@@ -0,0 +1,69 @@
+package org.cloudsim.examples.nextjs;
+
+import org.cloudsimplus.core.CloudSimPlus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-run setup cost of a scenario: instantiating a template compiled once,
+ * as sweeps, Monte Carlo replicas and the digital twin do, against compiling
+ * the specs again for every run.
+ *
+ * Both include creating the {@link CloudSimPlus} instance the scenario is
+ * instantiated into. There is one 4-core VM per host.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class ScenarioTemplateBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int hosts;
+
+    private ScenarioTemplate template;
+    private PrintStream console;
+
+    @Setup
+    public void setUp() {
+        console = BenchmarkSupport.quiet();
+        template = compile();
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(console);
+    }
+
+    @Benchmark
+    public ScenarioTemplate.Instance instantiate() {
+        return template.instantiate(new CloudSimPlus());
+    }
+
+    @Benchmark
+    public ScenarioTemplate.Instance compileAndInstantiate() {
+        return compile().instantiate(new CloudSimPlus());
+    }
+
+    private ScenarioTemplate compile() {
+        return new ScenarioTemplate.Builder()
+            .addHosts(hosts, 32, 2500, 65536, 25000, 500000)
+            .addVms(hosts, 2500, 4, 4096, 1200, 12000)
+            .build();
+    }
+}
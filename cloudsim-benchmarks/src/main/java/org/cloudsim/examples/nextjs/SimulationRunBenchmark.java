@@ -0,0 +1,60 @@
+package org.cloudsim.examples.nextjs;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of simulation.start() at scale: datacenter creation, VM placement and
+ * streamed cloudlet execution with finished cloudlets released as they
+ * return, as used by sweeps and Monte Carlo replicas.
+ *
+ * There is one 4-core VM per host and the arrival rate grows with the VM
+ * count, so the load per VM is the same at every size. Each invocation is a
+ * complete simulation, so scores are single-shot times.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class SimulationRunBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    public int cloudlets;
+
+    @Param({"10", "1000", "10000"})
+    public int hosts;
+
+    private PrintStream console;
+
+    @Setup
+    public void setUp() {
+        console = BenchmarkSupport.quiet();
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(console);
+    }
+
+    @Benchmark
+    public CapacitySweep.Outcome simulate() {
+        CapacitySweep.Configuration configuration = new CapacitySweep.Configuration(hosts, 4, 4096, 2500, hosts);
+        return CapacitySweep.simulate(configuration,
+            BenchmarkSupport.arrivals(cloudlets, hosts, ExistingNextJSCloudSimIntegration.DEFAULT_SEED));
+    }
+}
@@ -0,0 +1,54 @@
+package org.cloudsim.examples.nextjs;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the standalone integration: building the datacenter, VMs and
+ * cloudlets (createDatacenter, createVMs, createCloudlets), and the full
+ * build, run and report cycle.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimulationSetupBenchmark {
+
+    private PrintStream console;
+
+    @Setup
+    public void setUp() {
+        console = BenchmarkSupport.quiet();
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(console);
+    }
+
+    @Benchmark
+    public ExistingNextJSCloudSimIntegration construct() {
+        return new ExistingNextJSCloudSimIntegration(false, null);
+    }
+
+    @Benchmark
+    public ExistingNextJSCloudSimIntegration constructRunAndReport() {
+        ExistingNextJSCloudSimIntegration integration = new ExistingNextJSCloudSimIntegration(false, null);
+        integration.runSimulation();
+        return integration;
+    }
+}
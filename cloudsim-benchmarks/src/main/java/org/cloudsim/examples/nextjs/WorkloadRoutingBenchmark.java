@@ -0,0 +1,128 @@
+package org.cloudsim.examples.nextjs;
+
+import org.cloudsimplus.brokers.DatacenterBroker;
+import org.cloudsimplus.core.CloudSimPlus;
+import org.cloudsimplus.vms.Vm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request latency with the broker's default round-robin mapping against
+ * routing by workload type to the least loaded VM of each role.
+ *
+ * The fleet is built from groups of three application servers, an API server
+ * and a static content server, sized so each role runs at about 60% of its
+ * capacity under the generated workload mix. Round-robin spreads every type
+ * over every VM regardless of speed or load and overloads the API servers,
+ * where requests that run out of memory never finish. The score is the
+ * simulation's wall-clock time; the simulated makespan and p99 finish time,
+ * which are what the routing changes, are printed when the trial ends.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class WorkloadRoutingBenchmark {
+
+    private static final int GROUPS = 20;
+    // About 60% of the API server's capacity at the default workload mix
+    private static final double REQUESTS_PER_GROUP_SECOND = 75.0;
+
+    @Param({"round-robin", "roles"})
+    public String mapping;
+
+    @Param({"100000"})
+    public int cloudlets;
+
+    private ScenarioTemplate template;
+    private PrintStream console;
+    private SimulationResultAggregator lastResults;
+    private long lastSubmitted;
+    private double lastMakespan;
+
+    @Setup
+    public void setUp() {
+        console = BenchmarkSupport.quiet();
+        ScenarioTemplate.Builder scenario = new ScenarioTemplate.Builder()
+            .addHosts(GROUPS * 5, 8, 3400, 32768, 25000, 500000);
+        for (int g = 0; g < GROUPS; g++) {
+            scenario.addVms(3, 2200, 4, 4096, 1200, 12000)
+                .addVms(1, 2800, 2, 4096, 1200, 12000)
+                .addVms(1, 3400, 4, 4096, 1200, 12000);
+        }
+        template = scenario.build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(console);
+        System.out.printf("%n%s: %d of %d requests finished, makespan %.2f s, p99 finish time %.3f s%n",
+            mapping, lastResults.getFinishedCloudlets(), lastSubmitted, lastMakespan,
+            lastResults.getFinishTimes().getPercentile(99));
+    }
+
+    @Benchmark
+    public SimulationResultAggregator simulate() throws IOException {
+        CloudSimPlus simulation = new CloudSimPlus();
+        ScenarioTemplate.Instance instance = template.instantiate(simulation);
+        DatacenterBroker broker = instance.getBroker();
+        List<Vm> vms = instance.getVms();
+
+        WorkloadTypeIndex workloadTypes = new WorkloadTypeIndex();
+        if (mapping.equals("roles")) {
+            WorkloadRouter router = new WorkloadRouter(simulation, workloadTypes::typeOf);
+            for (int v = 0; v < vms.size(); v++) {
+                switch (v % 5) {
+                    case 3:
+                        router.addVm(vms.get(v), WorkloadType.API_PROCESSING);
+                        break;
+                    case 4:
+                        router.addVm(vms.get(v), WorkloadType.STATIC_ASSETS, WorkloadType.IMAGE_PROCESSING);
+                        break;
+                    default:
+                        router.addVm(vms.get(v), WorkloadType.PAGE_RENDERING);
+                }
+            }
+            router.start(broker);
+        }
+
+        double rate = REQUESTS_PER_GROUP_SECOND * GROUPS;
+        ArrivalSource source = new GeneratedArrivalSource(ArrivalRateModel.poisson(rate), cloudlets / rate,
+            GeneratedArrivalSource.DEFAULT_WORKLOAD_MIX, 1.0, ExistingNextJSCloudSimIntegration.DEFAULT_SEED);
+        SimulationResultAggregator results = new SimulationResultAggregator();
+        double[] makespan = new double[1];
+        CloudletArrivalEngine engine = new CloudletArrivalEngine(simulation, broker, source,
+            WorkloadUtilizationProfiles.DEFAULT,
+            (cloudlet, type) -> workloadTypes.put(cloudlet.getId(), type), 1.0);
+        FinishedCloudletReleaser releaser = new FinishedCloudletReleaser(simulation, broker, cloudlet -> {
+            results.record(cloudlet, workloadTypes.remove(cloudlet.getId()));
+            makespan[0] = Math.max(makespan[0], cloudlet.getFinishTime());
+        });
+        engine.start();
+        releaser.start();
+        simulation.start();
+        releaser.stop();
+
+        lastResults = results;
+        lastSubmitted = engine.getSubmittedCloudlets();
+        lastMakespan = makespan[0];
+        return results;
+    }
+}
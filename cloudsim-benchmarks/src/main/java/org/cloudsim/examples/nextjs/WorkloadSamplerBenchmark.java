@@ -0,0 +1,91 @@
+package org.cloudsim.examples.nextjs;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples per second when picking the route of a generated request, with the
+ * alias table of {@link RouteWorkloadModel} against a linear scan of the
+ * cumulative shares, as the generator used to pick workload types.
+ *
+ * Route shares follow a Zipf distribution, as the routes of a real app do,
+ * which favours the scan since most draws stop early. generate is the whole
+ * cost of one generated arrival and build the cost of rebuilding the model
+ * when the mix changes. Run with -prof gc to read the allocation rate, which
+ * is zero for everything but build.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WorkloadSamplerBenchmark {
+
+    @Param({"4", "1000", "100000"})
+    public int routes;
+
+    private MetricsSnapshot metrics;
+    private RouteWorkloadModel model;
+    private double[] cumulativeShares;
+    private GeneratedArrivalSource source;
+    private final SplittableRandom random = new SplittableRandom(ExistingNextJSCloudSimIntegration.DEFAULT_SEED);
+
+    @Setup
+    public void setUp() {
+        MetricsSnapshot.Builder snapshot = new MetricsSnapshot.Builder();
+        for (int r = 0; r < routes; r++) {
+            snapshot.addRoute((r % 3 == 0 ? "/api/resource/" : "/pages/section/") + r, 1_000_000L / (r + 1));
+        }
+        metrics = snapshot.build();
+        model = RouteWorkloadModel.fromMetrics(metrics);
+
+        cumulativeShares = new double[model.size()];
+        double share = 0;
+        for (int r = 0; r < model.size(); r++) {
+            share += model.getShare(r);
+            cumulativeShares[r] = share;
+        }
+        source = new GeneratedArrivalSource(ArrivalRateModel.poisson(1000), Double.POSITIVE_INFINITY, model, 1.0,
+            ExistingNextJSCloudSimIntegration.DEFAULT_SEED);
+    }
+
+    @Benchmark
+    public int alias() {
+        return model.sample(random);
+    }
+
+    @Benchmark
+    public int linearScan() {
+        double u = random.nextDouble();
+        for (int r = 0; r < cumulativeShares.length - 1; r++) {
+            if (u < cumulativeShares[r]) {
+                return r;
+            }
+        }
+        return cumulativeShares.length - 1;
+    }
+
+    @Benchmark
+    public double generate() {
+        source.next();
+        return source.getServiceMillis();
+    }
+
+    @Benchmark
+    public RouteWorkloadModel build() {
+        return RouteWorkloadModel.fromMetrics(metrics);
+    }
+}
@@ -0,0 +1,96 @@
+package org.cloudsim.examples.nextjs;
+
+import java.util.SplittableRandom;
+
+/**
+ * Draws indexes in proportion to fixed weights in constant time, using
+ * Walker's alias method.
+ *
+ * The table is built once in linear time with Vose's construction: every
+ * index owns a column of equal height, filled up to its weight and topped up
+ * by one other index, its alias. A draw picks a column and either its owner
+ * or the alias with a single uniform number, so sampling allocates nothing
+ * and costs the same for five weights or a million.
+ */
+final class AliasSampler {
+
+    private final double[] probability;
+    private final int[] alias;
+
+    /**
+     * @param weights relative weight of each index; negative weights count as 0
+     * @throws IllegalArgumentException if no weight is positive
+     */
+    AliasSampler(double[] weights) {
+        int n = weights.length;
+        double total = 0;
+        for (double weight : weights) {
+            total += Math.max(0, weight);
+        }
+        if (n == 0 || total <= 0) {
+            throw new IllegalArgumentException("No positive weight to sample from");
+        }
+
+        probability = new double[n];
+        alias = new int[n];
+        // Indexes whose scaled weight is below and at or above the column height, as stacks
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        double[] scaled = new double[n];
+        for (int i = 0; i < n; i++) {
+            scaled[i] = Math.max(0, weights[i]) * n / total;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = scaled[more] + scaled[less] - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        // Whatever is left fills its column on its own, up to rounding
+        while (largeCount > 0) {
+            int i = large[--largeCount];
+            probability[i] = 1.0;
+            alias[i] = i;
+        }
+        while (smallCount > 0) {
+            int i = small[--smallCount];
+            probability[i] = 1.0;
+            alias[i] = i;
+        }
+    }
+
+    int size() {
+        return probability.length;
+    }
+
+    /**
+     * Index drawn with probability proportional to its weight
+     */
+    int sample(SplittableRandom random) {
+        return sample(random.nextDouble());
+    }
+
+    /**
+     * Index for a uniform number in [0, 1): its integer part after scaling picks the column
+     * and the fraction decides between the column's owner and its alias
+     */
+    int sample(double u) {
+        double scaled = u * probability.length;
+        // Rounding can carry u just below 1 up to the last column's end
+        int column = Math.min((int) scaled, probability.length - 1);
+        return scaled - column < probability[column] ? column : alias[column];
+    }
+}
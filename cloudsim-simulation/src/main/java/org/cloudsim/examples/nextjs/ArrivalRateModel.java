@@ -0,0 +1,92 @@
+package org.cloudsim.examples.nextjs;
+
+/**
+ * Request arrival rate as a function of simulated time.
+ *
+ * Used by {@link GeneratedArrivalSource} to draw a non-homogeneous Poisson
+ * arrival process, which needs both the instantaneous rate and an upper
+ * bound on it.
+ */
+interface ArrivalRateModel {
+
+    double SECONDS_PER_DAY = 86400.0;
+
+    /**
+     * Arrival rate in requests per second at the given simulated time
+     */
+    double rateAt(double time);
+
+    /**
+     * Upper bound of {@link #rateAt(double)} over all times
+     */
+    double getPeakRate();
+
+    /**
+     * Constant rate: a homogeneous Poisson process
+     */
+    static ArrivalRateModel poisson(double rate) {
+        final double r = Math.max(0, rate);
+        return new ArrivalRateModel() {
+            @Override
+            public double rateAt(double time) {
+                return r;
+            }
+
+            @Override
+            public double getPeakRate() {
+                return r;
+            }
+        };
+    }
+
+    /**
+     * Daily sinusoidal cycle around a mean rate
+     *
+     * @param meanRate  average requests per second over a day
+     * @param amplitude relative swing around the mean, between 0 and 1
+     * @param peakHour  hour of the day (0-24) with the highest rate
+     */
+    static ArrivalRateModel diurnal(double meanRate, double amplitude, double peakHour) {
+        final double mean = Math.max(0, meanRate);
+        final double swing = Math.max(0, Math.min(1, amplitude));
+        final double peakOffset = peakHour * 3600.0;
+        return new ArrivalRateModel() {
+            @Override
+            public double rateAt(double time) {
+                return mean * (1 + swing * Math.cos(2 * Math.PI * (time - peakOffset) / SECONDS_PER_DAY));
+            }
+
+            @Override
+            public double getPeakRate() {
+                return mean * (1 + swing);
+            }
+        };
+    }
+
+    /**
+     * Steady base rate with periodic traffic spikes
+     *
+     * @param baseRate        requests per second outside bursts
+     * @param burstMultiplier rate multiplier during a burst
+     * @param intervalSeconds time between the starts of consecutive bursts
+     * @param burstSeconds    length of each burst
+     */
+    static ArrivalRateModel bursty(double baseRate, double burstMultiplier,
+                                   double intervalSeconds, double burstSeconds) {
+        final double base = Math.max(0, baseRate);
+        final double multiplier = Math.max(1, burstMultiplier);
+        final double interval = Math.max(1, intervalSeconds);
+        final double burst = Math.max(0, Math.min(interval, burstSeconds));
+        return new ArrivalRateModel() {
+            @Override
+            public double rateAt(double time) {
+                return time % interval < burst ? base * multiplier : base;
+            }
+
+            @Override
+            public double getPeakRate() {
+                return base * multiplier;
+            }
+        };
+    }
+}
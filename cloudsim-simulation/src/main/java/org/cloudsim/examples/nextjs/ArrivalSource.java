@@ -0,0 +1,62 @@
+package org.cloudsim.examples.nextjs;
+
+import java.io.IOException;
+
+/**
+ * Ordered stream of request arrivals fed to a {@link CloudletArrivalEngine}.
+ *
+ * Sources are cursors: {@link #next()} advances to the next arrival and the
+ * getters describe the current one, so no per-request object is allocated.
+ */
+interface ArrivalSource {
+
+    /**
+     * Advances to the next arrival
+     *
+     * @return false when the source is exhausted
+     */
+    boolean next() throws IOException;
+
+    /**
+     * Arrival time of the current request in simulated seconds from the start
+     */
+    double getArrivalTime();
+
+    /**
+     * Workload type of the current request
+     */
+    WorkloadType getWorkloadType();
+
+    /**
+     * Service time of the current request on the reference VM
+     */
+    double getServiceMillis();
+
+    /**
+     * Length in MI of the current request, by default its service time on the reference VM
+     */
+    default long getLength() {
+        return Math.max(1, (long) (getServiceMillis() / 1000.0 * CloudletArrivalEngine.REFERENCE_MIPS));
+    }
+
+    /**
+     * PEs the current request runs on, by default those of its workload type
+     */
+    default int getPesNumber() {
+        return getWorkloadType().getPesNumber();
+    }
+
+    /**
+     * Size in bytes of the current request, by default that of its workload type
+     */
+    default long getRequestBytes() {
+        return getWorkloadType().getRequestBytes();
+    }
+
+    /**
+     * Size in bytes of the response to the current request, by default that of its workload type
+     */
+    default long getResponseBytes() {
+        return getWorkloadType().getResponseBytes();
+    }
+}
@@ -0,0 +1,90 @@
+package org.cloudsim.examples.nextjs;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.vms.Vm;
+
+import java.util.List;
+
+/**
+ * Changes the capacity of server roles while the simulation runs.
+ *
+ * A role starts from one VM of the fleet and owns the workload types routed
+ * to it. The autoscaler takes over request routing on the broker, evaluates
+ * each role's CPU utilization against an {@link AutoscalingPolicy} and adds
+ * or removes capacity: {@link HorizontalAutoscaler} with replicas of the VM,
+ * {@link VerticalAutoscaler} by resizing it in place.
+ */
+interface Autoscaler {
+
+    /**
+     * Scaling history, cost and latency of one role, in terms both kinds of scaling share
+     */
+    interface ScaledRole {
+
+        String getName();
+
+        /**
+         * Scaling actions taken, in either direction
+         */
+        long getScalingActions();
+
+        /**
+         * Actions that wanted more capacity than the hosts had room for
+         */
+        long getCappedActions();
+
+        /**
+         * Most cores the role had at once
+         */
+        long getPeakPes();
+
+        /**
+         * Seconds from the start of each overload until the capacity added for it could serve requests
+         */
+        WindowStats getTimeToScale();
+
+        /**
+         * Seconds the role spent overloaded
+         */
+        double getOverloadedSeconds(double now);
+
+        /**
+         * Finish times of requests that arrived while the role was overloaded
+         */
+        LatencyHistogram getOverloadedLatency();
+
+        /**
+         * Finish times of requests that arrived while the role kept up
+         */
+        LatencyHistogram getSteadyLatency();
+
+        /**
+         * Price of the added capacity over the run, at on-demand VM prices
+         */
+        double getAddedCost();
+    }
+
+    /**
+     * Scales a role from the given fleet VM; requests of the given types are routed to it
+     */
+    ScaledRole addRole(String name, Vm vm, WorkloadType... types);
+
+    List<? extends ScaledRole> getRoles();
+
+    AutoscalingPolicy getPolicy();
+
+    /**
+     * Takes over request routing and starts evaluating the roles as the clock advances
+     */
+    void start();
+
+    /**
+     * Stops evaluating and accounts for the capacity still added at the end of the run
+     */
+    void stop();
+
+    /**
+     * Attributes the finish time of a returned cloudlet to the load of its role
+     */
+    void record(Cloudlet cloudlet, WorkloadType type);
+}
@@ -0,0 +1,174 @@
+package org.cloudsim.examples.nextjs;
+
+/**
+ * When an {@link Autoscaler} adds or removes capacity of a role.
+ *
+ * The autoscaler averages the CPU utilization of a role's ready replicas over
+ * each evaluation interval and asks the policy for the replica count it
+ * wants. Two policies are supported:
+ *
+ * - Threshold (step scaling): one replica is added when the average is above
+ *   the scale-out threshold and one removed when it is below the scale-in
+ *   threshold.
+ * - Target tracking: the replica count is set so that the observed load
+ *   would run at the target utilization, ceil(replicas * utilization / target).
+ *
+ * After any scaling action the role is left alone for the cooldown, so
+ * replicas that are still booting are not counted twice. New replicas take
+ * the boot time to become ready and only then receive requests. A
+ * {@link VerticalAutoscaler} reads the replica count as the multiple of its
+ * starting size a VM is resized to.
+ */
+final class AutoscalingPolicy {
+
+    enum Mode {
+        THRESHOLD,
+        TARGET_TRACKING
+    }
+
+    static final double DEFAULT_SCALE_OUT_UTILIZATION = 0.75;
+    static final double DEFAULT_SCALE_IN_UTILIZATION = 0.30;
+    static final double DEFAULT_TARGET_UTILIZATION = 0.60;
+    static final double DEFAULT_COOLDOWN_SECONDS = 60.0;
+    static final double DEFAULT_EVALUATION_SECONDS = 15.0;
+    static final double DEFAULT_BOOT_SECONDS = 45.0;
+    static final int DEFAULT_MAX_REPLICAS = 8;
+
+    private final Mode mode;
+    private final double scaleOutUtilization;
+    private final double scaleInUtilization;
+    private final double targetUtilization;
+    private final double cooldownSeconds;
+    private final double evaluationSeconds;
+    private final double bootSeconds;
+    private final int maxReplicas;
+
+    private AutoscalingPolicy(Mode mode, double scaleOutUtilization, double scaleInUtilization,
+                              double targetUtilization, double cooldownSeconds, double evaluationSeconds,
+                              double bootSeconds, int maxReplicas) {
+        this.mode = mode;
+        this.scaleOutUtilization = clampUtilization(scaleOutUtilization);
+        this.scaleInUtilization = Math.min(clampUtilization(scaleInUtilization), this.scaleOutUtilization);
+        this.targetUtilization = Math.max(0.05, clampUtilization(targetUtilization));
+        this.cooldownSeconds = Math.max(0, cooldownSeconds);
+        this.evaluationSeconds = Math.max(1, evaluationSeconds);
+        this.bootSeconds = Math.max(0, bootSeconds);
+        this.maxReplicas = Math.max(1, maxReplicas);
+    }
+
+    private static double clampUtilization(double utilization) {
+        return Math.max(0, Math.min(1, utilization));
+    }
+
+    /**
+     * Step scaling by one replica at a time
+     *
+     * @param scaleOutUtilization average utilization (0-1) above which a replica is added
+     * @param scaleInUtilization  average utilization (0-1) below which a replica is removed
+     */
+    static AutoscalingPolicy threshold(double scaleOutUtilization, double scaleInUtilization,
+                                       double cooldownSeconds, int maxReplicas) {
+        return new AutoscalingPolicy(Mode.THRESHOLD, scaleOutUtilization, scaleInUtilization,
+            DEFAULT_TARGET_UTILIZATION, cooldownSeconds, DEFAULT_EVALUATION_SECONDS, DEFAULT_BOOT_SECONDS,
+            maxReplicas);
+    }
+
+    /**
+     * Sizes each role so its replicas run at the target utilization
+     *
+     * @param targetUtilization utilization (0-1) the replicas should run at
+     */
+    static AutoscalingPolicy targetTracking(double targetUtilization, double cooldownSeconds, int maxReplicas) {
+        return new AutoscalingPolicy(Mode.TARGET_TRACKING, DEFAULT_SCALE_OUT_UTILIZATION,
+            DEFAULT_SCALE_IN_UTILIZATION, targetUtilization, cooldownSeconds, DEFAULT_EVALUATION_SECONDS,
+            DEFAULT_BOOT_SECONDS, maxReplicas);
+    }
+
+    /**
+     * Policy for a command-line name (threshold or target) with default thresholds
+     *
+     * @return null if the name is not known
+     */
+    static AutoscalingPolicy fromName(String name, double cooldownSeconds, int maxReplicas) {
+        switch (name) {
+            case "threshold":
+                return threshold(DEFAULT_SCALE_OUT_UTILIZATION, DEFAULT_SCALE_IN_UTILIZATION,
+                    cooldownSeconds, maxReplicas);
+            case "target":
+                return targetTracking(DEFAULT_TARGET_UTILIZATION, cooldownSeconds, maxReplicas);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Replica count wanted for a role, between 1 and the maximum
+     *
+     * @param replicas    ready and booting replicas of the role
+     * @param utilization average CPU utilization (0-1) of the ready replicas
+     */
+    int desiredReplicas(int replicas, double utilization) {
+        int desired;
+        if (mode == Mode.TARGET_TRACKING) {
+            desired = (int) Math.ceil(replicas * utilization / targetUtilization - 1e-9);
+        } else if (utilization > scaleOutUtilization) {
+            desired = replicas + 1;
+        } else if (utilization < scaleInUtilization) {
+            desired = replicas - 1;
+        } else {
+            desired = replicas;
+        }
+        return Math.max(1, Math.min(maxReplicas, desired));
+    }
+
+    /**
+     * Whether an evaluation at this utilization calls for more capacity
+     */
+    boolean isOverloaded(double utilization) {
+        return utilization > (mode == Mode.TARGET_TRACKING ? targetUtilization : scaleOutUtilization);
+    }
+
+    Mode getMode() {
+        return mode;
+    }
+
+    double getCooldownSeconds() {
+        return cooldownSeconds;
+    }
+
+    double getEvaluationSeconds() {
+        return evaluationSeconds;
+    }
+
+    double getBootSeconds() {
+        return bootSeconds;
+    }
+
+    int getMaxReplicas() {
+        return maxReplicas;
+    }
+
+    /**
+     * Short description for reports
+     */
+    String describe() {
+        return String.format("%s, %.0f s cooldown, %.0f s boot, up to %d replicas per role",
+            describeRule("out", "in"), cooldownSeconds, bootSeconds, maxReplicas);
+    }
+
+    /**
+     * Short description for reports on a {@link VerticalAutoscaler}, which sizes VMs in
+     * multiples of their starting size instead of counting replicas and has no boot time
+     */
+    String describeResizing() {
+        return String.format("%s, %.0f s cooldown, up to %d times the starting size",
+            describeRule("up", "down"), cooldownSeconds, maxReplicas);
+    }
+
+    private String describeRule(String increase, String decrease) {
+        return mode == Mode.TARGET_TRACKING
+            ? String.format("target tracking at %.0f%% CPU", targetUtilization * 100)
+            : String.format("threshold, %s above %.0f%% / %s below %.0f%% CPU",
+                increase, scaleOutUtilization * 100, decrease, scaleInUtilization * 100);
+    }
+}
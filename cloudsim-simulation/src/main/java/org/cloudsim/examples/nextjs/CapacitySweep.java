@@ -0,0 +1,469 @@
+package org.cloudsim.examples.nextjs;
+
+import ch.qos.logback.classic.Level;
+import org.cloudsimplus.brokers.DatacenterBroker;
+import org.cloudsimplus.core.CloudSimPlus;
+import org.cloudsimplus.util.Log;
+import org.cloudsimplus.vms.Vm;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+
+/**
+ * What-if capacity planning: simulates every combination of VM count, cores,
+ * RAM, MIPS and host count and ranks them by monthly cost against latency.
+ *
+ * Each combination runs as an independent {@link CloudSimPlus} instance on a
+ * fork-join pool sized to the machine's cores. All combinations replay the
+ * same seeded arrival stream, so differences in latency come from the
+ * infrastructure alone. The stream is generated once and kept as
+ * {@link CloudletSpecs} that every simulation reads, instead of being drawn
+ * again per combination. Cloudlets are created one look-ahead window at a
+ * time, and finished ones are aggregated and released as they return, so a
+ * sweep uses little memory per running simulation.
+ */
+final class CapacitySweep {
+
+    // Monthly on-demand prices for a general-purpose cloud instance
+    private static final double VCPU_MONTHLY_PRICE = 25.0;   // per vCPU at REFERENCE_MIPS
+    private static final double GB_RAM_MONTHLY_PRICE = 3.5;
+    private static final double REFERENCE_MIPS = 2500;
+    static final double SECONDS_PER_MONTH = 30 * 24 * 3600.0;
+
+    // Host template, matching the main application host of the single-run datacenter
+    private static final int HOST_PES = 32;
+    private static final long HOST_RAM = 65536;
+    private static final long HOST_BW = 25000;
+    private static final long HOST_STORAGE = 500000;
+    private static final long VM_BW = 1200;
+    private static final long VM_SIZE = 12000;
+
+
+    // Queued or running requests per VM core beyond which a configuration is considered
+    // saturated and stopped: latency is already far past any useful target, and time-shared
+    // scheduling cost grows with the number of concurrent cloudlets
+    private static final int MAX_IN_FLIGHT_PER_CORE = 100;
+
+    /**
+     * One infrastructure combination; every VM gets the same size
+     */
+    static final class Configuration {
+        private final int vms;
+        private final int cores;
+        private final int ramMb;
+        private final int mips;
+        private final int hosts;
+        private final ScenarioTemplate template;
+
+        Configuration(int vms, int cores, int ramMb, int mips, int hosts) {
+            this.vms = vms;
+            this.cores = cores;
+            this.ramMb = ramMb;
+            this.mips = mips;
+            this.hosts = hosts;
+            this.template = new ScenarioTemplate.Builder()
+                .addHosts(hosts, HOST_PES, mips, HOST_RAM, HOST_BW, HOST_STORAGE)
+                .addVms(vms, mips, cores, ramMb, VM_BW, VM_SIZE)
+                .build();
+        }
+
+        int getVms() {
+            return vms;
+        }
+
+        int getCores() {
+            return cores;
+        }
+
+        int getRamMb() {
+            return ramMb;
+        }
+
+        int getMips() {
+            return mips;
+        }
+
+        int getHosts() {
+            return hosts;
+        }
+
+        /**
+         * Compiled datacenter and VM specs, shared by every run of this configuration
+         */
+        ScenarioTemplate getTemplate() {
+            return template;
+        }
+
+        /**
+         * Monthly price of the VM fleet, with CPU priced by relative speed
+         */
+        double getMonthlyCost() {
+            return vms * monthlyVmPrice(cores, mips, ramMb);
+        }
+    }
+
+    /**
+     * Monthly on-demand price of one VM, with CPU priced by relative speed
+     */
+    static double monthlyVmPrice(long cores, double mips, long ramMb) {
+        return cores * VCPU_MONTHLY_PRICE * (mips / REFERENCE_MIPS) + ramMb / 1024.0 * GB_RAM_MONTHLY_PRICE;
+    }
+
+    /**
+     * Latencies and execution times observed for one configuration
+     */
+    static final class Outcome {
+        private final Configuration configuration;
+        private final SimulationResultAggregator results = new SimulationResultAggregator();
+        private long submitted;
+        private int placedVms;
+        private boolean saturated;
+        private boolean cancelled;
+
+        Outcome(Configuration configuration) {
+            this.configuration = configuration;
+        }
+
+        Configuration getConfiguration() {
+            return configuration;
+        }
+
+        SimulationResultAggregator getResults() {
+            return results;
+        }
+
+        /**
+         * Mean response time (arrival to finish) of a workload type in milliseconds, or 0 if none finished
+         */
+        double getMeanResponseMillis(WorkloadType workloadType) {
+            return results.getFinishTimes(workloadType).getMean() * 1000;
+        }
+
+        /**
+         * Response time percentile of a workload type in milliseconds
+         */
+        double getResponsePercentileMillis(WorkloadType workloadType, double percentile) {
+            return results.getFinishTimes(workloadType).getPercentile(percentile) * 1000;
+        }
+
+        /**
+         * Response times of every finished request, in seconds
+         */
+        LatencyHistogram getOverall() {
+            return results.getFinishTimes();
+        }
+
+        long getUnfinished() {
+            return submitted - results.getFinishedCloudlets();
+        }
+
+        boolean isPlaced() {
+            return placedVms == configuration.getVms();
+        }
+
+        /**
+         * Whether the run was stopped because requests queued up faster than they finished
+         */
+        boolean isSaturated() {
+            return saturated;
+        }
+
+        /**
+         * Whether the run was stopped on request before all arrivals were simulated
+         */
+        boolean isCancelled() {
+            return cancelled;
+        }
+
+        private boolean isComplete() {
+            return isPlaced() && !saturated && !cancelled && submitted > 0 && getUnfinished() == 0;
+        }
+
+        /**
+         * Whether every VM was placed, every request finished and page rendering met the target
+         */
+        boolean meetsTarget(double targetMillis) {
+            return isComplete() && getMeanResponseMillis(WorkloadType.PAGE_RENDERING) <= targetMillis;
+        }
+    }
+
+    // Replayed by every configuration, which only read it
+    private final CloudletSpecs arrivals;
+
+    CapacitySweep(ArrivalRateModel arrivalModel, double horizonSeconds, long seed) {
+        ArrivalSource source = new GeneratedArrivalSource(arrivalModel, horizonSeconds,
+            RouteWorkloadModel.fromMix(GeneratedArrivalSource.DEFAULT_WORKLOAD_MIX), 1.0, seed);
+        try {
+            this.arrivals = CloudletSpecs.record(source);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Every combination of the given values, in a stable order
+     */
+    static List<Configuration> combinations(int[] vms, int[] cores, int[] ramMb, int[] mips, int[] hosts) {
+        List<Configuration> configurations = new ArrayList<>();
+        for (int h : hosts) {
+            for (int v : vms) {
+                for (int c : cores) {
+                    for (int r : ramMb) {
+                        for (int m : mips) {
+                            configurations.add(new Configuration(v, c, r, m, h));
+                        }
+                    }
+                }
+            }
+        }
+        return configurations;
+    }
+
+    /**
+     * Runs all configurations in parallel and returns their outcomes in the same order
+     */
+    List<Outcome> run(List<Configuration> configurations) throws InterruptedException {
+        List<Callable<Outcome>> tasks = new ArrayList<>();
+        for (Configuration configuration : configurations) {
+            tasks.add(() -> simulate(configuration));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try {
+            List<Outcome> outcomes = new ArrayList<>();
+            for (Future<Outcome> future : pool.invokeAll(tasks)) {
+                outcomes.add(future.get());
+            }
+            return outcomes;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Sweep simulation failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    Outcome simulate(Configuration configuration) {
+        return simulate(configuration, arrivals.arrivals());
+    }
+
+    /**
+     * Builds and runs one independent simulation fed by the given arrivals
+     */
+    static Outcome simulate(Configuration configuration, ArrivalSource source) {
+        return simulate(configuration, source, () -> false);
+    }
+
+    /**
+     * Builds and runs one independent simulation, stopping early once cancelled returns true
+     */
+    static Outcome simulate(Configuration configuration, ArrivalSource source, BooleanSupplier cancelled) {
+        return simulate(configuration, source, WorkloadUtilizationProfiles.DEFAULT, cancelled);
+    }
+
+    /**
+     * Builds and runs one independent simulation whose requests use the given profiles,
+     * stopping early once cancelled returns true
+     */
+    static Outcome simulate(Configuration configuration, ArrivalSource source,
+                            WorkloadUtilizationProfiles utilization, BooleanSupplier cancelled) {
+        CloudSimPlus simulation = new CloudSimPlus();
+        ScenarioTemplate.Instance scenario = configuration.getTemplate().instantiate(simulation);
+        DatacenterBroker broker = scenario.getBroker();
+        List<Vm> vmList = scenario.getVms();
+
+        Outcome outcome = new Outcome(configuration);
+        WorkloadTypeIndex workloadTypes = new WorkloadTypeIndex();
+        CloudletArrivalEngine engine = new CloudletArrivalEngine(simulation, broker, source,
+            utilization,
+            (cloudlet, type) -> workloadTypes.put(cloudlet.getId(), type));
+        FinishedCloudletReleaser releaser = new FinishedCloudletReleaser(simulation, broker,
+            cloudlet -> outcome.results.record(cloudlet, workloadTypes.remove(cloudlet.getId())));
+
+        try {
+            engine.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        releaser.start();
+        int maxInFlight = MAX_IN_FLIGHT_PER_CORE * configuration.getVms() * configuration.getCores();
+        simulation.addOnClockTickListener(info -> {
+            if (outcome.saturated || outcome.cancelled) {
+                return;
+            }
+            if (cancelled.getAsBoolean()) {
+                outcome.cancelled = true;
+                simulation.terminate();
+            } else if (inFlight(vmList) > maxInFlight) {
+                outcome.saturated = true;
+                simulation.terminate();
+            }
+        });
+        simulation.start();
+        releaser.stop();
+
+        outcome.submitted = engine.getSubmittedCloudlets();
+        outcome.placedVms = broker.getVmCreatedList().size();
+        return outcome;
+    }
+
+    private static int inFlight(List<Vm> vmList) {
+        int cloudlets = 0;
+        for (Vm vm : vmList) {
+            cloudlets += vm.getCloudletScheduler().getCloudletExecList().size()
+                + vm.getCloudletScheduler().getCloudletWaitingList().size();
+        }
+        return cloudlets;
+    }
+
+    /**
+     * Configurations meeting the target first, cheapest first; the rest by page rendering latency
+     */
+    static List<Outcome> rank(List<Outcome> outcomes, double targetMillis) {
+        List<Outcome> ranked = new ArrayList<>(outcomes);
+        ranked.sort(Comparator
+            .comparing((Outcome o) -> !o.meetsTarget(targetMillis))
+            .thenComparingDouble(o -> o.meetsTarget(targetMillis) ?
+                o.getConfiguration().getMonthlyCost() : pageLatencyForRanking(o))
+            .thenComparingDouble(o -> o.getOverall().getMean())
+            .thenComparingInt(o -> o.getConfiguration().getHosts()));
+        return ranked;
+    }
+
+    private static double pageLatencyForRanking(Outcome outcome) {
+        return outcome.isComplete() ?
+            outcome.getMeanResponseMillis(WorkloadType.PAGE_RENDERING) : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Parses "4", "2,4,8", "1..4" or "2000..3000:500" into the listed values
+     */
+    static int[] parseRange(String spec) {
+        int dots = spec.indexOf("..");
+        if (dots < 0) {
+            String[] parts = spec.split(",");
+            int[] values = new int[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                values[i] = Integer.parseInt(parts[i].trim());
+            }
+            return values;
+        }
+
+        int colon = spec.indexOf(':', dots);
+        int from = Integer.parseInt(spec.substring(0, dots).trim());
+        int to = Integer.parseInt(spec.substring(dots + 2, colon < 0 ? spec.length() : colon).trim());
+        int step = colon < 0 ? 1 : Integer.parseInt(spec.substring(colon + 1).trim());
+        if (step <= 0 || to < from) {
+            throw new IllegalArgumentException("Invalid range: " + spec);
+        }
+        int[] values = new int[(to - from) / step + 1];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = from + i * step;
+        }
+        return values;
+    }
+
+    /**
+     * Runs a sweep from command-line arguments and prints the ranked table
+     */
+    static void run(String[] args) throws InterruptedException {
+        int[] vms = {5};
+        int[] cores = {4};
+        int[] ramMb = {4096};
+        int[] mips = {2500};
+        int[] hosts = {3};
+        String pattern = "poisson";
+        double rate = 5.0;
+        double horizonHours = 1.0;
+        double targetMillis = 8000;
+        int top = 20;
+        long seed = ExistingNextJSCloudSimIntegration.DEFAULT_SEED;
+
+        for (int i = 0; i + 1 < args.length; i++) {
+            switch (args[i]) {
+                case "--vms": vms = parseRange(args[++i]); break;
+                case "--cores": cores = parseRange(args[++i]); break;
+                case "--ram": ramMb = parseRange(args[++i]); break;
+                case "--mips": mips = parseRange(args[++i]); break;
+                case "--hosts": hosts = parseRange(args[++i]); break;
+                case "--arrivals": pattern = args[++i]; break;
+                case "--rate": rate = Double.parseDouble(args[++i]); break;
+                case "--horizon": horizonHours = Double.parseDouble(args[++i]); break;
+                case "--target-ms": targetMillis = Double.parseDouble(args[++i]); break;
+                case "--top": top = Integer.parseInt(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                default: break;
+            }
+        }
+
+        ArrivalRateModel model = ExistingNextJSCloudSimIntegration.createArrivalModel(pattern, rate);
+        if (model == null) {
+            System.err.println("❌ Unknown arrival pattern '" + pattern + "' (expected poisson, diurnal or burst)");
+            return;
+        }
+
+        List<Configuration> configurations = combinations(vms, cores, ramMb, mips, hosts);
+        int threads = Runtime.getRuntime().availableProcessors();
+        System.out.println("🧮 Capacity sweep: " + configurations.size() + " configurations on " + threads + " threads");
+        System.out.println("   VMs " + Arrays.toString(vms) + ", cores " + Arrays.toString(cores) +
+                         ", RAM " + Arrays.toString(ramMb) + " MB, MIPS " + Arrays.toString(mips) +
+                         ", hosts " + Arrays.toString(hosts));
+        System.out.println("   Workload: " + pattern + " arrivals at " + rate + " requests/s over " +
+                         horizonHours + " hours");
+
+        // Per-event logging from many concurrent simulations is unreadable and slow, and
+        // saturated runs that are stopped early warn about events sent after termination
+        Log.setLevel(Level.ERROR);
+        long started = System.nanoTime();
+        List<Outcome> outcomes = new CapacitySweep(model, horizonHours * 3600, seed).run(configurations);
+        double elapsed = (System.nanoTime() - started) / 1e9;
+
+        printRanking(rank(outcomes, targetMillis), targetMillis, top);
+        System.out.printf("%n⏱️  Sweep completed in %.1f seconds%n", elapsed);
+    }
+
+    private static void printRanking(List<Outcome> ranked, double targetMillis, int top) {
+        String line = ExistingNextJSCloudSimIntegration.repeatString("=", 115);
+        System.out.println("\n" + line);
+        System.out.printf("📊 Ranked configurations (target: page rendering mean ≤ %.0f ms)%n", targetMillis);
+        System.out.println(line);
+        System.out.printf("%4s %4s %5s %8s %6s %5s %10s %10s %10s %10s %10s %10s  %s%n",
+            "Rank", "VMs", "Cores", "RAM MB", "MIPS", "Hosts", "$/month",
+            "Page ms", "Page p99", "API ms", "Mean ms", "Max ms", "Target");
+        for (int i = 0; i < Math.min(top, ranked.size()); i++) {
+            Outcome outcome = ranked.get(i);
+            Configuration c = outcome.getConfiguration();
+            String status = outcome.meetsTarget(targetMillis) ? "✅" :
+                !outcome.isPlaced() ? "❌ VMs not placed" :
+                outcome.isSaturated() ? "❌ saturated" :
+                outcome.getUnfinished() > 0 ? "❌ " + outcome.getUnfinished() + " unfinished" : "❌";
+            System.out.printf("%4d %4d %5d %8d %6d %5d %10.2f %10.1f %10.1f %10.1f %10.1f %10.1f  %s%n",
+                i + 1, c.getVms(), c.getCores(), c.getRamMb(), c.getMips(), c.getHosts(),
+                c.getMonthlyCost(),
+                outcome.getMeanResponseMillis(WorkloadType.PAGE_RENDERING),
+                outcome.getResponsePercentileMillis(WorkloadType.PAGE_RENDERING, 99),
+                outcome.getMeanResponseMillis(WorkloadType.API_PROCESSING),
+                outcome.getOverall().getMean() * 1000, outcome.getOverall().getMax() * 1000, status);
+        }
+        if (ranked.size() > top) {
+            System.out.println("  ... " + (ranked.size() - top) + " more");
+        }
+
+        if (!ranked.isEmpty() && ranked.get(0).meetsTarget(targetMillis)) {
+            Configuration best = ranked.get(0).getConfiguration();
+            System.out.printf("%n💡 Cheapest configuration meeting the target: %d VM(s) x (%d cores, %d MB, %d MIPS) on %d host(s), $%.2f/month%n",
+                best.getVms(), best.getCores(), best.getRamMb(), best.getMips(), best.getHosts(),
+                best.getMonthlyCost());
+        } else {
+            System.out.println("\n⚠️  No configuration met the target; widen the sweep ranges");
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package org.cloudsim.examples.nextjs;
+
+import org.cloudsimplus.brokers.DatacenterBroker;
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.cloudlets.CloudletSimple;
+import org.cloudsimplus.core.CloudSimPlus;
+import org.cloudsimplus.listeners.EventInfo;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Submits request arrivals as timed cloudlets while the simulation runs.
+ *
+ * Each arrival from the {@link ArrivalSource} becomes one cloudlet whose
+ * submission delay matches its arrival time, and whose length is the service
+ * time expressed in MI on a reference VM, unless the source gives it. Only the arrivals within a short
+ * look-ahead window of the simulation clock are materialized; the next window
+ * is pulled from a clock tick listener, so memory stays bounded regardless of
+ * how many requests the source produces.
+ *
+ * Requests overlap heavily, so RAM and bandwidth use a separate utilization
+ * model from CPU; with full utilization a single request would claim all of a
+ * VM's memory and every concurrent one would stall. Each request takes the
+ * models of its workload type from a {@link WorkloadUtilizationProfiles}.
+ */
+final class CloudletArrivalEngine {
+
+    // Simulated seconds of arrivals submitted ahead of the clock
+    static final double DEFAULT_LOOKAHEAD_SECONDS = 10.0;
+
+    // MIPS of the Next.js Application Server VM before scaling (see createVMs)
+    static final double REFERENCE_MIPS = 2200;
+
+    private final CloudSimPlus simulation;
+    private final DatacenterBroker broker;
+    private final ArrivalSource source;
+    private final WorkloadUtilizationProfiles.Instance utilization;
+    private final BiConsumer<Cloudlet, WorkloadType> onCloudletCreated;
+    private final double lookaheadSeconds;
+    private final List<Cloudlet> batch = new ArrayList<>();
+    private final List<WorkloadType> batchTypes = new ArrayList<>();
+
+    private boolean pending;
+    private boolean exhausted;
+    private double lastSubmittedArrival = -1;
+    private long submittedCloudlets;
+
+    CloudletArrivalEngine(CloudSimPlus simulation, DatacenterBroker broker, ArrivalSource source,
+                          WorkloadUtilizationProfiles utilization,
+                          BiConsumer<Cloudlet, WorkloadType> onCloudletCreated) {
+        this(simulation, broker, source, utilization, onCloudletCreated, DEFAULT_LOOKAHEAD_SECONDS);
+    }
+
+    /**
+     * The broker picks a VM for each cloudlet when it is submitted, so a shorter
+     * look-ahead lets routing react sooner to VMs being added or removed
+     *
+     * @param lookaheadSeconds simulated seconds of arrivals submitted ahead of the clock
+     */
+    CloudletArrivalEngine(CloudSimPlus simulation, DatacenterBroker broker, ArrivalSource source,
+                          WorkloadUtilizationProfiles utilization,
+                          BiConsumer<Cloudlet, WorkloadType> onCloudletCreated, double lookaheadSeconds) {
+        this.simulation = simulation;
+        this.broker = broker;
+        this.source = source;
+        this.utilization = utilization.instantiate(simulation);
+        this.onCloudletCreated = onCloudletCreated;
+        this.lookaheadSeconds = lookaheadSeconds;
+    }
+
+    /**
+     * Submits the first window of arrivals and starts pulling the rest as the clock advances
+     */
+    void start() throws IOException {
+        pending = source.next();
+        if (!pending) {
+            exhausted = true;
+            return;
+        }
+        refill(simulation.clock());
+        if (!exhausted) {
+            simulation.addOnClockTickListener(this::onClockTick);
+        }
+    }
+
+    long getSubmittedCloudlets() {
+        return submittedCloudlets;
+    }
+
+    boolean isExhausted() {
+        return exhausted;
+    }
+
+    private void onClockTick(EventInfo info) {
+        // Listeners cannot be removed while the simulation is notifying them
+        if (exhausted) {
+            return;
+        }
+        try {
+            refill(info.getTime());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading request arrivals", e);
+        }
+    }
+
+    private void refill(double now) throws IOException {
+        while (pending) {
+            double arrival = source.getArrivalTime();
+            // Always keep at least one future arrival queued so the simulation does not end early
+            if (arrival > now + lookaheadSeconds && lastSubmittedArrival > now) {
+                break;
+            }
+
+            // Shaped, reported and routed as the same type
+            WorkloadType workloadType = source.getWorkloadType();
+            batch.add(createCloudlet(Math.max(0, arrival - now), workloadType));
+            batchTypes.add(workloadType);
+            lastSubmittedArrival = Math.max(lastSubmittedArrival, arrival);
+            submittedCloudlets++;
+            pending = source.next();
+        }
+
+        if (!batch.isEmpty()) {
+            broker.submitCloudletList(batch);
+            // Ids are assigned by the broker on submission
+            for (int i = 0; i < batch.size(); i++) {
+                onCloudletCreated.accept(batch.get(i), batchTypes.get(i));
+            }
+            batch.clear();
+            batchTypes.clear();
+        }
+        if (!pending) {
+            exhausted = true;
+        }
+    }
+
+    /**
+     * Cloudlet for the source's current request, shaped as the source describes it
+     */
+    private Cloudlet createCloudlet(double submissionDelay, WorkloadType type) {
+        Cloudlet cloudlet = new CloudletSimple(source.getLength(), source.getPesNumber())
+            .setFileSize(source.getRequestBytes())
+            .setOutputSize(source.getResponseBytes());
+        cloudlet.setUtilizationModelCpu(utilization.getCpuModel(type))
+            .setUtilizationModelRam(utilization.getRamModel(type))
+            .setUtilizationModelBw(utilization.getBwModel(type));
+        cloudlet.setSubmissionDelay(submissionDelay);
+        return cloudlet;
+    }
+}
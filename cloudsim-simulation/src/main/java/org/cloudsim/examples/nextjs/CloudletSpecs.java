@@ -0,0 +1,185 @@
+package org.cloudsim.examples.nextjs;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.cloudlets.CloudletSimple;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Immutable workload of requests in arrival order, kept as parallel
+ * primitive arrays.
+ *
+ * A CloudletSimple carries three utilization model references, its own
+ * listeners and dozens of scheduling fields, and a map from its id to its
+ * workload type adds a boxed key and an entry on top, several hundred bytes
+ * per request before it ever runs. A spec is its arrival time, length, PEs,
+ * request and response size and workload type ordinal, 37 bytes.
+ *
+ * {@link #arrivals()} replays the specs as an {@link ArrivalSource}, so a
+ * {@link CloudletArrivalEngine} creates cloudlets one look-ahead window at a
+ * time and only requests in flight exist as cloudlets. The capacity sweep
+ * records its arrivals once and replays them in every configuration. Small
+ * fixed workloads are created whole with {@link #createCloudlet}.
+ */
+final class CloudletSpecs {
+
+    private final double[] arrivalTimes;
+    private final long[] lengths;
+    private final int[] pesNumbers;
+    private final long[] fileSizes;
+    private final long[] outputSizes;
+    private final byte[] types;
+
+    private CloudletSpecs(Builder builder) {
+        int n = builder.count;
+        arrivalTimes = Arrays.copyOf(builder.arrivalTimes, n);
+        lengths = Arrays.copyOf(builder.lengths, n);
+        pesNumbers = Arrays.copyOf(builder.pesNumbers, n);
+        fileSizes = Arrays.copyOf(builder.fileSizes, n);
+        outputSizes = Arrays.copyOf(builder.outputSizes, n);
+        types = Arrays.copyOf(builder.types, n);
+    }
+
+    /**
+     * Specs of every request an arrival source produces
+     */
+    static CloudletSpecs record(ArrivalSource source) throws IOException {
+        Builder builder = new Builder();
+        while (source.next()) {
+            builder.add(source.getArrivalTime(), source.getLength(), source.getPesNumber(),
+                source.getRequestBytes(), source.getResponseBytes(), source.getWorkloadType());
+        }
+        return builder.build();
+    }
+
+    int size() {
+        return lengths.length;
+    }
+
+    WorkloadType getType(int index) {
+        return WorkloadType.fromOrdinal(types[index]);
+    }
+
+    /**
+     * Cloudlet for the spec at index, with the index as its id, submitted at its arrival
+     * time and with the utilization of its workload type
+     */
+    Cloudlet createCloudlet(int index, WorkloadUtilizationProfiles.Instance utilization) {
+        WorkloadType type = getType(index);
+        Cloudlet cloudlet = new CloudletSimple(index, lengths[index], pesNumbers[index])
+            .setFileSize(fileSizes[index])
+            .setOutputSize(outputSizes[index]);
+        cloudlet.setUtilizationModelCpu(utilization.getCpuModel(type))
+            .setUtilizationModelRam(utilization.getRamModel(type))
+            .setUtilizationModelBw(utilization.getBwModel(type));
+        cloudlet.setSubmissionDelay(arrivalTimes[index]);
+        return cloudlet;
+    }
+
+    /**
+     * New cursor over the specs, from the first; cursors share the specs and may run on different threads
+     */
+    ArrivalSource arrivals() {
+        return new ArrivalSource() {
+            private int index = -1;
+
+            @Override
+            public boolean next() {
+                if (index + 1 >= size()) {
+                    return false;
+                }
+                index++;
+                return true;
+            }
+
+            @Override
+            public double getArrivalTime() {
+                return arrivalTimes[index];
+            }
+
+            @Override
+            public WorkloadType getWorkloadType() {
+                return getType(index);
+            }
+
+            @Override
+            public double getServiceMillis() {
+                return lengths[index] * 1000.0 / CloudletArrivalEngine.REFERENCE_MIPS;
+            }
+
+            @Override
+            public long getLength() {
+                return lengths[index];
+            }
+
+            @Override
+            public int getPesNumber() {
+                return pesNumbers[index];
+            }
+
+            @Override
+            public long getRequestBytes() {
+                return fileSizes[index];
+            }
+
+            @Override
+            public long getResponseBytes() {
+                return outputSizes[index];
+            }
+        };
+    }
+
+    static final class Builder {
+        private double[] arrivalTimes = new double[64];
+        private long[] lengths = new long[64];
+        private int[] pesNumbers = new int[64];
+        private long[] fileSizes = new long[64];
+        private long[] outputSizes = new long[64];
+        private byte[] types = new byte[64];
+        private int count;
+
+        /**
+         * Adds a request with the PEs and sizes of its workload type
+         */
+        Builder add(double arrivalTime, long length, WorkloadType type) {
+            return add(arrivalTime, length, type.getPesNumber(), type.getRequestBytes(), type.getResponseBytes(),
+                type);
+        }
+
+        /**
+         * @throws IllegalArgumentException if the request arrives before the previous one
+         */
+        Builder add(double arrivalTime, long length, int pesNumber, long fileSize, long outputSize,
+                    WorkloadType type) {
+            if (count > 0 && arrivalTime < arrivalTimes[count - 1]) {
+                throw new IllegalArgumentException("Requests must be added in arrival order");
+            }
+            ensureCapacity(count + 1);
+            arrivalTimes[count] = arrivalTime;
+            lengths[count] = length;
+            pesNumbers[count] = pesNumber;
+            fileSizes[count] = fileSize;
+            outputSizes[count] = outputSize;
+            types[count] = (byte) type.ordinal();
+            count++;
+            return this;
+        }
+
+        CloudletSpecs build() {
+            return new CloudletSpecs(this);
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > lengths.length) {
+                int length = Math.max(capacity, lengths.length * 2);
+                arrivalTimes = Arrays.copyOf(arrivalTimes, length);
+                lengths = Arrays.copyOf(lengths, length);
+                pesNumbers = Arrays.copyOf(pesNumbers, length);
+                fileSizes = Arrays.copyOf(fileSizes, length);
+                outputSizes = Arrays.copyOf(outputSizes, length);
+                types = Arrays.copyOf(types, length);
+            }
+        }
+    }
+}
@@ -0,0 +1,524 @@
+package org.cloudsim.examples.nextjs;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Append-only compressed series of (timestamp, double) points for one metric.
+ *
+ * Points are stored in chunks of {@link #CHUNK_POINTS} using the Gorilla
+ * encoding: timestamps as delta-of-delta with variable-width buckets and
+ * values XOR-ed with their predecessor, keeping only the meaningful bits.
+ * Samples taken at a steady interval with slowly changing values cost a few
+ * bits each. Each chunk records its time range, so window scans decode only
+ * the chunks that overlap the window.
+ *
+ * Alongside the raw points, count/sum/min/max rollups are maintained at one
+ * minute, one hour and one day resolution. Aggregate queries read whole
+ * rollup buckets wherever the window covers them and decode raw points only
+ * for the unaligned edges.
+ */
+final class CompressedTimeSeries {
+
+    static final int CHUNK_POINTS = 1024;
+
+    static final long MINUTE_MILLIS = 60_000L;
+    static final long HOUR_MILLIS = 60 * MINUTE_MILLIS;
+    static final long DAY_MILLIS = 24 * HOUR_MILLIS;
+
+    private static final long[] ROLLUP_MILLIS = {MINUTE_MILLIS, HOUR_MILLIS, DAY_MILLIS};
+
+    private Chunk[] chunks = new Chunk[4];
+    private int chunkCount;
+    private long size;
+    private final Rollup[] rollups = new Rollup[ROLLUP_MILLIS.length];
+
+    CompressedTimeSeries() {
+        for (int i = 0; i < rollups.length; i++) {
+            rollups[i] = new Rollup(ROLLUP_MILLIS[i]);
+        }
+    }
+
+    /**
+     * Appends a point
+     *
+     * @return false if the timestamp is not after the last stored point
+     */
+    boolean append(long timestamp, double value) {
+        if (size > 0 && timestamp <= getLastTimestamp()) {
+            return false;
+        }
+
+        Chunk head = chunkCount == 0 ? null : chunks[chunkCount - 1];
+        if (head == null || head.count == CHUNK_POINTS) {
+            head = new Chunk();
+            if (chunkCount == chunks.length) {
+                chunks = Arrays.copyOf(chunks, chunkCount * 2);
+            }
+            chunks[chunkCount++] = head;
+        }
+        head.append(timestamp, value);
+        size++;
+
+        for (Rollup rollup : rollups) {
+            rollup.add(timestamp, value);
+        }
+        return true;
+    }
+
+    long size() {
+        return size;
+    }
+
+    long getFirstTimestamp() {
+        return size == 0 ? 0 : chunks[0].firstTimestamp;
+    }
+
+    long getLastTimestamp() {
+        return size == 0 ? 0 : chunks[chunkCount - 1].lastTimestamp;
+    }
+
+    /**
+     * Approximate heap footprint of the encoded points, excluding rollups
+     */
+    long getCompressedBytes() {
+        long bytes = 0;
+        for (int i = 0; i < chunkCount; i++) {
+            bytes += (chunks[i].bitLength + 7) / 8;
+        }
+        return bytes;
+    }
+
+    /**
+     * Accumulates count, sum, min and max of the points in [from, to)
+     */
+    void aggregate(long from, long to, WindowStats stats) {
+        cover(from, to, rollups.length - 1, stats);
+    }
+
+    private void cover(long from, long to, int level, WindowStats stats) {
+        if (from >= to) {
+            return;
+        }
+        if (level < 0) {
+            scanRaw(from, to, stats);
+            return;
+        }
+
+        long bucket = rollups[level].bucketMillis;
+        long alignedStart = Math.floorDiv(from + bucket - 1, bucket) * bucket;
+        long alignedEnd = Math.floorDiv(to, bucket) * bucket;
+        if (alignedStart >= alignedEnd) {
+            cover(from, to, level - 1, stats);
+            return;
+        }
+
+        cover(from, alignedStart, level - 1, stats);
+        rollups[level].accumulate(alignedStart, alignedEnd, stats);
+        cover(alignedEnd, to, level - 1, stats);
+    }
+
+    private void scanRaw(long from, long to, WindowStats stats) {
+        ChunkReader reader = new ChunkReader();
+        for (int i = firstChunkEndingAtOrAfter(from); i < chunkCount; i++) {
+            Chunk chunk = chunks[i];
+            if (chunk.firstTimestamp >= to) {
+                return;
+            }
+            reader.reset(chunk);
+            while (reader.next()) {
+                if (reader.timestamp >= to) {
+                    return;
+                }
+                if (reader.timestamp >= from) {
+                    stats.add(reader.value);
+                }
+            }
+        }
+    }
+
+    /**
+     * Decodes the values of the points in [from, to) into the given array, growing it if needed
+     *
+     * @return the array holding the values; the number written is stored in count[0]
+     */
+    double[] collect(long from, long to, double[] values, int[] count) {
+        int n = 0;
+        ChunkReader reader = new ChunkReader();
+        outer:
+        for (int i = firstChunkEndingAtOrAfter(from); i < chunkCount; i++) {
+            Chunk chunk = chunks[i];
+            if (chunk.firstTimestamp >= to) {
+                break;
+            }
+            reader.reset(chunk);
+            while (reader.next()) {
+                if (reader.timestamp >= to) {
+                    break outer;
+                }
+                if (reader.timestamp >= from) {
+                    if (n == values.length) {
+                        values = Arrays.copyOf(values, Math.max(16, n * 2));
+                    }
+                    values[n++] = reader.value;
+                }
+            }
+        }
+        count[0] = n;
+        return values;
+    }
+
+    private int firstChunkEndingAtOrAfter(long timestamp) {
+        int low = 0;
+        int high = chunkCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (chunks[mid].lastTimestamp < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    void write(DataOutput out) throws IOException {
+        out.writeLong(size);
+        out.writeInt(chunkCount);
+        for (int i = 0; i < chunkCount; i++) {
+            chunks[i].write(out);
+        }
+        for (Rollup rollup : rollups) {
+            rollup.write(out);
+        }
+    }
+
+    static CompressedTimeSeries read(DataInput in) throws IOException {
+        CompressedTimeSeries series = new CompressedTimeSeries();
+        series.size = in.readLong();
+        series.chunkCount = in.readInt();
+        series.chunks = new Chunk[Math.max(4, series.chunkCount)];
+        for (int i = 0; i < series.chunkCount; i++) {
+            series.chunks[i] = Chunk.read(in);
+        }
+        for (Rollup rollup : series.rollups) {
+            rollup.read(in);
+        }
+        return series;
+    }
+
+    /**
+     * Gorilla-encoded block of up to CHUNK_POINTS points
+     */
+    private static final class Chunk {
+        private long[] words = new long[16];
+        private int bitLength;
+        private int count;
+        private long firstTimestamp;
+        private long lastTimestamp;
+
+        // Encoder state, valid while the chunk is being appended to
+        private long lastDelta;
+        private long lastValueBits;
+        private int lastLeading = Integer.MAX_VALUE;
+        private int lastTrailing;
+
+        void append(long timestamp, double value) {
+            long valueBits = Double.doubleToRawLongBits(value);
+            if (count == 0) {
+                firstTimestamp = timestamp;
+                writeBits(timestamp, 64);
+                writeBits(valueBits, 64);
+            } else {
+                long delta = timestamp - lastTimestamp;
+                writeDeltaOfDelta(delta - lastDelta);
+                lastDelta = delta;
+                writeXor(valueBits ^ lastValueBits);
+            }
+            lastTimestamp = timestamp;
+            lastValueBits = valueBits;
+            count++;
+            if (count == CHUNK_POINTS) {
+                // Sealed: release the slack left by doubling
+                words = Arrays.copyOf(words, ((bitLength + 63) >>> 6) + 1);
+            }
+        }
+
+        private void writeDeltaOfDelta(long dod) {
+            if (dod == 0) {
+                writeBits(0, 1);
+            } else if (dod >= -64 && dod <= 63) {
+                writeBits(0b10, 2);
+                writeBits(dod, 7);
+            } else if (dod >= -256 && dod <= 255) {
+                writeBits(0b110, 3);
+                writeBits(dod, 9);
+            } else if (dod >= -2048 && dod <= 2047) {
+                writeBits(0b1110, 4);
+                writeBits(dod, 12);
+            } else {
+                writeBits(0b1111, 4);
+                writeBits(dod, 64);
+            }
+        }
+
+        private void writeXor(long xor) {
+            if (xor == 0) {
+                writeBits(0, 1);
+                return;
+            }
+            int leading = Math.min(31, Long.numberOfLeadingZeros(xor));
+            int trailing = Long.numberOfTrailingZeros(xor);
+            if (leading >= lastLeading && trailing >= lastTrailing) {
+                // Meaningful bits fit in the previous window
+                writeBits(0b10, 2);
+                writeBits(xor >>> lastTrailing, 64 - lastLeading - lastTrailing);
+            } else {
+                int meaningful = 64 - leading - trailing;
+                writeBits(0b11, 2);
+                writeBits(leading, 5);
+                writeBits(meaningful == 64 ? 0 : meaningful, 6);
+                writeBits(xor >>> trailing, meaningful);
+                lastLeading = leading;
+                lastTrailing = trailing;
+            }
+        }
+
+        private void writeBits(long value, int bits) {
+            if (bits == 0) {
+                return;
+            }
+            if (bits < 64) {
+                value &= (1L << bits) - 1;
+            }
+            int wordIndex = bitLength >>> 6;
+            int bitOffset = bitLength & 63;
+            if (wordIndex + 1 >= words.length) {
+                words = Arrays.copyOf(words, words.length * 2);
+            }
+            int free = 64 - bitOffset;
+            if (bits <= free) {
+                words[wordIndex] |= value << (free - bits);
+            } else {
+                words[wordIndex] |= value >>> (bits - free);
+                words[wordIndex + 1] |= value << (64 - (bits - free));
+            }
+            bitLength += bits;
+        }
+
+        void write(DataOutput out) throws IOException {
+            out.writeInt(count);
+            out.writeInt(bitLength);
+            out.writeLong(firstTimestamp);
+            out.writeLong(lastTimestamp);
+            out.writeLong(lastDelta);
+            out.writeLong(lastValueBits);
+            out.writeInt(lastLeading);
+            out.writeInt(lastTrailing);
+            int wordCount = (bitLength + 63) >>> 6;
+            for (int i = 0; i < wordCount; i++) {
+                out.writeLong(words[i]);
+            }
+        }
+
+        static Chunk read(DataInput in) throws IOException {
+            Chunk chunk = new Chunk();
+            chunk.count = in.readInt();
+            chunk.bitLength = in.readInt();
+            chunk.firstTimestamp = in.readLong();
+            chunk.lastTimestamp = in.readLong();
+            chunk.lastDelta = in.readLong();
+            chunk.lastValueBits = in.readLong();
+            chunk.lastLeading = in.readInt();
+            chunk.lastTrailing = in.readInt();
+            int wordCount = (chunk.bitLength + 63) >>> 6;
+            chunk.words = new long[Math.max(16, wordCount + 2)];
+            for (int i = 0; i < wordCount; i++) {
+                chunk.words[i] = in.readLong();
+            }
+            return chunk;
+        }
+    }
+
+    /**
+     * Sequential decoder over one chunk
+     */
+    private static final class ChunkReader {
+        private Chunk chunk;
+        private int bitPosition;
+        private int index;
+        private long delta;
+        private long valueBits;
+        private int leading;
+        private int trailing;
+
+        long timestamp;
+        double value;
+
+        void reset(Chunk chunk) {
+            this.chunk = chunk;
+            this.bitPosition = 0;
+            this.index = 0;
+            this.delta = 0;
+        }
+
+        boolean next() {
+            if (index == chunk.count) {
+                return false;
+            }
+            if (index == 0) {
+                timestamp = readBits(64);
+                valueBits = readBits(64);
+            } else {
+                delta += readDeltaOfDelta();
+                timestamp += delta;
+                readXor();
+            }
+            value = Double.longBitsToDouble(valueBits);
+            index++;
+            return true;
+        }
+
+        private long readDeltaOfDelta() {
+            if (readBits(1) == 0) {
+                return 0;
+            }
+            if (readBits(1) == 0) {
+                return signExtend(readBits(7), 7);
+            }
+            if (readBits(1) == 0) {
+                return signExtend(readBits(9), 9);
+            }
+            if (readBits(1) == 0) {
+                return signExtend(readBits(12), 12);
+            }
+            return readBits(64);
+        }
+
+        private void readXor() {
+            if (readBits(1) == 0) {
+                return;
+            }
+            if (readBits(1) == 1) {
+                leading = (int) readBits(5);
+                int meaningful = (int) readBits(6);
+                if (meaningful == 0) {
+                    meaningful = 64;
+                }
+                trailing = 64 - leading - meaningful;
+            }
+            int meaningful = 64 - leading - trailing;
+            valueBits ^= readBits(meaningful) << trailing;
+        }
+
+        private long readBits(int bits) {
+            if (bits == 0) {
+                return 0;
+            }
+            int wordIndex = bitPosition >>> 6;
+            int bitOffset = bitPosition & 63;
+            int available = 64 - bitOffset;
+            long result;
+            if (bits <= available) {
+                result = chunk.words[wordIndex] << bitOffset >>> (64 - bits);
+            } else {
+                long high = chunk.words[wordIndex] << bitOffset >>> bitOffset;
+                int remaining = bits - available;
+                result = (high << remaining) | (chunk.words[wordIndex + 1] >>> (64 - remaining));
+            }
+            bitPosition += bits;
+            return result;
+        }
+
+        private static long signExtend(long value, int bits) {
+            int shift = 64 - bits;
+            return value << shift >> shift;
+        }
+    }
+
+    /**
+     * Count/sum/min/max per fixed-size time bucket, in parallel primitive arrays
+     */
+    private static final class Rollup {
+        private final long bucketMillis;
+        private long[] starts = new long[16];
+        private long[] counts = new long[16];
+        private double[] sums = new double[16];
+        private double[] mins = new double[16];
+        private double[] maxs = new double[16];
+        private int size;
+
+        Rollup(long bucketMillis) {
+            this.bucketMillis = bucketMillis;
+        }
+
+        void add(long timestamp, double value) {
+            long start = Math.floorDiv(timestamp, bucketMillis) * bucketMillis;
+            int last = size - 1;
+            if (last >= 0 && starts[last] == start) {
+                counts[last]++;
+                sums[last] += value;
+                mins[last] = Math.min(mins[last], value);
+                maxs[last] = Math.max(maxs[last], value);
+                return;
+            }
+            if (size == starts.length) {
+                int capacity = size * 2;
+                starts = Arrays.copyOf(starts, capacity);
+                counts = Arrays.copyOf(counts, capacity);
+                sums = Arrays.copyOf(sums, capacity);
+                mins = Arrays.copyOf(mins, capacity);
+                maxs = Arrays.copyOf(maxs, capacity);
+            }
+            starts[size] = start;
+            counts[size] = 1;
+            sums[size] = value;
+            mins[size] = value;
+            maxs[size] = value;
+            size++;
+        }
+
+        /**
+         * Merges all buckets starting in [from, to); both bounds are bucket-aligned
+         */
+        void accumulate(long from, long to, WindowStats stats) {
+            int index = Arrays.binarySearch(starts, 0, size, from);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            for (int i = index; i < size && starts[i] < to; i++) {
+                stats.merge(counts[i], sums[i], mins[i], maxs[i]);
+            }
+        }
+
+        void write(DataOutput out) throws IOException {
+            out.writeInt(size);
+            for (int i = 0; i < size; i++) {
+                out.writeLong(starts[i]);
+                out.writeLong(counts[i]);
+                out.writeDouble(sums[i]);
+                out.writeDouble(mins[i]);
+                out.writeDouble(maxs[i]);
+            }
+        }
+
+        void read(DataInput in) throws IOException {
+            size = in.readInt();
+            int capacity = Math.max(16, size);
+            starts = new long[capacity];
+            counts = new long[capacity];
+            sums = new double[capacity];
+            mins = new double[capacity];
+            maxs = new double[capacity];
+            for (int i = 0; i < size; i++) {
+                starts[i] = in.readLong();
+                counts[i] = in.readLong();
+                sums[i] = in.readDouble();
+                mins[i] = in.readDouble();
+                maxs[i] = in.readDouble();
+            }
+        }
+    }
+}
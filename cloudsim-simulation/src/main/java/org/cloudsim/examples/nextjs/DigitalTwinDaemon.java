@@ -0,0 +1,354 @@
+package org.cloudsim.examples.nextjs;
+
+import ch.qos.logback.classic.Level;
+import org.cloudsimplus.util.Log;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Digital twin of the live Next.js app: keeps ingesting metrics snapshots and
+ * re-simulates the deployment whenever they change meaningfully, publishing
+ * rolling predictions of latency and cost.
+ *
+ * Snapshots arrive from a {@link MetricsFileWatcher}. A snapshot whose
+ * response time, CPU usage or request rate differs by more than
+ * {@link #CHANGE_THRESHOLD} from the last accepted one starts a debounce
+ * timer; further changes restart it, so a burst of updates is coalesced into
+ * one simulation of the latest snapshot. Simulations run one at a time on
+ * their own thread. When a newer snapshot is due, the running simulation is
+ * cancelled at its next clock tick, and only the newest snapshot waits, so
+ * runs never pile up behind a slow one.
+ *
+ * Each prediction is printed and written to {@link #PREDICTIONS_FILE} next
+ * to the metrics file, replacing the previous one atomically.
+ */
+final class DigitalTwinDaemon implements Closeable {
+
+    // Relative change in a sizing metric that makes a snapshot worth simulating
+    private static final double CHANGE_THRESHOLD = 0.10;
+    private static final long DEFAULT_DEBOUNCE_MILLIS = 2000;
+    private static final double DEFAULT_HORIZON_SECONDS = 300;
+    private static final double DEFAULT_ARRIVAL_RATE = 5.0;
+    private static final int ROLLING_WINDOW = 12;
+    static final String PREDICTIONS_FILE = "cloudsim-predictions.json";
+
+    /**
+     * One simulation of a snapshot, cancellable from another thread
+     */
+    private final class Run {
+        private final MetricsSnapshot snapshot;
+        private final Path metricsFile;
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+
+        Run(MetricsSnapshot snapshot, Path metricsFile) {
+            this.snapshot = snapshot;
+            this.metricsFile = metricsFile;
+        }
+
+        void cancel() {
+            cancelled.set(true);
+        }
+
+        CapacitySweep.Outcome execute() {
+            double rate = snapshot.getRequestRate() > 0 ? snapshot.getRequestRate() : DEFAULT_ARRIVAL_RATE;
+            double serviceScale = ExistingNextJSCloudSimIntegration.responseMultiplier(snapshot.getResponseTime());
+            // Per-route traffic when the monitor recorded any, the page buckets otherwise
+            RouteWorkloadModel routes = RouteWorkloadModel.fromMetrics(snapshot, workloadModel);
+            if (routes == null) {
+                routes = RouteWorkloadModel.fromMix(ExistingNextJSCloudSimIntegration.workloadMix(snapshot),
+                    workloadModel);
+            }
+            workloadModel = routes;
+            ArrivalSource source = new GeneratedArrivalSource(ArrivalRateModel.poisson(rate), horizonSeconds, routes,
+                serviceScale, ExistingNextJSCloudSimIntegration.DEFAULT_SEED);
+            WorkloadUtilizationProfiles utilization = WorkloadUtilizationProfiles.calibrate(snapshot, null,
+                ExistingNextJSCloudSimIntegration.DEFAULT_SEED);
+            return CapacitySweep.simulate(configurationFor(snapshot), source, utilization, cancelled::get);
+        }
+    }
+
+    private final CapacitySweep.Configuration configuration;
+    private final double horizonSeconds;
+    private final long debounceMillis;
+    private final MetricsJsonParser parser = new MetricsJsonParser();
+    private final MetricsFileWatcher watcher;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+        daemonThreads("digital-twin-scheduler"));
+    private final ExecutorService simulator = Executors.newSingleThreadExecutor(
+        daemonThreads("digital-twin-simulator"));
+    private final CountDownLatch closed = new CountDownLatch(1);
+
+    // Scheduler thread only
+    private MetricsSnapshot accepted;
+    private Path acceptedFile;
+    private ScheduledFuture<?> debounce;
+
+    // Handed from the scheduler to the simulator; only the newest is kept
+    private final AtomicReference<Run> pending = new AtomicReference<>();
+    private final AtomicBoolean simulatorActive = new AtomicBoolean();
+    private volatile Run current;
+
+    // Simulator thread only
+    private final double[] recentPageP95 = new double[ROLLING_WINDOW];
+    private final double[] recentHourlyCost = new double[ROLLING_WINDOW];
+    private long predictions;
+    private long cancelledRuns;
+    // Workload model of the last run, kept until the snapshots' request mix moves
+    private RouteWorkloadModel workloadModel;
+    // Scenario templates compiled so far, keyed by the CPU-scaled MIPS
+    private final Map<Integer, CapacitySweep.Configuration> configurations = new HashMap<>();
+
+    DigitalTwinDaemon(String metricsFilePath, CapacitySweep.Configuration configuration,
+                      double horizonSeconds, long debounceMillis) {
+        this.configuration = configuration;
+        this.horizonSeconds = horizonSeconds;
+        this.debounceMillis = debounceMillis;
+        this.watcher = new MetricsFileWatcher(
+            ExistingNextJSCloudSimIntegration.metricsCandidatePaths(metricsFilePath),
+            ExistingNextJSCloudSimIntegration.METRICS_DEBOUNCE_MILLIS,
+            ExistingNextJSCloudSimIntegration.METRICS_FALLBACK_POLL_MILLIS,
+            new MetricsFileWatcher.Listener() {
+                @Override
+                public void onMetricsChanged(Path file, String json) {
+                    onSnapshot(file, json);
+                }
+
+                @Override
+                public void onMetricsMissing() {
+                    System.out.println("⏳ Waiting for " + metricsFilePath + " to appear...");
+                }
+            });
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    void start() {
+        watcher.start();
+    }
+
+    /**
+     * Blocks until the daemon is closed
+     */
+    void awaitClose() throws InterruptedException {
+        closed.await();
+    }
+
+    @Override
+    public void close() {
+        watcher.close();
+        scheduler.shutdownNow();
+        Run running = current;
+        if (running != null) {
+            running.cancel();
+        }
+        simulator.shutdownNow();
+        closed.countDown();
+    }
+
+    private void onSnapshot(Path file, String json) {
+        MetricsSnapshot snapshot;
+        try {
+            snapshot = parser.parse(json);
+        } catch (RuntimeException e) {
+            System.err.println("⚠️  Error parsing metrics JSON: " + e.getMessage());
+            return;
+        }
+        scheduler.execute(() -> offer(snapshot, file));
+    }
+
+    /**
+     * Accepts a meaningfully changed snapshot and (re)starts the debounce timer
+     */
+    private void offer(MetricsSnapshot snapshot, Path file) {
+        if (accepted != null && !changedMeaningfully(accepted, snapshot)) {
+            return;
+        }
+        accepted = snapshot;
+        acceptedFile = file;
+        if (debounce != null) {
+            debounce.cancel(false);
+        }
+        debounce = scheduler.schedule(this::launch, debounceMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private static boolean changedMeaningfully(MetricsSnapshot previous, MetricsSnapshot next) {
+        return changed(previous.getResponseTime(), next.getResponseTime(), 1.0)
+            || changed(previous.getCpuUsage(), next.getCpuUsage(), 1.0)
+            || changed(previous.getRequestRate(), next.getRequestRate(), 0.1);
+    }
+
+    /**
+     * Relative change beyond the threshold, ignoring changes below an absolute floor
+     */
+    private static boolean changed(double previous, double next, double floor) {
+        return Math.abs(next - previous) > CHANGE_THRESHOLD * Math.max(Math.abs(previous), floor);
+    }
+
+    /**
+     * Replaces any waiting snapshot with the accepted one and cancels the run in progress
+     */
+    private void launch() {
+        pending.set(new Run(accepted, acceptedFile));
+        Run running = current;
+        if (running != null) {
+            running.cancel();
+        }
+        if (simulatorActive.compareAndSet(false, true)) {
+            simulator.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            Run run;
+            while ((run = pending.getAndSet(null)) != null) {
+                current = run;
+                long started = System.nanoTime();
+                CapacitySweep.Outcome outcome = run.execute();
+                current = null;
+                if (outcome.isCancelled()) {
+                    cancelledRuns++;
+                } else {
+                    publish(run, outcome, (System.nanoTime() - started) / 1_000_000);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("❌ Digital twin simulation failed: " + e.getMessage());
+        } finally {
+            current = null;
+            simulatorActive.set(false);
+        }
+        // A snapshot handed over after the loop ended but before the flag was cleared
+        if (pending.get() != null && simulatorActive.compareAndSet(false, true)) {
+            simulator.execute(this::drain);
+        }
+    }
+
+    private CapacitySweep.Configuration configurationFor(MetricsSnapshot snapshot) {
+        int mips = (int) (configuration.getMips() *
+            ExistingNextJSCloudSimIntegration.cpuMipsMultiplier(snapshot.getCpuUsage()));
+        return configurations.computeIfAbsent(mips, m -> new CapacitySweep.Configuration(
+            configuration.getVms(), configuration.getCores(), configuration.getRamMb(), m,
+            configuration.getHosts()));
+    }
+
+    private void publish(Run run, CapacitySweep.Outcome outcome, long elapsedMillis) {
+        SimulationResultAggregator results = outcome.getResults();
+        double pageP95 = outcome.getResponsePercentileMillis(WorkloadType.PAGE_RENDERING, 95);
+        double meanMillis = outcome.getOverall().getMean() * 1000;
+        double hourlyCost = results.getTotalExecutionTime() * ExistingNextJSCloudSimIntegration.COST_PER_EXECUTION_SECOND
+            / horizonSeconds * 3600;
+
+        int slot = (int) (predictions % ROLLING_WINDOW);
+        recentPageP95[slot] = pageP95;
+        recentHourlyCost[slot] = hourlyCost;
+        predictions++;
+        int window = (int) Math.min(predictions, ROLLING_WINDOW);
+        double rollingPageP95 = 0;
+        double rollingHourlyCost = 0;
+        for (int i = 0; i < window; i++) {
+            rollingPageP95 += recentPageP95[i] / window;
+            rollingHourlyCost += recentHourlyCost[i] / window;
+        }
+
+        MetricsSnapshot snapshot = run.snapshot;
+        System.out.printf("🔮 Prediction #%d (CPU %.1f%%, %.2f req/s, %.0f ms): page p95 %.1f ms, mean %.1f ms, " +
+                "$%.4f/hour%s | rolling page p95 %.1f ms, $%.4f/hour [%d ms, %d cancelled]%n",
+            predictions, snapshot.getCpuUsage(), snapshot.getRequestRate(), snapshot.getResponseTime(),
+            pageP95, meanMillis, hourlyCost, outcome.isSaturated() ? " ⚠️ saturated" : "",
+            rollingPageP95, rollingHourlyCost, elapsedMillis, cancelledRuns);
+
+        String json = String.format(Locale.ROOT,
+            "{%n  \"prediction\": %d,%n  \"metricsTimestamp\": %d,%n  \"pageRenderingP95Ms\": %.3f,%n" +
+            "  \"meanResponseMs\": %.3f,%n  \"hourlyExecutionCost\": %.6f,%n  \"monthlyInfrastructureCost\": %.2f,%n" +
+            "  \"saturated\": %b,%n  \"rollingPageRenderingP95Ms\": %.3f,%n  \"rollingHourlyExecutionCost\": %.6f,%n" +
+            "  \"rollingWindow\": %d,%n  \"simulationMillis\": %d%n}%n",
+            predictions, snapshot.getTimestamp(), pageP95, meanMillis, hourlyCost,
+            outcome.getConfiguration().getMonthlyCost(), outcome.isSaturated(), rollingPageP95, rollingHourlyCost,
+            window, elapsedMillis);
+        writePredictions(run.metricsFile.resolveSibling(PREDICTIONS_FILE), json);
+    }
+
+    private static void writePredictions(Path file, String json) {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.write(temp, json.getBytes(StandardCharsets.UTF_8));
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            System.err.println("⚠️  Error writing predictions: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Runs the daemon from command-line arguments until the process is stopped
+     */
+    static void run(String[] args) throws InterruptedException {
+        String metricsPath = ExistingNextJSCloudSimIntegration.DEFAULT_METRICS_FILE;
+        int vms = 5;
+        int cores = 4;
+        int ramMb = 4096;
+        int mips = 2500;
+        int hosts = 3;
+        double horizonSeconds = DEFAULT_HORIZON_SECONDS;
+        long debounceMillis = DEFAULT_DEBOUNCE_MILLIS;
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--monitor") && i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                metricsPath = args[++i];
+            } else if (i + 1 < args.length) {
+                switch (args[i]) {
+                    case "--vms": vms = Integer.parseInt(args[++i]); break;
+                    case "--cores": cores = Integer.parseInt(args[++i]); break;
+                    case "--ram": ramMb = Integer.parseInt(args[++i]); break;
+                    case "--mips": mips = Integer.parseInt(args[++i]); break;
+                    case "--hosts": hosts = Integer.parseInt(args[++i]); break;
+                    case "--horizon": horizonSeconds = Double.parseDouble(args[++i]) * 3600; break;
+                    case "--debounce": debounceMillis = Long.parseLong(args[++i]); break;
+                    default: break;
+                }
+            }
+        }
+
+        System.out.println("🛰️  Digital twin daemon watching " + metricsPath);
+        System.out.println("   " + vms + " VM(s) x (" + cores + " cores, " + ramMb + " MB, " + mips +
+                         " MIPS) on " + hosts + " host(s), " + String.format("%.0f", horizonSeconds) +
+                         " simulated seconds per prediction, " + debounceMillis + " ms debounce");
+        System.out.println("   Predictions are written to " + PREDICTIONS_FILE + " next to the metrics file; Ctrl+C to stop");
+
+        Log.setLevel(Level.ERROR);
+        DigitalTwinDaemon daemon = new DigitalTwinDaemon(metricsPath,
+            new CapacitySweep.Configuration(vms, cores, ramMb, mips, hosts), horizonSeconds, debounceMillis);
+        Runtime.getRuntime().addShutdownHook(new Thread(daemon::close, "digital-twin-shutdown"));
+        daemon.start();
+        daemon.awaitClose();
+    }
+}
@@ -0,0 +1,158 @@
+package org.cloudsim.examples.nextjs;
+
+import org.cloudsimplus.brokers.DatacenterBroker;
+import org.cloudsimplus.brokers.DatacenterBrokerAbstract;
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.core.CloudSimPlus;
+import org.cloudsimplus.listeners.EventInfo;
+import org.cloudsimplus.listeners.EventListener;
+import org.cloudsimplus.schedulers.cloudlet.CloudletScheduler;
+import org.cloudsimplus.schedulers.cloudlet.CloudletSchedulerAbstract;
+import org.cloudsimplus.vms.Vm;
+
+import java.lang.reflect.Field;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hands finished cloudlets to a consumer and drops every reference the
+ * simulation keeps to them, so heap use stays flat over long horizons.
+ *
+ * CloudSim Plus keeps each cloudlet in the broker's submitted, created and
+ * finished lists and in its VM scheduler's finished and returned collections
+ * until the run ends. With streamed arrivals those are the only state that
+ * grows with simulated time, so they are swept at a fixed simulated interval.
+ *
+ * The broker's finished list and the schedulers' returned set are not
+ * exposed for modification, so they are reached reflectively. If that is not
+ * possible, finished cloudlets are still delivered to the consumer but stay
+ * referenced by the simulation, and none are counted as released.
+ */
+final class FinishedCloudletReleaser {
+
+    // Simulated seconds between sweeps
+    private static final double SWEEP_INTERVAL_SECONDS = 30.0;
+
+    private static final Field SCHEDULER_RETURNED_FIELD =
+        accessibleField(CloudletSchedulerAbstract.class, "cloudletReturnedList");
+
+    private final CloudSimPlus simulation;
+    private final DatacenterBroker broker;
+    private final Consumer<Cloudlet> onFinished;
+    private final List<Cloudlet> brokerFinishedList;
+    private final boolean releasing;
+    private final EventListener<EventInfo> clockTickListener = this::onClockTick;
+
+    private double lastSweep;
+    private int delivered;
+    private long deliveredCloudlets;
+    private long releasedCloudlets;
+
+    @SuppressWarnings("unchecked")
+    FinishedCloudletReleaser(CloudSimPlus simulation, DatacenterBroker broker, Consumer<Cloudlet> onFinished) {
+        this.simulation = simulation;
+        this.broker = broker;
+        this.onFinished = onFinished;
+        this.brokerFinishedList = (List<Cloudlet>) fieldValue(
+            accessibleField(DatacenterBrokerAbstract.class, "cloudletFinishedList"), broker);
+        this.releasing = brokerFinishedList != null && SCHEDULER_RETURNED_FIELD != null;
+        if (!releasing) {
+            System.err.println("⚠️  Simulation internals are not accessible; finished cloudlets will be retained");
+        }
+    }
+
+    private static Field accessibleField(Class<?> type, String name) {
+        try {
+            Field field = type.getDeclaredField(name);
+            field.setAccessible(true);
+            return field;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static Object fieldValue(Field field, Object target) {
+        if (field == null || !field.getDeclaringClass().isInstance(target)) {
+            return null;
+        }
+        try {
+            return field.get(target);
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    void start() {
+        lastSweep = simulation.clock();
+        simulation.addOnClockTickListener(clockTickListener);
+    }
+
+    /**
+     * Stops sweeping and delivers the cloudlets finished since the last sweep
+     */
+    void stop() {
+        simulation.removeOnClockTickListener(clockTickListener);
+        sweep();
+    }
+
+    /**
+     * Whether finished cloudlets are dropped by the simulation, rather than retained until the run ends
+     */
+    boolean isReleasing() {
+        return releasing;
+    }
+
+    /**
+     * Finished cloudlets handed to the consumer
+     */
+    long getDeliveredCloudlets() {
+        return deliveredCloudlets;
+    }
+
+    /**
+     * Finished cloudlets the simulation no longer references, 0 if they are retained
+     */
+    long getReleasedCloudlets() {
+        return releasedCloudlets;
+    }
+
+    private void onClockTick(EventInfo info) {
+        if (info.getTime() - lastSweep >= SWEEP_INTERVAL_SECONDS) {
+            lastSweep = info.getTime();
+            sweep();
+        }
+    }
+
+    private void sweep() {
+        if (brokerFinishedList != null) {
+            for (Cloudlet cloudlet : brokerFinishedList) {
+                onFinished.accept(cloudlet);
+            }
+            deliveredCloudlets += brokerFinishedList.size();
+            if (releasing) {
+                releasedCloudlets += brokerFinishedList.size();
+            }
+            brokerFinishedList.clear();
+        } else {
+            List<Cloudlet> finished = broker.getCloudletFinishedList();
+            for (int i = delivered; i < finished.size(); i++) {
+                onFinished.accept(finished.get(i));
+            }
+            deliveredCloudlets += finished.size() - delivered;
+            delivered = finished.size();
+        }
+
+        broker.getCloudletSubmittedList().removeIf(Cloudlet::isFinished);
+        broker.getCloudletCreatedList().removeIf(Cloudlet::isFinished);
+        for (Vm vm : broker.<Vm>getVmCreatedList()) {
+            CloudletScheduler scheduler = vm.getCloudletScheduler();
+            scheduler.getCloudletFinishedList().clear();
+            // Only ever added to by CloudSim Plus; the cloudlet keeps its own returned flag
+            Collection<?> returned = (Collection<?>) fieldValue(SCHEDULER_RETURNED_FIELD, scheduler);
+            if (returned != null) {
+                returned.removeIf(cloudlet -> ((Cloudlet) cloudlet).isReturnedToBroker());
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package org.cloudsim.examples.nextjs;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Declarative description of a datacenter's hosts as classes of identical machines.
+ *
+ * A class is written name=count*pes@mips/ramMb/bw/storage and classes are
+ * separated by commas, for example
+ *
+ *   general=4000*32@2800/65536/25000/500000,cdn=400*8@2000/16384/50000/1000000
+ *
+ * describes 4400 hosts. A description holds one entry per class however many
+ * hosts it stands for, and compiles into a {@link ScenarioTemplate} as one
+ * host group per class.
+ */
+final class FleetSpec {
+
+    /**
+     * Identical hosts declared together
+     */
+    static final class HostClass {
+        private final String name;
+        private final int count;
+        private final int pes;
+        private final long mips;
+        private final long ramMb;
+        private final long bw;
+        private final long storage;
+
+        HostClass(String name, int count, int pes, long mips, long ramMb, long bw, long storage) {
+            if (count < 0 || pes <= 0 || mips <= 0 || ramMb <= 0 || bw < 0 || storage < 0) {
+                throw new IllegalArgumentException("Invalid host class " + name);
+            }
+            this.name = name;
+            this.count = count;
+            this.pes = pes;
+            this.mips = mips;
+            this.ramMb = ramMb;
+            this.bw = bw;
+            this.storage = storage;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        int getCount() {
+            return count;
+        }
+
+        int getPes() {
+            return pes;
+        }
+
+        long getMips() {
+            return mips;
+        }
+
+        long getRamMb() {
+            return ramMb;
+        }
+
+        long getBw() {
+            return bw;
+        }
+
+        long getStorage() {
+            return storage;
+        }
+    }
+
+    private final List<HostClass> classes;
+
+    private FleetSpec(List<HostClass> classes) {
+        this.classes = Collections.unmodifiableList(new ArrayList<>(classes));
+    }
+
+    /**
+     * Parses a fleet description
+     *
+     * @throws IllegalArgumentException if a class is malformed or the fleet is empty
+     */
+    static FleetSpec parse(String spec) {
+        Builder builder = new Builder();
+        for (String entry : spec.split(",")) {
+            entry = entry.trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+            int equals = entry.indexOf('=');
+            int times = entry.indexOf('*');
+            int at = entry.indexOf('@');
+            String[] resources = at > 0 ? entry.substring(at + 1).split("/") : new String[0];
+            if (equals <= 0 || times < equals || at < times || resources.length != 4) {
+                throw new IllegalArgumentException("Expected name=count*pes@mips/ramMb/bw/storage but got '" +
+                    entry + "'");
+            }
+            try {
+                builder.addClass(entry.substring(0, equals).trim(),
+                    Integer.parseInt(entry.substring(equals + 1, times).trim()),
+                    Integer.parseInt(entry.substring(times + 1, at).trim()),
+                    Long.parseLong(resources[0].trim()), Long.parseLong(resources[1].trim()),
+                    Long.parseLong(resources[2].trim()), Long.parseLong(resources[3].trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid number in host class '" + entry + "'");
+            }
+        }
+        if (builder.classes.isEmpty()) {
+            throw new IllegalArgumentException("The fleet declares no hosts");
+        }
+        return builder.build();
+    }
+
+    List<HostClass> getClasses() {
+        return classes;
+    }
+
+    long getHostCount() {
+        long hosts = 0;
+        for (HostClass hostClass : classes) {
+            hosts += hostClass.count;
+        }
+        return hosts;
+    }
+
+    long getTotalPes() {
+        long pes = 0;
+        for (HostClass hostClass : classes) {
+            pes += (long) hostClass.count * hostClass.pes;
+        }
+        return pes;
+    }
+
+    long getTotalRamMb() {
+        long ram = 0;
+        for (HostClass hostClass : classes) {
+            ram += hostClass.count * hostClass.ramMb;
+        }
+        return ram;
+    }
+
+    /**
+     * Adds every class to the scenario as a group of hosts
+     */
+    ScenarioTemplate.Builder addTo(ScenarioTemplate.Builder scenario) {
+        for (HostClass hostClass : classes) {
+            scenario.addHosts(hostClass.count, hostClass.pes, hostClass.mips, hostClass.ramMb,
+                hostClass.bw, hostClass.storage);
+        }
+        return scenario;
+    }
+
+    static final class Builder {
+        private final List<HostClass> classes = new ArrayList<>();
+
+        Builder addClass(String name, int count, int pes, long mips, long ramMb, long bw, long storage) {
+            classes.add(new HostClass(name, count, pes, mips, ramMb, bw, storage));
+            return this;
+        }
+
+        FleetSpec build() {
+            return new FleetSpec(classes);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package org.cloudsim.examples.nextjs;
+
+import java.util.SplittableRandom;
+
+/**
+ * Synthetic request arrivals drawn from an {@link ArrivalRateModel}.
+ *
+ * Arrivals form a non-homogeneous Poisson process generated by thinning:
+ * candidates are drawn at the model's peak rate and each is kept with
+ * probability rate(t) / peak. Every kept arrival is assigned a route of a
+ * {@link RouteWorkloadModel} and takes its workload type, PEs and sizes from
+ * it, with an exponentially distributed service time around the route's
+ * mean. A weighted mix of workload types is modeled as one route per type.
+ * Routes are drawn from the model's alias table, so picking one costs the
+ * same for four types or thousands of routes, and arrivals are generated one
+ * at a time up to the horizon without allocating, so the source itself uses
+ * constant memory.
+ */
+final class GeneratedArrivalSource implements ArrivalSource {
+
+    static final WorkloadType[] WORKLOAD_TYPES = {
+        WorkloadType.PAGE_RENDERING,
+        WorkloadType.API_PROCESSING,
+        WorkloadType.STATIC_ASSETS,
+        WorkloadType.IMAGE_PROCESSING
+    };
+
+    // Share of requests per workload type, in WORKLOAD_TYPES order
+    static final double[] DEFAULT_WORKLOAD_MIX = {0.35, 0.35, 0.25, 0.05};
+
+    // Mean service time per workload type at a 100 ms average response time
+    private static final double[] MEAN_SERVICE_MILLIS = {120, 60, 8, 250};
+    private static final double MIN_SERVICE_MILLIS = 1;
+
+    private final ArrivalRateModel rateModel;
+    private final double horizonSeconds;
+    private final RouteWorkloadModel routes;
+    private final double serviceScale;
+    private final SplittableRandom random;
+
+    private double time;
+    private int route;
+    private WorkloadType workloadType;
+    private double serviceMillis;
+
+    /**
+     * @param workloadMix  relative weight of each entry of {@link #WORKLOAD_TYPES}
+     * @param serviceScale multiplier applied to the mean service times
+     */
+    GeneratedArrivalSource(ArrivalRateModel rateModel, double horizonSeconds,
+                           double[] workloadMix, double serviceScale, long seed) {
+        this(rateModel, horizonSeconds, RouteWorkloadModel.fromMix(workloadMix), serviceScale, seed);
+    }
+
+    /**
+     * Arrivals whose routes are drawn from a route-level workload model
+     *
+     * @param serviceScale multiplier applied to the routes' mean service times
+     */
+    GeneratedArrivalSource(ArrivalRateModel rateModel, double horizonSeconds,
+                           RouteWorkloadModel routes, double serviceScale, long seed) {
+        this.rateModel = rateModel;
+        this.horizonSeconds = horizonSeconds;
+        this.routes = routes;
+        this.serviceScale = serviceScale;
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Mean service time of a generated workload type at a 100 ms average response time
+     */
+    static double meanServiceMillis(WorkloadType type) {
+        return MEAN_SERVICE_MILLIS[type.ordinal()];
+    }
+
+    @Override
+    public boolean next() {
+        double peakRate = rateModel.getPeakRate();
+        if (peakRate <= 0) {
+            return false;
+        }
+        do {
+            time += exponential(1.0 / peakRate);
+            if (time >= horizonSeconds) {
+                time = horizonSeconds;
+                return false;
+            }
+        } while (random.nextDouble() * peakRate > rateModel.rateAt(time));
+
+        route = routes.sample(random);
+        workloadType = routes.getType(route);
+        serviceMillis = Math.max(MIN_SERVICE_MILLIS, exponential(routes.getMeanServiceMillis(route) * serviceScale));
+        return true;
+    }
+
+    private double exponential(double mean) {
+        return -Math.log(1.0 - random.nextDouble()) * mean;
+    }
+
+    @Override
+    public double getArrivalTime() {
+        return time;
+    }
+
+    @Override
+    public WorkloadType getWorkloadType() {
+        return workloadType;
+    }
+
+    @Override
+    public double getServiceMillis() {
+        return serviceMillis;
+    }
+
+    @Override
+    public int getPesNumber() {
+        return routes.getPesNumber(route);
+    }
+
+    @Override
+    public long getRequestBytes() {
+        return routes.getRequestBytes(route);
+    }
+
+    @Override
+    public long getResponseBytes() {
+        return routes.getResponseBytes(route);
+    }
+}
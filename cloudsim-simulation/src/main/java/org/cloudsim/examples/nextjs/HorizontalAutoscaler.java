@@ -0,0 +1,502 @@
+package org.cloudsim.examples.nextjs;
+
+import org.cloudsimplus.allocationpolicies.VmAllocationPolicy;
+import org.cloudsimplus.brokers.DatacenterBroker;
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.core.CloudSimPlus;
+import org.cloudsimplus.hosts.Host;
+import org.cloudsimplus.listeners.EventInfo;
+import org.cloudsimplus.listeners.EventListener;
+import org.cloudsimplus.schedulers.cloudlet.CloudletSchedulerTimeShared;
+import org.cloudsimplus.vms.Vm;
+import org.cloudsimplus.vms.VmSimple;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Adds and removes replicas of server roles while the simulation runs.
+ *
+ * Each role starts from one VM of the fleet, its prototype, and owns the
+ * workload types routed to it. The autoscaler installs a VM mapper on the
+ * broker: requests of a role's workload types go round-robin to its ready
+ * replicas, every other request goes round-robin to the VMs that belong to
+ * no role. New replicas copy the prototype's size, take the policy's boot
+ * time before receiving requests, and are only launched if a host has room
+ * for them. Removed replicas stop receiving requests and are shut down once
+ * they have drained.
+ *
+ * CPU utilization of the ready replicas is sampled every simulated second,
+ * averaged over time and evaluated against the {@link AutoscalingPolicy} at every
+ * evaluation interval, see {@link RoleLoad}. For each role the autoscaler reports:
+ *
+ * - time to scale: from the start of the first evaluation window in which
+ *   the role was overloaded until the replicas launched for it are ready;
+ * - latency impact: finish times of the role's requests that arrived while
+ *   it was overloaded, next to those that arrived while it was not;
+ * - replica-seconds, to price the capacity that was added.
+ */
+final class HorizontalAutoscaler implements Autoscaler {
+
+    // Simulated seconds between utilization samples, each held until the next
+    private static final double UTILIZATION_SAMPLE_SECONDS = 1.0;
+
+    /**
+     * One launch or removal of replicas
+     */
+    static final class ScalingEvent {
+        private final boolean scaleOut;
+        private final double breachTime;
+        private final double decisionTime;
+        private final int fromReplicas;
+        private final int toReplicas;
+        private double readyTime = -1;
+        private int pendingReplicas;
+
+        private ScalingEvent(boolean scaleOut, double breachTime, double decisionTime,
+                             int fromReplicas, int toReplicas) {
+            this.scaleOut = scaleOut;
+            this.breachTime = breachTime;
+            this.decisionTime = decisionTime;
+            this.fromReplicas = fromReplicas;
+            this.toReplicas = toReplicas;
+        }
+
+        boolean isScaleOut() {
+            return scaleOut;
+        }
+
+        double getDecisionTime() {
+            return decisionTime;
+        }
+
+        int getFromReplicas() {
+            return fromReplicas;
+        }
+
+        int getToReplicas() {
+            return toReplicas;
+        }
+
+        /**
+         * Time the last replica of a scale-out became ready, or -1 if it never did
+         */
+        double getReadyTime() {
+            return readyTime;
+        }
+
+        /**
+         * Seconds from the start of the overload to the new replicas being ready, or -1
+         */
+        double getTimeToScale() {
+            return readyTime < 0 ? -1 : readyTime - breachTime;
+        }
+    }
+
+    private static final class Replica {
+        private final Vm vm;
+        private final double launchTime;
+        private final ScalingEvent launchedBy;
+        private double lastRoutedArrival;
+
+        Replica(Vm vm, double launchTime, ScalingEvent launchedBy) {
+            this.vm = vm;
+            this.launchTime = launchTime;
+            this.launchedBy = launchedBy;
+        }
+    }
+
+    /**
+     * Replicas, scaling history and latency of one server role
+     */
+    static final class Role implements Autoscaler.ScaledRole {
+        private final String name;
+        private final Vm prototype;
+        private final List<Replica> ready = new ArrayList<>();
+        private final List<Replica> booting = new ArrayList<>();
+        private final List<Replica> draining = new ArrayList<>();
+        private final List<ScalingEvent> events = new ArrayList<>();
+        private int nextReplica;
+        private final RoleLoad load = new RoleLoad();
+        private double lastScaleTime = Double.NEGATIVE_INFINITY;
+
+        private int peakReplicas = 1;
+        private int unplacedReplicas;
+        private int cappedScaleOuts;
+        private double replicaSeconds;
+        private final WindowStats timeToScale = new WindowStats();
+
+        private Role(String name, Vm prototype) {
+            this.name = name;
+            this.prototype = prototype;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        List<ScalingEvent> getEvents() {
+            return Collections.unmodifiableList(events);
+        }
+
+        long getScaleOuts() {
+            return events.stream().filter(ScalingEvent::isScaleOut).count();
+        }
+
+        long getScaleIns() {
+            return events.size() - getScaleOuts();
+        }
+
+        @Override
+        public long getScalingActions() {
+            return events.size();
+        }
+
+        /**
+         * Scale-outs that launched fewer replicas than wanted, or none
+         */
+        @Override
+        public long getCappedActions() {
+            return cappedScaleOuts;
+        }
+
+        @Override
+        public long getPeakPes() {
+            return peakReplicas * prototype.getPesNumber();
+        }
+
+        int getPeakReplicas() {
+            return peakReplicas;
+        }
+
+        int getReplicas() {
+            return ready.size() + booting.size();
+        }
+
+        /**
+         * Replicas a scale-out wanted but no host had room for
+         */
+        int getUnplacedReplicas() {
+            return unplacedReplicas;
+        }
+
+        /**
+         * Seconds the added replicas were provisioned, from launch to shutdown
+         */
+        double getReplicaSeconds() {
+            return replicaSeconds;
+        }
+
+        @Override
+        public WindowStats getTimeToScale() {
+            return timeToScale;
+        }
+
+        @Override
+        public double getOverloadedSeconds(double now) {
+            return load.getOverloadedSeconds(now);
+        }
+
+        @Override
+        public LatencyHistogram getOverloadedLatency() {
+            return load.getOverloadedLatency();
+        }
+
+        @Override
+        public LatencyHistogram getSteadyLatency() {
+            return load.getSteadyLatency();
+        }
+
+        /**
+         * Price of the added replicas over the run, at on-demand VM prices
+         */
+        @Override
+        public double getAddedCost() {
+            return replicaSeconds / CapacitySweep.SECONDS_PER_MONTH * CapacitySweep.monthlyVmPrice(
+                prototype.getPesNumber(), prototype.getMips(), prototype.getRam().getCapacity());
+        }
+    }
+
+    private final CloudSimPlus simulation;
+    private final DatacenterBroker broker;
+    private final AutoscalingPolicy policy;
+    private final Function<Cloudlet, WorkloadType> classifier;
+    private final List<Vm> fleet;
+    private final List<Vm> unassignedVms = new ArrayList<>();
+    private final List<Role> roles = new ArrayList<>();
+    // Role serving each workload type, by ordinal; null for types left to the unassigned VMs
+    private final Role[] roleByType = new Role[WorkloadType.count()];
+    private final EventListener<EventInfo> clockTickListener = this::onClockTick;
+
+    private int nextUnassignedVm;
+    private double lastTick;
+    private double nextSample;
+    private double nextEvaluation;
+
+    /**
+     * @param fleet      every VM submitted to the broker before the run
+     * @param classifier workload type of a submitted cloudlet, or null if unknown
+     */
+    HorizontalAutoscaler(CloudSimPlus simulation, DatacenterBroker broker, AutoscalingPolicy policy,
+                         List<Vm> fleet, Function<Cloudlet, WorkloadType> classifier) {
+        this.simulation = simulation;
+        this.broker = broker;
+        this.policy = policy;
+        this.fleet = fleet;
+        this.classifier = classifier;
+    }
+
+    /**
+     * Scales a role out of the given fleet VM; requests of the given types are routed to its replicas
+     */
+    @Override
+    public Role addRole(String name, Vm prototype, WorkloadType... types) {
+        Role role = new Role(name, prototype);
+        role.ready.add(new Replica(prototype, 0, null));
+        for (WorkloadType type : types) {
+            roleByType[type.ordinal()] = role;
+        }
+        roles.add(role);
+        return role;
+    }
+
+    @Override
+    public List<Role> getRoles() {
+        return Collections.unmodifiableList(roles);
+    }
+
+    @Override
+    public AutoscalingPolicy getPolicy() {
+        return policy;
+    }
+
+    @Override
+    public void start() {
+        for (Vm vm : fleet) {
+            boolean prototype = false;
+            for (Role role : roles) {
+                prototype |= role.prototype == vm;
+            }
+            if (!prototype) {
+                unassignedVms.add(vm);
+            }
+        }
+        lastTick = simulation.clock();
+        nextSample = lastTick;
+        nextEvaluation = lastTick + policy.getEvaluationSeconds();
+        for (Role role : roles) {
+            role.load.start(lastTick);
+        }
+        broker.setVmMapper(this::selectVm);
+        simulation.addOnClockTickListener(clockTickListener);
+    }
+
+    @Override
+    public void stop() {
+        simulation.removeOnClockTickListener(clockTickListener);
+        double now = simulation.clock();
+        for (Role role : roles) {
+            advance(role, now);
+        }
+    }
+
+    @Override
+    public void record(Cloudlet cloudlet, WorkloadType type) {
+        Role role = type != null ? roleByType[type.ordinal()] : null;
+        if (role != null && cloudlet.isFinished()) {
+            role.load.record(cloudlet);
+        }
+    }
+
+    private Vm selectVm(Cloudlet cloudlet) {
+        WorkloadType type = classifier.apply(cloudlet);
+        Role role = type != null ? roleByType[type.ordinal()] : null;
+        if (role != null && !role.ready.isEmpty()) {
+            role.nextReplica = (role.nextReplica + 1) % role.ready.size();
+            Replica replica = role.ready.get(role.nextReplica);
+            replica.lastRoutedArrival = Math.max(replica.lastRoutedArrival,
+                simulation.clock() + cloudlet.getSubmissionDelay());
+            return replica.vm;
+        }
+        List<Vm> candidates = unassignedVms.isEmpty() ? fleet : unassignedVms;
+        nextUnassignedVm = (nextUnassignedVm + 1) % candidates.size();
+        return candidates.get(nextUnassignedVm);
+    }
+
+    private void onClockTick(EventInfo info) {
+        double now = info.getTime();
+        for (Role role : roles) {
+            advance(role, now);
+        }
+        lastTick = now;
+        if (now >= nextSample) {
+            for (Role role : roles) {
+                role.load.sample(sampleUtilization(role));
+            }
+            nextSample = now + UTILIZATION_SAMPLE_SECONDS;
+        }
+        if (now >= nextEvaluation) {
+            for (Role role : roles) {
+                evaluate(role, now);
+            }
+            nextEvaluation = now + policy.getEvaluationSeconds();
+        }
+    }
+
+    /**
+     * Integrates utilization and replica time up to now, readies booted replicas
+     * and shuts down drained ones
+     */
+    private void advance(Role role, double now) {
+        double elapsed = now - lastTick;
+        role.load.advance(elapsed);
+        // The prototype belongs to the fleet; only added replicas are counted
+        role.replicaSeconds += (role.ready.size() + role.booting.size() + role.draining.size() - 1) * elapsed;
+
+        for (int i = role.booting.size() - 1; i >= 0; i--) {
+            Replica replica = role.booting.get(i);
+            if (replica.vm.isCreated() && now >= replica.launchTime + policy.getBootSeconds()) {
+                role.booting.remove(i);
+                role.ready.add(replica);
+                ScalingEvent event = replica.launchedBy;
+                if (--event.pendingReplicas == 0) {
+                    event.readyTime = now;
+                    role.timeToScale.add(event.getTimeToScale());
+                }
+            }
+        }
+        for (int i = role.draining.size() - 1; i >= 0; i--) {
+            Replica replica = role.draining.get(i);
+            if (now > replica.lastRoutedArrival && replica.vm.getCloudletScheduler().isEmpty()) {
+                role.draining.remove(i);
+                replica.vm.shutdown();
+            }
+        }
+
+    }
+
+    /**
+     * Mean CPU utilization of the role's ready replicas
+     */
+    private static double sampleUtilization(Role role) {
+        double utilization = 0;
+        for (Replica replica : role.ready) {
+            utilization += RoleLoad.cpuUtilization(replica.vm);
+        }
+        return role.ready.isEmpty() ? 0 : utilization / role.ready.size();
+    }
+
+    private void evaluate(Role role, double now) {
+        double utilization = role.load.evaluate(now, policy);
+        if (now - role.lastScaleTime < policy.getCooldownSeconds()) {
+            return;
+        }
+        int replicas = role.getReplicas();
+        int desired = policy.desiredReplicas(replicas, utilization);
+        if (desired > replicas) {
+            scaleOut(role, now, replicas, desired);
+        } else if (desired < replicas) {
+            scaleIn(role, now, replicas, desired);
+        }
+    }
+
+    private void scaleOut(Role role, double now, int replicas, int desired) {
+        int placeable = placeableReplicas(role.prototype, desired - replicas);
+        role.unplacedReplicas += desired - replicas - placeable;
+        if (placeable < desired - replicas) {
+            role.cappedScaleOuts++;
+        }
+        if (placeable == 0) {
+            return;
+        }
+
+        double breachStart = role.load.getBreachStart();
+        ScalingEvent event = new ScalingEvent(true, breachStart >= 0 ? breachStart : now, now,
+            replicas, replicas + placeable);
+        event.pendingReplicas = placeable;
+        List<Vm> launched = new ArrayList<>(placeable);
+        for (int i = 0; i < placeable; i++) {
+            Vm vm = new VmSimple(role.prototype.getMips(), role.prototype.getPesNumber())
+                .setRam(role.prototype.getRam().getCapacity())
+                .setBw(role.prototype.getBw().getCapacity())
+                .setSize(role.prototype.getStorage().getCapacity())
+                .setCloudletScheduler(new CloudletSchedulerTimeShared());
+            vm.setDescription(role.name + " replica");
+            role.booting.add(new Replica(vm, now, event));
+            launched.add(vm);
+        }
+        broker.submitVmList(launched);
+        role.events.add(event);
+        role.lastScaleTime = now;
+        role.peakReplicas = Math.max(role.peakReplicas, role.getReplicas());
+    }
+
+    private void scaleIn(Role role, double now, int replicas, int desired) {
+        int removed = 0;
+        // Newest first; the prototype is never removed
+        for (int i = role.ready.size() - 1; i > 0 && replicas - removed > desired; i--) {
+            if (role.ready.get(i).vm == role.prototype) {
+                continue;
+            }
+            role.draining.add(role.ready.remove(i));
+            removed++;
+        }
+        if (removed == 0) {
+            return;
+        }
+        role.nextReplica = 0;
+        role.events.add(new ScalingEvent(false, now, now, replicas, replicas - removed));
+        role.lastScaleTime = now;
+    }
+
+    /**
+     * How many of the wanted replicas fit on the prototype's hosts, placing them first-fit
+     * with the same checks as the hosts' time-shared VM schedulers, then on hosts a lazy
+     * datacenter has yet to build
+     */
+    private static int placeableReplicas(Vm prototype, int wanted) {
+        if (!prototype.isCreated()) {
+            return 0;
+        }
+        List<Host> hosts = prototype.getHost().getDatacenter().getHostList();
+        double[] freeMips = new double[hosts.size()];
+        long[] freeRam = new long[hosts.size()];
+        long[] freeBw = new long[hosts.size()];
+        long[] freeStorage = new long[hosts.size()];
+        for (int h = 0; h < hosts.size(); h++) {
+            Host host = hosts.get(h);
+            freeMips[h] = host.getTotalAvailableMips();
+            freeRam[h] = host.getRam().getAvailableResource();
+            freeBw[h] = host.getBw().getAvailableResource();
+            freeStorage[h] = host.getStorage().getAvailableResource();
+        }
+
+        long pes = prototype.getPesNumber();
+        double mips = prototype.getTotalMipsCapacity();
+        long ram = prototype.getRam().getCapacity();
+        long bw = prototype.getBw().getCapacity();
+        long storage = prototype.getStorage().getCapacity();
+        int placed = 0;
+        for (int h = 0; h < hosts.size() && placed < wanted; h++) {
+            if (hosts.get(h).getWorkingPesNumber() < pes) {
+                continue;
+            }
+            while (placed < wanted && freeMips[h] >= mips && freeRam[h] >= ram
+                    && freeBw[h] >= bw && freeStorage[h] >= storage) {
+                freeMips[h] -= mips;
+                freeRam[h] -= ram;
+                freeBw[h] -= bw;
+                freeStorage[h] -= storage;
+                placed++;
+            }
+        }
+        VmAllocationPolicy allocation = prototype.getHost().getDatacenter().getVmAllocationPolicy();
+        if (placed < wanted && allocation instanceof LazyHostAllocationPolicy) {
+            placed += (int) ((LazyHostAllocationPolicy) allocation).unbuiltCapacityFor(prototype, wanted - placed);
+        }
+        return placed;
+    }
+}
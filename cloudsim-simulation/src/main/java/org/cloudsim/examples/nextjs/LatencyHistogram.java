@@ -0,0 +1,122 @@
+package org.cloudsim.examples.nextjs;
+
+import java.util.Arrays;
+
+/**
+ * Log-bucketed latency histogram in the style of HdrHistogram.
+ *
+ * Values are recorded in microseconds. Below 128 µs every value has its own
+ * bucket; above that, each power of two is split into 64 linear buckets, so a
+ * reported percentile is within 1.6% of the recorded value it stands for.
+ * Memory depends only on the largest value recorded (a few KB for minutes of
+ * latency), not on the number of samples, and two histograms merge by adding
+ * their counts, so per-replica histograms can be pooled without raw samples.
+ *
+ * Not thread-safe.
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT / 2;
+    private static final double MICROS_PER_SECOND = 1_000_000.0;
+
+    private long[] counts = new long[SUB_BUCKET_COUNT];
+    private long totalCount;
+    private double sum;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    /**
+     * Records one latency given in seconds; negative values count as zero
+     */
+    void record(double seconds) {
+        long micros = Math.max(0, Math.round(seconds * MICROS_PER_SECOND));
+        int index = bucketIndex(micros);
+        if (index >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(index + 1, counts.length + SUB_BUCKET_HALF * 4));
+        }
+        counts[index]++;
+        totalCount++;
+        sum += micros;
+        min = Math.min(min, micros);
+        max = Math.max(max, micros);
+    }
+
+    /**
+     * Adds all of another histogram's samples to this one
+     */
+    void merge(LatencyHistogram other) {
+        if (other.totalCount == 0) {
+            return;
+        }
+        if (other.counts.length > counts.length) {
+            counts = Arrays.copyOf(counts, other.counts.length);
+        }
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    static int bucketIndex(long micros) {
+        if (micros < SUB_BUCKET_COUNT) {
+            return (int) micros;
+        }
+        int shift = 64 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS;
+        return SUB_BUCKET_HALF * shift + (int) (micros >>> shift);
+    }
+
+    /**
+     * Smallest value in microseconds that falls in the bucket
+     */
+    static long lowestValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_HALF - 1;
+        return (long) (index - SUB_BUCKET_HALF * shift) << shift;
+    }
+
+    long getCount() {
+        return totalCount;
+    }
+
+    /**
+     * Mean in seconds; exact, as the sum is kept alongside the buckets
+     */
+    double getMean() {
+        return totalCount > 0 ? sum / totalCount / MICROS_PER_SECOND : 0.0;
+    }
+
+    double getMin() {
+        return totalCount > 0 ? min / MICROS_PER_SECOND : 0.0;
+    }
+
+    double getMax() {
+        return max / MICROS_PER_SECOND;
+    }
+
+    /**
+     * Value in seconds at or below which the given percentage (0-100) of samples fall,
+     * reported as the highest value of its bucket, like HdrHistogram
+     */
+    double getPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0.0;
+        }
+        long target = Math.max(1, (long) Math.ceil(Math.min(100, percentile) / 100.0 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                long highest = lowestValue(i + 1) - 1;
+                return Math.max(min, Math.min(max, highest)) / MICROS_PER_SECOND;
+            }
+        }
+        return getMax();
+    }
+}
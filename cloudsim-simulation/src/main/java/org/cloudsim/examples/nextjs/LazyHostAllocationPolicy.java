@@ -0,0 +1,115 @@
+package org.cloudsim.examples.nextjs;
+
+import org.cloudsimplus.allocationpolicies.VmAllocationPolicySimple;
+import org.cloudsimplus.hosts.Host;
+import org.cloudsimplus.hosts.HostSuitability;
+import org.cloudsimplus.vms.Vm;
+
+import java.util.Optional;
+
+/**
+ * Places VMs on a fleet whose hosts are created on demand.
+ *
+ * The datacenter starts without hosts; the policy keeps how many hosts of each
+ * group are still unbuilt. Placement is CloudSim Plus' default worst fit, the
+ * suitable host with the most free PEs, taken over both the hosts already
+ * built and the unbuilt ones, which have all their PEs free. When an unbuilt
+ * host wins, it is created and added to the datacenter. Idle hosts of a group
+ * are interchangeable, so VMs land on the same kinds of host as with every
+ * host built up front, while the simulation only holds the hosts in use.
+ */
+final class LazyHostAllocationPolicy extends VmAllocationPolicySimple {
+
+    private final int[] unbuiltHosts;
+    private final int[] hostPes;
+    private final long[] hostMips;
+    private final long[] hostRam;
+    private final long[] hostBw;
+    private final long[] hostStorage;
+
+    /**
+     * Host group specs are shared with the template and must not be modified
+     */
+    LazyHostAllocationPolicy(int[] hostCounts, int[] hostPes, long[] hostMips,
+                             long[] hostRam, long[] hostBw, long[] hostStorage) {
+        this.unbuiltHosts = hostCounts.clone();
+        this.hostPes = hostPes;
+        this.hostMips = hostMips;
+        this.hostRam = hostRam;
+        this.hostBw = hostBw;
+        this.hostStorage = hostStorage;
+    }
+
+    @Override
+    public HostSuitability allocateHostForVm(Vm vm) {
+        // The base policy turns VMs away from a datacenter without hosts before looking for one
+        if (getHostList().isEmpty() && !vm.isCreated()) {
+            Optional<Host> host = findHostForVm(vm);
+            if (host.isPresent()) {
+                return allocateHostForVm(vm, host.get());
+            }
+        }
+        return super.allocateHostForVm(vm);
+    }
+
+    @Override
+    protected Optional<Host> defaultFindHostForVm(Vm vm) {
+        Optional<Host> built = super.defaultFindHostForVm(vm);
+        int group = -1;
+        for (int g = 0; g < unbuiltHosts.length; g++) {
+            if (unbuiltHosts[g] > 0 && copiesPerHost(g, vm, 1) > 0 && (group < 0 || hostPes[g] > hostPes[group])) {
+                group = g;
+            }
+        }
+        // Built hosts come first in the host list, so they win ties
+        if (group < 0 || built.isPresent() && built.get().getFreePesNumber() >= hostPes[group]) {
+            return built;
+        }
+
+        unbuiltHosts[group]--;
+        Host host = ScenarioTemplate.createHost(hostPes[group], hostMips[group], hostRam[group],
+            hostBw[group], hostStorage[group]);
+        getDatacenter().addHost(host);
+        return Optional.of(host);
+    }
+
+    /**
+     * Hosts the fleet can still create
+     */
+    long getUnbuiltHosts() {
+        long hosts = 0;
+        for (int count : unbuiltHosts) {
+            hosts += count;
+        }
+        return hosts;
+    }
+
+    /**
+     * How many copies of the VM, up to wanted, fit on hosts not built yet, with the same
+     * checks as a time-shared VM scheduler
+     */
+    long unbuiltCapacityFor(Vm vm, long wanted) {
+        long copies = 0;
+        for (int g = 0; g < unbuiltHosts.length && copies < wanted; g++) {
+            copies += unbuiltHosts[g] * copiesPerHost(g, vm, wanted);
+        }
+        return Math.min(copies, wanted);
+    }
+
+    /**
+     * Copies of the VM, up to limit, that fit on one empty host of the group
+     */
+    private long copiesPerHost(int group, Vm vm, long limit) {
+        if (hostPes[group] < vm.getPesNumber()) {
+            return 0;
+        }
+        long copies = Math.min(limit, (long) (hostPes[group] * hostMips[group] / vm.getTotalMipsCapacity()));
+        copies = Math.min(copies, fits(hostRam[group], vm.getRam().getCapacity()));
+        copies = Math.min(copies, fits(hostBw[group], vm.getBw().getCapacity()));
+        return Math.min(copies, fits(hostStorage[group], vm.getStorage().getCapacity()));
+    }
+
+    private static long fits(long capacity, long demand) {
+        return demand <= 0 ? Long.MAX_VALUE : capacity / demand;
+    }
+}
@@ -0,0 +1,246 @@
+package org.cloudsim.examples.nextjs;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Event-driven watcher for the metrics file written by the Next.js monitor.
+ *
+ * The parent directory of the metrics file is registered with a
+ * {@link WatchService}, so the file is only re-read and re-parsed when it has
+ * actually been modified. Bursts of events (the Node monitor truncates and
+ * rewrites the file with writeFileSync) are coalesced by a short debounce.
+ * A slow stat-based poll acts as a fallback for file systems where watch
+ * events are unreliable, and as the only mode when no WatchService is available.
+ */
+class MetricsFileWatcher implements Closeable {
+
+    /**
+     * Receives metrics file changes on the watcher thread
+     */
+    interface Listener {
+        void onMetricsChanged(Path file, String json);
+
+        void onMetricsMissing();
+    }
+
+    private final List<Path> candidatePaths;
+    private final long debounceMillis;
+    private final long fallbackPollMillis;
+    private final Listener listener;
+
+    private volatile boolean running;
+    private Thread watcherThread;
+    private WatchService watchService;
+
+    // Change signature of the last file that was delivered
+    private Path lastFile;
+    private long lastModified = -1;
+    private long lastSize = -1;
+    private boolean missingReported = false;
+
+    MetricsFileWatcher(List<Path> candidatePaths, long debounceMillis, long fallbackPollMillis, Listener listener) {
+        this.candidatePaths = candidatePaths;
+        this.debounceMillis = debounceMillis;
+        this.fallbackPollMillis = fallbackPollMillis;
+        this.listener = listener;
+    }
+
+    /**
+     * Starts the watcher on a daemon thread
+     */
+    synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        watcherThread = new Thread(this::run, "nextjs-metrics-watcher");
+        watcherThread.setDaemon(true);
+        watcherThread.start();
+    }
+
+    @Override
+    public synchronized void close() {
+        running = false;
+        closeWatchService();
+        if (watcherThread != null) {
+            watcherThread.interrupt();
+        }
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                Path file = resolveMetricsFile();
+                if (file == null) {
+                    if (!missingReported) {
+                        missingReported = true;
+                        listener.onMetricsMissing();
+                    }
+                    TimeUnit.MILLISECONDS.sleep(fallbackPollMillis);
+                    continue;
+                }
+
+                missingReported = false;
+                deliverIfChanged(file);
+                watch(file);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeWatchService();
+        }
+    }
+
+    /**
+     * Blocks on directory events for the given file until it disappears or the watcher is closed
+     */
+    private void watch(Path file) throws InterruptedException {
+        Path directory = file.toAbsolutePath().getParent();
+        Path fileName = file.getFileName();
+
+        WatchService service = openWatchService(directory);
+        if (service == null) {
+            pollForChanges(file);
+            return;
+        }
+
+        try {
+            while (running) {
+                WatchKey key = service.poll(fallbackPollMillis, TimeUnit.MILLISECONDS);
+                if (key == null) {
+                    // Fallback check in case an event was missed
+                    if (!Files.exists(file)) {
+                        return;
+                    }
+                    deliverIfChanged(file);
+                    continue;
+                }
+
+                boolean relevant = drainEvents(key, fileName);
+                if (!key.reset()) {
+                    return;
+                }
+                if (!relevant) {
+                    continue;
+                }
+
+                // Debounce: wait until the writer has gone quiet
+                WatchKey next;
+                while ((next = service.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+                    drainEvents(next, fileName);
+                    if (!next.reset()) {
+                        return;
+                    }
+                }
+
+                if (!Files.exists(file)) {
+                    return;
+                }
+                deliverIfChanged(file);
+            }
+        } catch (ClosedWatchServiceException e) {
+            // Watcher closed
+        } finally {
+            closeWatchService();
+        }
+    }
+
+    private boolean drainEvents(WatchKey key, Path fileName) {
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context())) {
+                relevant = true;
+            }
+        }
+        return relevant;
+    }
+
+    /**
+     * Stat-based polling used when no WatchService can be registered
+     */
+    private void pollForChanges(Path file) throws InterruptedException {
+        while (running && Files.exists(file)) {
+            TimeUnit.MILLISECONDS.sleep(fallbackPollMillis);
+            deliverIfChanged(file);
+        }
+    }
+
+    private WatchService openWatchService(Path directory) {
+        try {
+            WatchService service = FileSystems.getDefault().newWatchService();
+            synchronized (this) {
+                watchService = service;
+            }
+            directory.register(service,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+            return service;
+        } catch (IOException | UnsupportedOperationException e) {
+            System.err.println("⚠️  File watching unavailable, falling back to polling: " + e.getMessage());
+            closeWatchService();
+            return null;
+        }
+    }
+
+    private synchronized void closeWatchService() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                // Ignore errors on close
+            }
+            watchService = null;
+        }
+    }
+
+    /**
+     * Reads and delivers the file only if its modification time or size changed
+     */
+    private void deliverIfChanged(Path file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            long modified = attributes.lastModifiedTime().toMillis();
+            long size = attributes.size();
+            if (file.equals(lastFile) && modified == lastModified && size == lastSize) {
+                return;
+            }
+            if (size == 0) {
+                // Writer truncated the file and has not written the new content yet
+                return;
+            }
+
+            String json = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            lastFile = file;
+            lastModified = modified;
+            lastSize = size;
+            listener.onMetricsChanged(file, json);
+        } catch (IOException e) {
+            System.err.println("⚠️  Error reading metrics file " + file + ": " + e.getMessage());
+        } catch (RuntimeException e) {
+            System.err.println("⚠️  Error collecting metrics: " + e.getMessage());
+        }
+    }
+
+    private Path resolveMetricsFile() {
+        for (Path candidate : candidatePaths) {
+            if (Files.isRegularFile(candidate)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,199 @@
+package org.cloudsim.examples.nextjs;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.function.Consumer;
+
+/**
+ * Incremental reader for the append-only NDJSON metrics history written by the Next.js monitor.
+ *
+ * Each call to {@link #poll(Consumer)} memory-maps only the bytes appended
+ * since the previous call, parses every complete line and advances the read
+ * offset past it. A trailing line without a newline is left for the next
+ * poll. The channel is kept open across rotations: when the monitor renames
+ * the history file and starts a new one, the remainder of the old file is
+ * drained through the open channel before the new file is read from the start.
+ *
+ * Instances are not thread-safe.
+ */
+final class MetricsHistoryTailer implements Closeable {
+
+    // Upper bound for a single mapping; larger backlogs are read in several windows
+    static final int DEFAULT_MAX_WINDOW_BYTES = 64 * 1024 * 1024;
+
+    private final Path file;
+    private final int maxWindowBytes;
+    private final MetricsJsonParser parser = new MetricsJsonParser();
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private CharBuffer lineBuffer = CharBuffer.allocate(4096);
+
+    private FileChannel channel;
+    private Object fileKey;
+    private long offset;
+    private long malformedLines;
+
+    MetricsHistoryTailer(Path file) {
+        this(file, DEFAULT_MAX_WINDOW_BYTES);
+    }
+
+    /**
+     * @param maxWindowBytes bytes mapped at most at once, which also bounds the length of a line
+     */
+    MetricsHistoryTailer(Path file, int maxWindowBytes) {
+        this.file = file;
+        this.maxWindowBytes = maxWindowBytes;
+    }
+
+    /**
+     * Reads all complete lines appended since the last poll
+     *
+     * @return number of snapshots delivered to the sink
+     */
+    int poll(Consumer<MetricsSnapshot> sink) throws IOException {
+        int delivered = 0;
+
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            // Rotated away and not recreated yet; finish the old file if still open
+            if (channel != null) {
+                delivered += drain(sink);
+            }
+            return delivered;
+        }
+
+        if (channel != null && isRotated(attributes)) {
+            delivered += drain(sink);
+            closeChannel();
+        }
+
+        if (channel == null) {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            fileKey = attributes.fileKey();
+            offset = 0;
+        }
+
+        return delivered + drain(sink);
+    }
+
+    long getOffset() {
+        return offset;
+    }
+
+    long getMalformedLines() {
+        return malformedLines;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeChannel();
+    }
+
+    private boolean isRotated(BasicFileAttributes attributes) throws IOException {
+        Object key = attributes.fileKey();
+        if (key != null && fileKey != null) {
+            return !key.equals(fileKey);
+        }
+        // No file identity available: a shrinking file means it was replaced
+        return attributes.size() < offset || channel.size() < offset;
+    }
+
+    /**
+     * Maps and consumes the bytes between the current offset and the end of the open channel
+     */
+    private int drain(Consumer<MetricsSnapshot> sink) throws IOException {
+        int delivered = 0;
+        long size = channel.size();
+        if (size < offset) {
+            // Truncated in place
+            offset = 0;
+        }
+
+        while (offset < size) {
+            int window = (int) Math.min(maxWindowBytes, size - offset);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, window);
+
+            int lineStart = 0;
+            for (int i = 0; i < window; i++) {
+                if (buffer.get(i) == '\n') {
+                    if (deliverLine(buffer, lineStart, i, sink)) {
+                        delivered++;
+                    }
+                    lineStart = i + 1;
+                }
+            }
+
+            if (lineStart == 0) {
+                if (window == maxWindowBytes) {
+                    throw new IOException("History line longer than " + maxWindowBytes + " bytes at offset " + offset);
+                }
+                // Only a partial line is available; wait for the writer to finish it
+                break;
+            }
+            offset += lineStart;
+        }
+        return delivered;
+    }
+
+    private boolean deliverLine(ByteBuffer buffer, int start, int end, Consumer<MetricsSnapshot> sink) {
+        if (end > start && buffer.get(end - 1) == '\r') {
+            end--;
+        }
+        if (end == start) {
+            return false;
+        }
+
+        try {
+            CharSequence line = decode(buffer, start, end);
+            sink.accept(parser.parse(line));
+            return true;
+        } catch (IllegalArgumentException | CharacterCodingException e) {
+            malformedLines++;
+            return false;
+        }
+    }
+
+    private CharSequence decode(ByteBuffer buffer, int start, int end) throws CharacterCodingException {
+        ByteBuffer bytes = buffer.duplicate();
+        bytes.limit(end);
+        bytes.position(start);
+
+        if (lineBuffer.capacity() < end - start) {
+            lineBuffer = CharBuffer.allocate(Integer.highestOneBit(end - start) << 1);
+        }
+        lineBuffer.clear();
+        decoder.reset();
+        CoderResult result = decoder.decode(bytes, lineBuffer, true);
+        if (!result.isUnderflow()) {
+            result.throwException();
+        }
+        decoder.flush(lineBuffer);
+        lineBuffer.flip();
+        return lineBuffer;
+    }
+
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+            fileKey = null;
+        }
+    }
+}
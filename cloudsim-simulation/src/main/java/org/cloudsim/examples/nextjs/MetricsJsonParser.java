@@ -0,0 +1,620 @@
+package org.cloudsim.examples.nextjs;
+
+/**
+ * Single-pass JSON parser for the metrics document written by the Next.js monitor.
+ *
+ * The input is tokenized once, left to right, and known keys are matched
+ * in place against the character sequence, so no intermediate strings are
+ * created for keys or numbers. Nested objects (pages, routes, buildInfo,
+ * integration) are only interpreted at their own nesting level and any
+ * unknown value is skipped structurally. Route names are interned in a
+ * small cache so repeated parses of the same routes do not allocate them again.
+ *
+ * Instances reuse internal buffers and are not thread-safe.
+ */
+final class MetricsJsonParser {
+
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    // Largest number of significant digits that is always exact in a double
+    private static final int MAX_FAST_DIGITS = 15;
+
+    private final MetricsSnapshot.Builder builder = new MetricsSnapshot.Builder();
+    private final StringBuilder scratch = new StringBuilder();
+    private final NameCache routeNames = new NameCache();
+
+    private CharSequence in;
+    private int pos;
+    private int end;
+
+    // Bounds of the last key read by readKey()
+    private int keyStart;
+    private int keyEnd;
+    private boolean keyEscaped;
+
+    /**
+     * Parses a complete metrics document into an immutable snapshot
+     *
+     * @throws IllegalArgumentException if the document is not valid JSON
+     */
+    MetricsSnapshot parse(CharSequence json) {
+        this.in = json;
+        this.pos = 0;
+        this.end = json.length();
+        builder.reset();
+
+        try {
+            skipWhitespace();
+            if (pos < end && in.charAt(pos) == '\uFEFF') {
+                pos++;
+                skipWhitespace();
+            }
+            parseRoot();
+            skipWhitespace();
+            if (pos != end) {
+                throw error("Unexpected trailing content");
+            }
+            return builder.build();
+        } finally {
+            this.in = null;
+        }
+    }
+
+    private void parseRoot() {
+        expect('{');
+        if (consumeIfNext('}')) {
+            return;
+        }
+        do {
+            readKey();
+            expect(':');
+            if (keyIs("responseTime")) {
+                builder.setResponseTime(readNumberOrZero());
+            } else if (keyIs("cpuUsage")) {
+                builder.setCpuUsage(readNumberOrZero());
+            } else if (keyIs("memoryUsage")) {
+                builder.setMemoryUsage(readNumberOrZero());
+            } else if (keyIs("requestCount")) {
+                builder.setRequestCount(readNumberOrZero());
+            } else if (keyIs("errorCount")) {
+                builder.setErrorCount(readNumberOrZero());
+            } else if (keyIs("successCount")) {
+                builder.setSuccessCount(readNumberOrZero());
+            } else if (keyIs("activeConnections")) {
+                builder.setActiveConnections(readNumberOrZero());
+            } else if (keyIs("timestamp")) {
+                builder.setTimestamp((long) readNumberOrZero());
+            } else if (keyIs("uptime")) {
+                builder.setUptime((long) readNumberOrZero());
+            } else if (keyIs("requestRate")) {
+                builder.setRequestRate(readNumberOrZero());
+            } else if (keyIs("errorRate")) {
+                builder.setErrorRate(readNumberOrZero());
+            } else if (keyIs("successRate")) {
+                builder.setSuccessRate(readNumberOrZero());
+            } else if (keyIs("projectName")) {
+                builder.setProjectName(readStringOrNull());
+            } else if (keyIs("pages")) {
+                parsePages();
+            } else if (keyIs("routes")) {
+                parseRoutes();
+            } else if (keyIs("buildInfo")) {
+                parseBuildInfo();
+            } else if (keyIs("integration")) {
+                parseIntegration();
+            } else {
+                skipValue();
+            }
+        } while (nextMember());
+    }
+
+    private void parsePages() {
+        if (!startObjectOrSkip()) {
+            return;
+        }
+        do {
+            readKey();
+            expect(':');
+            if (keyIs("home")) {
+                builder.setPagesHome(readNumberOrZero());
+            } else if (keyIs("api")) {
+                builder.setPagesApi(readNumberOrZero());
+            } else if (keyIs("other")) {
+                builder.setPagesOther(readNumberOrZero());
+            } else {
+                skipValue();
+            }
+        } while (nextMember());
+    }
+
+    private void parseRoutes() {
+        if (!startObjectOrSkip()) {
+            return;
+        }
+        do {
+            readKey();
+            String route = keyEscaped ? scratch.toString() : routeNames.intern(in, keyStart, keyEnd);
+            expect(':');
+            builder.addRoute(route, Math.round(readNumberOrZero()));
+        } while (nextMember());
+    }
+
+    private void parseBuildInfo() {
+        if (!startObjectOrSkip()) {
+            return;
+        }
+        do {
+            readKey();
+            expect(':');
+            if (keyIs("lastBuild")) {
+                builder.setLastBuild(readStringOrNull());
+            } else if (keyIs("buildTime")) {
+                builder.setBuildTime((long) readNumberOrZero());
+            } else if (keyIs("isProduction")) {
+                builder.setProduction(readBooleanOrFalse());
+            } else {
+                skipValue();
+            }
+        } while (nextMember());
+    }
+
+    private void parseIntegration() {
+        if (!startObjectOrSkip()) {
+            return;
+        }
+        do {
+            readKey();
+            expect(':');
+            if (keyIs("cloudsimReady")) {
+                builder.setCloudsimReady(readBooleanOrFalse());
+            } else if (keyIs("monitoringActive")) {
+                builder.setMonitoringActive(readBooleanOrFalse());
+            } else if (keyIs("version")) {
+                builder.setIntegrationVersion(readStringOrNull());
+            } else {
+                skipValue();
+            }
+        } while (nextMember());
+    }
+
+    /**
+     * Opens an object value, or skips a value of another type
+     *
+     * @return true if the object has at least one member to read
+     */
+    private boolean startObjectOrSkip() {
+        skipWhitespace();
+        if (peek() != '{') {
+            skipValue();
+            return false;
+        }
+        pos++;
+        return !consumeIfNext('}');
+    }
+
+    /**
+     * Consumes the separator after an object member
+     *
+     * @return true if another member follows, false at the closing brace
+     */
+    private boolean nextMember() {
+        skipWhitespace();
+        char c = next();
+        if (c == ',') {
+            return true;
+        }
+        if (c == '}') {
+            return false;
+        }
+        throw error("Expected ',' or '}'");
+    }
+
+    // ---------------------------------------------------------------------
+    // Tokens
+    // ---------------------------------------------------------------------
+
+    /**
+     * Reads an object key and records its bounds. Escaped keys are decoded into the scratch buffer.
+     */
+    private void readKey() {
+        skipWhitespace();
+        expectRaw('"');
+        keyStart = pos;
+        keyEscaped = false;
+        while (pos < end) {
+            char c = in.charAt(pos);
+            if (c == '"') {
+                keyEnd = pos++;
+                return;
+            }
+            if (c == '\\') {
+                keyEscaped = true;
+                pos = keyStart;
+                decodeString();
+                keyEnd = keyStart;
+                return;
+            }
+            pos++;
+        }
+        throw error("Unterminated string");
+    }
+
+    private boolean keyIs(String name) {
+        if (keyEscaped) {
+            return name.contentEquals(scratch);
+        }
+        int length = keyEnd - keyStart;
+        if (length != name.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (in.charAt(keyStart + i) != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private double readNumberOrZero() {
+        skipWhitespace();
+        char c = peek();
+        if (c == '-' || (c >= '0' && c <= '9')) {
+            return readNumber();
+        }
+        skipValue();
+        return 0.0;
+    }
+
+    private String readStringOrNull() {
+        skipWhitespace();
+        if (peek() == '"') {
+            pos++;
+            int start = pos;
+            while (pos < end) {
+                char c = in.charAt(pos);
+                if (c == '"') {
+                    return in.subSequence(start, pos++).toString();
+                }
+                if (c == '\\') {
+                    pos = start;
+                    decodeString();
+                    return scratch.toString();
+                }
+                pos++;
+            }
+            throw error("Unterminated string");
+        }
+        skipValue();
+        return null;
+    }
+
+    private boolean readBooleanOrFalse() {
+        skipWhitespace();
+        if (peek() == 't') {
+            expectLiteral("true");
+            return true;
+        }
+        skipValue();
+        return false;
+    }
+
+    /**
+     * Parses a JSON number without creating a substring for the common case
+     */
+    private double readNumber() {
+        int start = pos;
+        boolean negative = consumeIfRaw('-');
+
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean fast = true;
+
+        int integerStart = pos;
+        while (pos < end && isDigit(in.charAt(pos))) {
+            mantissa = mantissa * 10 + (in.charAt(pos++) - '0');
+            if (mantissa != 0) {
+                digits++;
+            }
+        }
+        if (pos == integerStart) {
+            throw error("Invalid number");
+        }
+
+        if (consumeIfRaw('.')) {
+            int fractionStart = pos;
+            while (pos < end && isDigit(in.charAt(pos))) {
+                mantissa = mantissa * 10 + (in.charAt(pos++) - '0');
+                fractionDigits++;
+                if (mantissa != 0) {
+                    digits++;
+                }
+            }
+            if (pos == fractionStart) {
+                throw error("Invalid number");
+            }
+        }
+
+        if (pos < end && (in.charAt(pos) == 'e' || in.charAt(pos) == 'E')) {
+            pos++;
+            if (pos < end && (in.charAt(pos) == '+' || in.charAt(pos) == '-')) {
+                pos++;
+            }
+            int exponentStart = pos;
+            while (pos < end && isDigit(in.charAt(pos))) {
+                pos++;
+            }
+            if (pos == exponentStart) {
+                throw error("Invalid number");
+            }
+            fast = false;
+        }
+
+        if (fast && digits <= MAX_FAST_DIGITS && fractionDigits < POWERS_OF_TEN.length) {
+            double value = mantissa / POWERS_OF_TEN[fractionDigits];
+            return negative ? -value : value;
+        }
+        return Double.parseDouble(in.subSequence(start, pos).toString());
+    }
+
+    /**
+     * Decodes the string starting at the current position (after the opening quote) into the scratch buffer
+     */
+    private void decodeString() {
+        scratch.setLength(0);
+        while (pos < end) {
+            char c = in.charAt(pos++);
+            if (c == '"') {
+                return;
+            }
+            if (c != '\\') {
+                scratch.append(c);
+                continue;
+            }
+            if (pos >= end) {
+                break;
+            }
+            char escaped = in.charAt(pos++);
+            switch (escaped) {
+                case '"':
+                case '\\':
+                case '/':
+                    scratch.append(escaped);
+                    break;
+                case 'b':
+                    scratch.append('\b');
+                    break;
+                case 'f':
+                    scratch.append('\f');
+                    break;
+                case 'n':
+                    scratch.append('\n');
+                    break;
+                case 'r':
+                    scratch.append('\r');
+                    break;
+                case 't':
+                    scratch.append('\t');
+                    break;
+                case 'u':
+                    scratch.append(readUnicodeEscape());
+                    break;
+                default:
+                    throw error("Invalid escape sequence");
+            }
+        }
+        throw error("Unterminated string");
+    }
+
+    private char readUnicodeEscape() {
+        if (pos + 4 > end) {
+            throw error("Invalid unicode escape");
+        }
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            int digit = Character.digit(in.charAt(pos++), 16);
+            if (digit < 0) {
+                throw error("Invalid unicode escape");
+            }
+            value = (value << 4) | digit;
+        }
+        return (char) value;
+    }
+
+    /**
+     * Skips any JSON value, including nested objects and arrays
+     */
+    private void skipValue() {
+        skipWhitespace();
+        char c = peek();
+        switch (c) {
+            case '{':
+                pos++;
+                if (consumeIfNext('}')) {
+                    return;
+                }
+                do {
+                    readKey();
+                    expect(':');
+                    skipValue();
+                } while (nextMember());
+                return;
+            case '[':
+                pos++;
+                if (consumeIfNext(']')) {
+                    return;
+                }
+                do {
+                    skipValue();
+                    skipWhitespace();
+                    c = next();
+                    if (c == ']') {
+                        return;
+                    }
+                    if (c != ',') {
+                        throw error("Expected ',' or ']'");
+                    }
+                } while (true);
+            case '"':
+                pos++;
+                while (pos < end) {
+                    char s = in.charAt(pos++);
+                    if (s == '"') {
+                        return;
+                    }
+                    if (s == '\\') {
+                        pos++;
+                    }
+                }
+                throw error("Unterminated string");
+            case 't':
+                expectLiteral("true");
+                return;
+            case 'f':
+                expectLiteral("false");
+                return;
+            case 'n':
+                expectLiteral("null");
+                return;
+            default:
+                readNumber();
+        }
+    }
+
+    private void skipWhitespace() {
+        while (pos < end) {
+            char c = in.charAt(pos);
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return;
+            }
+            pos++;
+        }
+    }
+
+    private char peek() {
+        if (pos >= end) {
+            throw error("Unexpected end of input");
+        }
+        return in.charAt(pos);
+    }
+
+    private char next() {
+        char c = peek();
+        pos++;
+        return c;
+    }
+
+    private void expect(char expected) {
+        skipWhitespace();
+        expectRaw(expected);
+    }
+
+    private void expectRaw(char expected) {
+        if (next() != expected) {
+            pos--;
+            throw error("Expected '" + expected + "'");
+        }
+    }
+
+    private boolean consumeIfNext(char expected) {
+        skipWhitespace();
+        return consumeIfRaw(expected);
+    }
+
+    private boolean consumeIfRaw(char expected) {
+        if (pos < end && in.charAt(pos) == expected) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expectLiteral(String literal) {
+        for (int i = 0; i < literal.length(); i++) {
+            if (pos >= end || in.charAt(pos) != literal.charAt(i)) {
+                throw error("Expected '" + literal + "'");
+            }
+            pos++;
+        }
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + pos);
+    }
+
+    /**
+     * Open-addressing cache returning the same String instance for equal character ranges
+     */
+    private static final class NameCache {
+        private static final int MAX_SIZE = 1 << 16;
+
+        private String[] table = new String[256];
+        private int size;
+
+        String intern(CharSequence source, int start, int end) {
+            int hash = 0;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + source.charAt(i);
+            }
+
+            int mask = table.length - 1;
+            int index = mix(hash) & mask;
+            String candidate;
+            while ((candidate = table[index]) != null) {
+                if (candidate.hashCode() == hash && matches(candidate, source, start, end)) {
+                    return candidate;
+                }
+                index = (index + 1) & mask;
+            }
+
+            String name = source.subSequence(start, end).toString();
+            if (size >= MAX_SIZE) {
+                // Bound memory when route names are unbounded (e.g. ids in paths)
+                return name;
+            }
+            table[index] = name;
+            if (++size * 2 > table.length) {
+                grow();
+            }
+            return name;
+        }
+
+        private void grow() {
+            String[] old = table;
+            table = new String[old.length * 2];
+            int mask = table.length - 1;
+            for (String name : old) {
+                if (name != null) {
+                    int index = mix(name.hashCode()) & mask;
+                    while (table[index] != null) {
+                        index = (index + 1) & mask;
+                    }
+                    table[index] = name;
+                }
+            }
+        }
+
+        private static int mix(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+
+        private static boolean matches(String candidate, CharSequence source, int start, int end) {
+            if (candidate.length() != end - start) {
+                return false;
+            }
+            for (int i = 0; i < candidate.length(); i++) {
+                if (candidate.charAt(i) != source.charAt(start + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package org.cloudsim.examples.nextjs;
+
+import java.util.Arrays;
+
+/**
+ * Immutable, primitive-backed view of one cloudsim-metrics.json document.
+ *
+ * Instances are created through {@link Builder}, which the metrics parser
+ * fills in a single pass. Per-route request counts are kept as parallel
+ * name/count arrays instead of a map of boxed values. Being immutable, a
+ * snapshot can be published from the monitoring thread through a volatile
+ * reference and read by the simulation without further synchronization.
+ */
+final class MetricsSnapshot {
+
+    static final MetricsSnapshot EMPTY = new Builder().build();
+
+    private final boolean simulated;
+    private final String projectName;
+    private final double responseTime;
+    private final double cpuUsage;
+    private final double memoryUsage;
+    private final double requestCount;
+    private final double errorCount;
+    private final double successCount;
+    private final double activeConnections;
+    private final long timestamp;
+    private final long uptime;
+    private final double requestRate;
+    private final double errorRate;
+    private final double successRate;
+
+    // Page buckets written by the monitor's classifyPage()
+    private final double pagesHome;
+    private final double pagesApi;
+    private final double pagesOther;
+
+    // Per-route request counts (parallel arrays)
+    private final String[] routeNames;
+    private final long[] routeCounts;
+
+    // Build information
+    private final String lastBuild;
+    private final long buildTime;
+    private final boolean production;
+
+    // Integration status
+    private final boolean cloudsimReady;
+    private final boolean monitoringActive;
+    private final String integrationVersion;
+
+    private MetricsSnapshot(Builder builder) {
+        this.simulated = builder.simulated;
+        this.projectName = builder.projectName;
+        this.responseTime = builder.responseTime;
+        this.cpuUsage = builder.cpuUsage;
+        this.memoryUsage = builder.memoryUsage;
+        this.requestCount = builder.requestCount;
+        this.errorCount = builder.errorCount;
+        this.successCount = builder.successCount;
+        this.activeConnections = builder.activeConnections;
+        this.timestamp = builder.timestamp;
+        this.uptime = builder.uptime;
+        this.requestRate = builder.requestRate;
+        this.errorRate = builder.errorRate;
+        this.successRate = builder.successRate;
+        this.pagesHome = builder.pagesHome;
+        this.pagesApi = builder.pagesApi;
+        this.pagesOther = builder.pagesOther;
+        this.routeNames = Arrays.copyOf(builder.routeNames, builder.routeCount);
+        this.routeCounts = Arrays.copyOf(builder.routeCounts, builder.routeCount);
+        this.lastBuild = builder.lastBuild;
+        this.buildTime = builder.buildTime;
+        this.production = builder.production;
+        this.cloudsimReady = builder.cloudsimReady;
+        this.monitoringActive = builder.monitoringActive;
+        this.integrationVersion = builder.integrationVersion;
+    }
+
+    /**
+     * True if the values were generated because no real metrics were available
+     */
+    boolean isSimulated() {
+        return simulated;
+    }
+
+    String getProjectName() {
+        return projectName;
+    }
+
+    double getResponseTime() {
+        return responseTime;
+    }
+
+    double getCpuUsage() {
+        return cpuUsage;
+    }
+
+    double getMemoryUsage() {
+        return memoryUsage;
+    }
+
+    double getRequestCount() {
+        return requestCount;
+    }
+
+    double getErrorCount() {
+        return errorCount;
+    }
+
+    double getSuccessCount() {
+        return successCount;
+    }
+
+    double getActiveConnections() {
+        return activeConnections;
+    }
+
+    long getTimestamp() {
+        return timestamp;
+    }
+
+    long getUptime() {
+        return uptime;
+    }
+
+    double getRequestRate() {
+        return requestRate;
+    }
+
+    double getErrorRate() {
+        return errorRate;
+    }
+
+    double getSuccessRate() {
+        return successRate;
+    }
+
+    double getPagesHome() {
+        return pagesHome;
+    }
+
+    double getPagesApi() {
+        return pagesApi;
+    }
+
+    double getPagesOther() {
+        return pagesOther;
+    }
+
+    int getRouteCount() {
+        return routeNames.length;
+    }
+
+    String getRouteName(int index) {
+        return routeNames[index];
+    }
+
+    long getRouteRequests(int index) {
+        return routeCounts[index];
+    }
+
+    String getLastBuild() {
+        return lastBuild;
+    }
+
+    long getBuildTime() {
+        return buildTime;
+    }
+
+    boolean isProduction() {
+        return production;
+    }
+
+    boolean isCloudsimReady() {
+        return cloudsimReady;
+    }
+
+    boolean isMonitoringActive() {
+        return monitoringActive;
+    }
+
+    String getIntegrationVersion() {
+        return integrationVersion;
+    }
+
+    /**
+     * Mutable builder, reusable after {@link #reset()}
+     */
+    static final class Builder {
+        private boolean simulated;
+        private String projectName;
+        private double responseTime;
+        private double cpuUsage;
+        private double memoryUsage;
+        private double requestCount;
+        private double errorCount;
+        private double successCount;
+        private double activeConnections;
+        private long timestamp;
+        private long uptime;
+        private double requestRate;
+        private double errorRate;
+        private double successRate;
+        private double pagesHome;
+        private double pagesApi;
+        private double pagesOther;
+        private String[] routeNames = new String[16];
+        private long[] routeCounts = new long[16];
+        private int routeCount;
+        private String lastBuild;
+        private long buildTime;
+        private boolean production;
+        private boolean cloudsimReady;
+        private boolean monitoringActive;
+        private String integrationVersion;
+
+        Builder reset() {
+            simulated = false;
+            projectName = null;
+            responseTime = cpuUsage = memoryUsage = 0;
+            requestCount = errorCount = successCount = activeConnections = 0;
+            timestamp = uptime = 0;
+            requestRate = errorRate = successRate = 0;
+            pagesHome = pagesApi = pagesOther = 0;
+            Arrays.fill(routeNames, 0, routeCount, null);
+            routeCount = 0;
+            lastBuild = null;
+            buildTime = 0;
+            production = cloudsimReady = monitoringActive = false;
+            integrationVersion = null;
+            return this;
+        }
+
+        Builder setSimulated(boolean simulated) {
+            this.simulated = simulated;
+            return this;
+        }
+
+        Builder setProjectName(String projectName) {
+            this.projectName = projectName;
+            return this;
+        }
+
+        Builder setResponseTime(double responseTime) {
+            this.responseTime = responseTime;
+            return this;
+        }
+
+        Builder setCpuUsage(double cpuUsage) {
+            this.cpuUsage = cpuUsage;
+            return this;
+        }
+
+        Builder setMemoryUsage(double memoryUsage) {
+            this.memoryUsage = memoryUsage;
+            return this;
+        }
+
+        Builder setRequestCount(double requestCount) {
+            this.requestCount = requestCount;
+            return this;
+        }
+
+        Builder setErrorCount(double errorCount) {
+            this.errorCount = errorCount;
+            return this;
+        }
+
+        Builder setSuccessCount(double successCount) {
+            this.successCount = successCount;
+            return this;
+        }
+
+        Builder setActiveConnections(double activeConnections) {
+            this.activeConnections = activeConnections;
+            return this;
+        }
+
+        Builder setTimestamp(long timestamp) {
+            this.timestamp = timestamp;
+            return this;
+        }
+
+        Builder setUptime(long uptime) {
+            this.uptime = uptime;
+            return this;
+        }
+
+        Builder setRequestRate(double requestRate) {
+            this.requestRate = requestRate;
+            return this;
+        }
+
+        Builder setErrorRate(double errorRate) {
+            this.errorRate = errorRate;
+            return this;
+        }
+
+        Builder setSuccessRate(double successRate) {
+            this.successRate = successRate;
+            return this;
+        }
+
+        Builder setPages(double home, double api, double other) {
+            this.pagesHome = home;
+            this.pagesApi = api;
+            this.pagesOther = other;
+            return this;
+        }
+
+        Builder setPagesHome(double pagesHome) {
+            this.pagesHome = pagesHome;
+            return this;
+        }
+
+        Builder setPagesApi(double pagesApi) {
+            this.pagesApi = pagesApi;
+            return this;
+        }
+
+        Builder setPagesOther(double pagesOther) {
+            this.pagesOther = pagesOther;
+            return this;
+        }
+
+        Builder addRoute(String name, long requests) {
+            if (routeCount == routeNames.length) {
+                routeNames = Arrays.copyOf(routeNames, routeCount * 2);
+                routeCounts = Arrays.copyOf(routeCounts, routeCount * 2);
+            }
+            routeNames[routeCount] = name;
+            routeCounts[routeCount] = requests;
+            routeCount++;
+            return this;
+        }
+
+        Builder setLastBuild(String lastBuild) {
+            this.lastBuild = lastBuild;
+            return this;
+        }
+
+        Builder setBuildTime(long buildTime) {
+            this.buildTime = buildTime;
+            return this;
+        }
+
+        Builder setProduction(boolean production) {
+            this.production = production;
+            return this;
+        }
+
+        Builder setCloudsimReady(boolean cloudsimReady) {
+            this.cloudsimReady = cloudsimReady;
+            return this;
+        }
+
+        Builder setMonitoringActive(boolean monitoringActive) {
+            this.monitoringActive = monitoringActive;
+            return this;
+        }
+
+        Builder setIntegrationVersion(String integrationVersion) {
+            this.integrationVersion = integrationVersion;
+            return this;
+        }
+
+        MetricsSnapshot build() {
+            return new MetricsSnapshot(this);
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package org.cloudsim.examples.nextjs;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Embedded columnar time-series store for ingested metrics snapshots.
+ *
+ * Every numeric metric and every route's request count is kept in its own
+ * {@link CompressedTimeSeries}, so window queries such as "p95 CPU over the
+ * last 24h" decode a single column and never touch JSON. Windows passed as a
+ * duration are measured back from the newest stored sample, so recorded
+ * history can be replayed long after it was captured.
+ *
+ * The store can be saved to and loaded from a compact binary file. All
+ * methods are synchronized: the monitoring thread records while the
+ * simulation setup queries.
+ */
+final class MetricsTimeSeriesStore {
+
+    enum Metric {
+        RESPONSE_TIME,
+        CPU_USAGE,
+        MEMORY_USAGE,
+        REQUEST_COUNT,
+        ACTIVE_CONNECTIONS
+    }
+
+    private static final int FILE_MAGIC = 0x4E4A5453; // "NJTS"
+    private static final int FILE_VERSION = 1;
+
+    private final CompressedTimeSeries[] series = new CompressedTimeSeries[Metric.values().length];
+    private final Map<String, CompressedTimeSeries> routes = new HashMap<>();
+
+    // Reused by percentile queries
+    private double[] scratch = new double[1024];
+    private final int[] scratchCount = new int[1];
+
+    MetricsTimeSeriesStore() {
+        for (int i = 0; i < series.length; i++) {
+            series[i] = new CompressedTimeSeries();
+        }
+    }
+
+    /**
+     * Records a real metrics snapshot. Simulated snapshots, snapshots without a
+     * timestamp and snapshots not newer than the last recorded one are ignored.
+     *
+     * @return true if the snapshot was stored
+     */
+    synchronized boolean record(MetricsSnapshot snapshot) {
+        long timestamp = snapshot.getTimestamp();
+        if (snapshot.isSimulated() || timestamp <= 0) {
+            return false;
+        }
+        if (!series[Metric.CPU_USAGE.ordinal()].append(timestamp, snapshot.getCpuUsage())) {
+            return false;
+        }
+        series[Metric.RESPONSE_TIME.ordinal()].append(timestamp, snapshot.getResponseTime());
+        series[Metric.MEMORY_USAGE.ordinal()].append(timestamp, snapshot.getMemoryUsage());
+        series[Metric.REQUEST_COUNT.ordinal()].append(timestamp, snapshot.getRequestCount());
+        series[Metric.ACTIVE_CONNECTIONS.ordinal()].append(timestamp, snapshot.getActiveConnections());
+
+        for (int i = 0; i < snapshot.getRouteCount(); i++) {
+            CompressedTimeSeries route = routes.get(snapshot.getRouteName(i));
+            if (route == null) {
+                route = new CompressedTimeSeries();
+                routes.put(snapshot.getRouteName(i), route);
+            }
+            route.append(timestamp, snapshot.getRouteRequests(i));
+        }
+        return true;
+    }
+
+    synchronized long size() {
+        return series[Metric.CPU_USAGE.ordinal()].size();
+    }
+
+    synchronized long getFirstTimestamp() {
+        return series[Metric.CPU_USAGE.ordinal()].getFirstTimestamp();
+    }
+
+    synchronized long getLastTimestamp() {
+        return series[Metric.CPU_USAGE.ordinal()].getLastTimestamp();
+    }
+
+    /**
+     * Encoded size of all raw points, excluding rollups
+     */
+    synchronized long getCompressedBytes() {
+        long bytes = 0;
+        for (CompressedTimeSeries column : series) {
+            bytes += column.getCompressedBytes();
+        }
+        for (CompressedTimeSeries route : routes.values()) {
+            bytes += route.getCompressedBytes();
+        }
+        return bytes;
+    }
+
+    synchronized List<String> getRouteNames() {
+        return new ArrayList<>(routes.keySet());
+    }
+
+    /**
+     * Count, sum, min and max of a metric over [from, to)
+     */
+    synchronized WindowStats aggregate(Metric metric, long from, long to) {
+        WindowStats stats = new WindowStats();
+        series[metric.ordinal()].aggregate(from, to, stats);
+        return stats;
+    }
+
+    /**
+     * Count, sum, min and max of a metric over the given duration before the newest sample
+     */
+    synchronized WindowStats aggregateOverLast(Metric metric, long windowMillis) {
+        long to = getLastTimestamp() + 1;
+        return aggregate(metric, to - windowMillis, to);
+    }
+
+    /**
+     * Count, sum, min and max of a route's request count over [from, to)
+     */
+    synchronized WindowStats aggregateRoute(String route, long from, long to) {
+        WindowStats stats = new WindowStats();
+        CompressedTimeSeries column = routes.get(route);
+        if (column != null) {
+            column.aggregate(from, to, stats);
+        }
+        return stats;
+    }
+
+    /**
+     * Nearest-rank percentile (0-100) of a metric over [from, to), or 0 if the window is empty
+     */
+    synchronized double percentile(Metric metric, long from, long to, double percentile) {
+        scratch = series[metric.ordinal()].collect(from, to, scratch, scratchCount);
+        int n = scratchCount[0];
+        if (n == 0) {
+            return 0.0;
+        }
+        int rank = (int) Math.ceil(Math.max(0, Math.min(100, percentile)) / 100.0 * n) - 1;
+        return select(scratch, n, Math.max(0, rank));
+    }
+
+    /**
+     * Nearest-rank percentile (0-100) of a metric over the given duration before the newest sample
+     */
+    synchronized double percentileOverLast(Metric metric, long windowMillis, double percentile) {
+        long to = getLastTimestamp() + 1;
+        return percentile(metric, to - windowMillis, to, percentile);
+    }
+
+    /**
+     * Quickselect: k-th smallest of values[0..n), partially reordering the array
+     */
+    private static double select(double[] values, int n, int k) {
+        int left = 0;
+        int right = n - 1;
+        while (left < right) {
+            double pivot = values[(left + right) >>> 1];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (values[i] < pivot) {
+                    i++;
+                }
+                while (values[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    double tmp = values[i];
+                    values[i] = values[j];
+                    values[j] = tmp;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                break;
+            }
+        }
+        return values[k];
+    }
+
+    /**
+     * Writes the store to a binary file, replacing it atomically
+     */
+    synchronized void save(Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(FILE_VERSION);
+            out.writeInt(series.length);
+            for (CompressedTimeSeries column : series) {
+                column.write(out);
+            }
+            out.writeInt(routes.size());
+            for (Map.Entry<String, CompressedTimeSeries> entry : routes.entrySet()) {
+                out.writeUTF(entry.getKey());
+                entry.getValue().write(out);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Replaces the contents of this store with a file written by {@link #save(Path)}
+     */
+    synchronized void load(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION) {
+                throw new IOException("Unsupported metrics store format: " + file);
+            }
+            int columns = in.readInt();
+            if (columns != series.length) {
+                throw new IOException("Unexpected metric count " + columns + " in " + file);
+            }
+            CompressedTimeSeries[] loaded = new CompressedTimeSeries[columns];
+            for (int i = 0; i < columns; i++) {
+                loaded[i] = CompressedTimeSeries.read(in);
+            }
+            Map<String, CompressedTimeSeries> loadedRoutes = new HashMap<>();
+            int routeCount = in.readInt();
+            for (int i = 0; i < routeCount; i++) {
+                String name = in.readUTF();
+                loadedRoutes.put(name, CompressedTimeSeries.read(in));
+            }
+
+            System.arraycopy(loaded, 0, series, 0, columns);
+            routes.clear();
+            routes.putAll(loadedRoutes);
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package org.cloudsim.examples.nextjs;
+
+import ch.qos.logback.classic.Level;
+import org.cloudsimplus.util.Log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Monte Carlo study: runs many independent replicas of the same deployment
+ * and reports how execution time and cost vary between them.
+ *
+ * Every replica draws its own metrics sample, as the standalone simulation
+ * does, and derives the arrival rate, workload mix, request lengths and VM
+ * speed from it; arrivals and service times then come from the replica's own
+ * random stream. Replica streams are split from one seeded generator in
+ * replica order, so a study is reproducible regardless of how replicas are
+ * scheduled across threads.
+ *
+ * Replicas run concurrently on a fork-join pool sized to the machine's cores.
+ * Each one folds its per-workload means into the shared summaries, and its
+ * latency histograms into pooled ones, as soon as it finishes and keeps none
+ * of its cloudlets, so memory does not grow with the number of replicas or
+ * requests.
+ */
+final class MonteCarloStudy {
+
+    static final int DEFAULT_REPLICAS = 30;
+
+    // Two-sided 95% quantile of the normal distribution
+    private static final double Z_95 = 1.959963984540054;
+
+    // Two-sided 95% quantiles of Student's t distribution for 1 to 30 degrees of freedom
+    private static final double[] T_95 = {
+        12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+        2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+        2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042
+    };
+
+    /**
+     * Distribution of one per-replica value, filled as replicas finish
+     */
+    static final class ReplicaSummary {
+        private final double[] values;
+        private final boolean[] present;
+        private int count;
+
+        ReplicaSummary(int replicas) {
+            values = new double[replicas];
+            present = new boolean[replicas];
+        }
+
+        synchronized void record(int replica, double value) {
+            if (!present[replica]) {
+                count++;
+            }
+            values[replica] = value;
+            present[replica] = true;
+        }
+
+        synchronized int getCount() {
+            return count;
+        }
+
+        synchronized double getMean() {
+            // Summed in replica order so the result does not depend on thread timing
+            double mean = 0;
+            int n = 0;
+            for (int i = 0; i < values.length; i++) {
+                if (present[i]) {
+                    n++;
+                    mean += (values[i] - mean) / n;
+                }
+            }
+            return mean;
+        }
+
+        synchronized double getStandardDeviation() {
+            double mean = 0;
+            double m2 = 0;
+            int n = 0;
+            for (int i = 0; i < values.length; i++) {
+                if (present[i]) {
+                    n++;
+                    double delta = values[i] - mean;
+                    mean += delta / n;
+                    m2 += delta * (values[i] - mean);
+                }
+            }
+            return n > 1 ? Math.sqrt(m2 / (n - 1)) : 0.0;
+        }
+
+        /**
+         * Half-width of the 95% confidence interval of the mean, from Student's t
+         * distribution as the standard deviation is estimated from the replicas
+         */
+        double getConfidenceHalfWidth() {
+            int n = getCount();
+            return n > 1 ? tQuantile95(n - 1) * getStandardDeviation() / Math.sqrt(n) : 0.0;
+        }
+
+        /**
+         * Nearest-rank percentile, with p between 0 and 100
+         */
+        synchronized double getPercentile(double p) {
+            if (count == 0) {
+                return 0.0;
+            }
+            double[] sorted = new double[count];
+            int n = 0;
+            for (int i = 0; i < values.length; i++) {
+                if (present[i]) {
+                    sorted[n++] = values[i];
+                }
+            }
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(p / 100.0 * count);
+            return sorted[Math.max(0, Math.min(count - 1, rank - 1))];
+        }
+    }
+
+    private final String arrivalPattern;
+    private final double baseRate;
+    private final double horizonSeconds;
+    private final CapacitySweep.Configuration configuration;
+    private final int replicas;
+    // Scenario templates shared by replicas that draw the same CPU-scaled MIPS
+    private final ConcurrentMap<Integer, CapacitySweep.Configuration> scaledConfigurations =
+        new ConcurrentHashMap<>();
+
+    // Indexed by WorkloadType ordinal
+    private final ReplicaSummary[] executionTimes;
+    private final ReplicaSummary[] costs;
+    private final ReplicaSummary totalCost;
+    private final SimulationResultAggregator pooled = new SimulationResultAggregator();
+    private int saturatedReplicas;
+    private int incompleteReplicas;
+
+    MonteCarloStudy(String arrivalPattern, double baseRate, double horizonSeconds,
+                    CapacitySweep.Configuration configuration, int replicas) {
+        this.arrivalPattern = arrivalPattern;
+        this.baseRate = baseRate;
+        this.horizonSeconds = horizonSeconds;
+        this.configuration = configuration;
+        this.replicas = replicas;
+
+        int types = WorkloadType.count();
+        executionTimes = new ReplicaSummary[types];
+        costs = new ReplicaSummary[types];
+        for (int t = 0; t < types; t++) {
+            executionTimes[t] = new ReplicaSummary(replicas);
+            costs[t] = new ReplicaSummary(replicas);
+        }
+        totalCost = new ReplicaSummary(replicas);
+    }
+
+    /**
+     * Runs every replica in parallel, folding each result in as it completes
+     */
+    void run(long seed) throws InterruptedException {
+        SplittableRandom master = new SplittableRandom(seed);
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int r = 0; r < replicas; r++) {
+            final int replica = r;
+            final SplittableRandom random = master.split();
+            tasks.add(() -> {
+                runReplica(replica, random);
+                return null;
+            });
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try {
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Monte Carlo replica failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void runReplica(int replica, SplittableRandom random) {
+        MetricsSnapshot metrics = ExistingNextJSCloudSimIntegration.simulatedMetrics(random);
+        double rate = baseRate * ExistingNextJSCloudSimIntegration.requestMultiplier(metrics.getRequestCount());
+        double serviceScale = ExistingNextJSCloudSimIntegration.responseMultiplier(metrics.getResponseTime());
+        int mips = (int) (configuration.getMips() *
+            ExistingNextJSCloudSimIntegration.cpuMipsMultiplier(metrics.getCpuUsage()));
+
+        ArrivalSource source = new GeneratedArrivalSource(
+            ExistingNextJSCloudSimIntegration.createArrivalModel(arrivalPattern, rate), horizonSeconds,
+            ExistingNextJSCloudSimIntegration.workloadMix(metrics), serviceScale, random.nextLong());
+        CapacitySweep.Configuration scaled = scaledConfigurations.computeIfAbsent(mips,
+            m -> new CapacitySweep.Configuration(configuration.getVms(), configuration.getCores(),
+                configuration.getRamMb(), m, configuration.getHosts()));
+        CapacitySweep.Outcome outcome = CapacitySweep.simulate(scaled, source);
+        record(replica, outcome);
+    }
+
+    private void record(int replica, CapacitySweep.Outcome outcome) {
+        SimulationResultAggregator results = outcome.getResults();
+        double replicaCost = 0;
+        for (WorkloadType type : WorkloadType.values()) {
+            if (results.getFinishedCloudlets(type) == 0) {
+                continue;
+            }
+            double cost = results.getTotalExecutionTime(type) * ExistingNextJSCloudSimIntegration.COST_PER_EXECUTION_SECOND;
+            executionTimes[type.ordinal()].record(replica, results.getMeanExecutionTime(type));
+            costs[type.ordinal()].record(replica, cost);
+            replicaCost += cost;
+        }
+        totalCost.record(replica, replicaCost);
+
+        synchronized (this) {
+            pooled.merge(results);
+            if (outcome.isSaturated()) {
+                saturatedReplicas++;
+            } else if (!outcome.isPlaced() || outcome.getUnfinished() > 0) {
+                incompleteReplicas++;
+            }
+        }
+    }
+
+    /**
+     * Runs a study from command-line arguments and prints the summary
+     */
+    static void run(String[] args) throws InterruptedException {
+        int replicas = DEFAULT_REPLICAS;
+        int vms = 5;
+        int cores = 4;
+        int ramMb = 4096;
+        int mips = 2500;
+        int hosts = 3;
+        String pattern = "poisson";
+        double rate = 5.0;
+        double horizonHours = 1.0;
+        long seed = ExistingNextJSCloudSimIntegration.DEFAULT_SEED;
+
+        for (int i = 0; i + 1 < args.length; i++) {
+            switch (args[i]) {
+                case "--monte-carlo": replicas = Integer.parseInt(args[++i]); break;
+                case "--vms": vms = Integer.parseInt(args[++i]); break;
+                case "--cores": cores = Integer.parseInt(args[++i]); break;
+                case "--ram": ramMb = Integer.parseInt(args[++i]); break;
+                case "--mips": mips = Integer.parseInt(args[++i]); break;
+                case "--hosts": hosts = Integer.parseInt(args[++i]); break;
+                case "--arrivals": pattern = args[++i]; break;
+                case "--rate": rate = Double.parseDouble(args[++i]); break;
+                case "--horizon": horizonHours = Double.parseDouble(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                default: break;
+            }
+        }
+
+        if (ExistingNextJSCloudSimIntegration.createArrivalModel(pattern, rate) == null) {
+            System.err.println("❌ Unknown arrival pattern '" + pattern + "' (expected poisson, diurnal or burst)");
+            return;
+        }
+        if (replicas < 1) {
+            System.err.println("❌ At least one replica is required");
+            return;
+        }
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        System.out.println("🎲 Monte Carlo study: " + replicas + " replicas on " + threads + " threads, seed " + seed);
+        System.out.println("   " + vms + " VM(s) x (" + cores + " cores, " + ramMb + " MB, " + mips +
+                         " MIPS) on " + hosts + " host(s)");
+        System.out.println("   Workload: " + pattern + " arrivals around " + rate + " requests/s over " +
+                         horizonHours + " hours");
+
+        // Per-event logging from many concurrent simulations is unreadable and slow
+        Log.setLevel(Level.ERROR);
+        long started = System.nanoTime();
+        MonteCarloStudy study = new MonteCarloStudy(pattern, rate, horizonHours * 3600,
+            new CapacitySweep.Configuration(vms, cores, ramMb, mips, hosts), replicas);
+        study.run(seed);
+        double elapsed = (System.nanoTime() - started) / 1e9;
+
+        study.printSummary();
+        System.out.printf("%n⏱️  Study completed in %.1f seconds%n", elapsed);
+    }
+
+    private void printSummary() {
+        String line = ExistingNextJSCloudSimIntegration.repeatString("=", 104);
+        System.out.println("\n" + line);
+        System.out.println("📊 Monte Carlo results over " + replicas + " replicas (95% CI of the mean)");
+        System.out.println(line);
+
+        System.out.println("\n⚡ Mean execution time per request (seconds):");
+        printHeader();
+        for (WorkloadType type : WorkloadType.values()) {
+            printRow(type.getLabel(), executionTimes[type.ordinal()], "%.4f");
+        }
+
+        System.out.println("\n💰 Execution cost per replica ($):");
+        printHeader();
+        for (WorkloadType type : WorkloadType.values()) {
+            printRow(type.getLabel(), costs[type.ordinal()], "%.4f");
+        }
+        printRow("Total", totalCost, "%.4f");
+
+        System.out.println("\n📉 Response time (arrival to finish) of all requests across replicas (ms):");
+        System.out.printf("  %-18s %10s %10s %10s %10s %10s %10s%n",
+            "Workload", "Requests", "p50", "p90", "p99", "p99.9", "Max");
+        for (WorkloadType type : WorkloadType.values()) {
+            LatencyHistogram histogram = pooled.getFinishTimes(type);
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+            System.out.printf("  %-18s %10d %10.1f %10.1f %10.1f %10.1f %10.1f%n", type.getLabel(),
+                histogram.getCount(), histogram.getPercentile(50) * 1000, histogram.getPercentile(90) * 1000,
+                histogram.getPercentile(99) * 1000, histogram.getPercentile(99.9) * 1000,
+                histogram.getMax() * 1000);
+        }
+
+        if (saturatedReplicas > 0 || incompleteReplicas > 0) {
+            System.out.println("\n⚠️  " + saturatedReplicas + " replica(s) saturated and " + incompleteReplicas +
+                             " left requests unfinished; their results cover finished requests only");
+        }
+    }
+
+    /**
+     * Two-sided 95% quantile of Student's t distribution with the given degrees of freedom:
+     * tabulated up to 30, then the Cornish-Fisher expansion around the normal quantile,
+     * within 0.001 of the exact value
+     */
+    static double tQuantile95(int degreesOfFreedom) {
+        if (degreesOfFreedom < 1) {
+            throw new IllegalArgumentException("Degrees of freedom must be positive");
+        }
+        if (degreesOfFreedom <= T_95.length) {
+            return T_95[degreesOfFreedom - 1];
+        }
+        double z = Z_95;
+        double z3 = z * z * z;
+        double df = degreesOfFreedom;
+        return z + (z3 + z) / (4 * df) + (5 * z3 * z * z + 16 * z3 + 3 * z) / (96 * df * df);
+    }
+
+    private static void printHeader() {
+        System.out.printf("  %-18s %8s %12s %12s %12s %12s %24s%n",
+            "Workload", "Replicas", "Mean", "p50", "p95", "p99", "95% CI");
+    }
+
+    private static void printRow(String label, ReplicaSummary summary, String format) {
+        if (summary.getCount() == 0) {
+            return;
+        }
+        double mean = summary.getMean();
+        double halfWidth = summary.getConfidenceHalfWidth();
+        String interval = "[" + String.format(format, mean - halfWidth) + ", " +
+            String.format(format, mean + halfWidth) + "]";
+        System.out.printf("  %-18s %8d %12s %12s %12s %12s %24s%n", label, summary.getCount(),
+            String.format(format, mean),
+            String.format(format, summary.getPercentile(50)),
+            String.format(format, summary.getPercentile(95)),
+            String.format(format, summary.getPercentile(99)),
+            interval);
+    }
+}
@@ -0,0 +1,235 @@
+package org.cloudsim.examples.nextjs;
+
+import org.cloudsimplus.brokers.DatacenterBroker;
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.core.CloudSimPlus;
+import org.cloudsimplus.vms.Vm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Routes each request to the region where it should finish soonest for the
+ * user who sent it, and reports latency as those users see it.
+ *
+ * Users are spread over the regions by their share of the
+ * {@link RegionTopology}, drawn from a seeded stream so replays of the same
+ * arrivals see the same users. For every region with VMs the router estimates
+ * network time from the user's region plus the request's expected finish time
+ * on the region's next VM, see {@link VmLoadEstimate}, and picks the smallest.
+ * Users thus go to their own region until it is busy enough that a farther one
+ * answers sooner. Within a region VMs take requests round-robin, as with the
+ * broker's default mapper.
+ *
+ * The simulation runs inside the datacenters, so network time is added to
+ * each request's finish time when it returns rather than delaying its
+ * arrival.
+ */
+final class RegionRouter {
+
+    private static final int INITIAL_ROUTES = 1024;
+    // Largest array the JVM reliably allocates
+    private static final int MAX_ROUTES = Integer.MAX_VALUE - 8;
+
+    private final CloudSimPlus simulation;
+    private final RegionTopology topology;
+    private final SplittableRandom random;
+    private final double[] cumulativeShares;
+
+    // VMs of each region and the last one routed to
+    private final VmLoadEstimate[] regionVms;
+    private final int[] nextVm;
+
+    // Users' region and serving region of each routed cloudlet by id, as users * regions + server + 1, 0 if unrouted
+    private int[] routes = new int[INITIAL_ROUTES];
+    private final long[] servedRequests;
+    private final long[] localRequests;
+    private final LatencyHistogram[] userLatency;
+    private final LatencyHistogram overallLatency = new LatencyHistogram();
+
+    /**
+     * @param vms       VMs of the scenario
+     * @param vmRegions region of each VM, in the same order
+     */
+    RegionRouter(CloudSimPlus simulation, RegionTopology topology, List<Vm> vms, int[] vmRegions, long seed) {
+        this.simulation = simulation;
+        this.topology = topology;
+        this.random = new SplittableRandom(seed);
+
+        int regions = topology.size();
+        cumulativeShares = new double[regions];
+        double share = 0;
+        for (int r = 0; r < regions; r++) {
+            share += topology.getRegions().get(r).getShare();
+            cumulativeShares[r] = share;
+        }
+
+        List<List<Vm>> byRegion = new ArrayList<>(regions);
+        for (int r = 0; r < regions; r++) {
+            byRegion.add(new ArrayList<>());
+        }
+        for (int v = 0; v < vms.size(); v++) {
+            byRegion.get(vmRegions[v]).add(vms.get(v));
+        }
+        regionVms = new VmLoadEstimate[regions];
+        for (int r = 0; r < regions; r++) {
+            regionVms[r] = new VmLoadEstimate(byRegion.get(r));
+        }
+        nextVm = new int[regions];
+        servedRequests = new long[regions];
+        localRequests = new long[regions];
+        userLatency = new LatencyHistogram[regions];
+        for (int r = 0; r < regions; r++) {
+            userLatency[r] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Takes over request routing on the broker
+     */
+    void start(DatacenterBroker broker) {
+        broker.setVmMapper(this::selectVm);
+    }
+
+    /**
+     * Attributes the finish time of a returned cloudlet, plus its network time, to its users' region
+     */
+    void record(Cloudlet cloudlet) {
+        long id = cloudlet.getId();
+        if (id < 0 || id >= routes.length || routes[(int) id] == 0) {
+            return;
+        }
+        int route = routes[(int) id] - 1;
+        routes[(int) id] = 0;
+        if (!cloudlet.isFinished()) {
+            return;
+        }
+        int users = route / topology.size();
+        int server = route % topology.size();
+        double latency = topology.networkSeconds(users, server, cloudlet.getFileSize(), cloudlet.getOutputSize()) +
+            cloudlet.getFinishTime() - cloudlet.getDcArrivalTime();
+        userLatency[users].record(latency);
+        overallLatency.record(latency);
+    }
+
+    RegionTopology getTopology() {
+        return topology;
+    }
+
+    /**
+     * VMs the region was deployed with
+     */
+    int getVmCount(int region) {
+        return regionVms[region].size();
+    }
+
+    long getServedRequests(int region) {
+        return servedRequests[region];
+    }
+
+    /**
+     * Requests from users in the region that were served there
+     */
+    long getLocalRequests(int region) {
+        return localRequests[region];
+    }
+
+    /**
+     * Finish times of requests from users in the region, including network time
+     */
+    LatencyHistogram getUserLatency(int region) {
+        return userLatency[region];
+    }
+
+    LatencyHistogram getOverallLatency() {
+        return overallLatency;
+    }
+
+    /**
+     * Monthly on-demand price of the region's VMs at its price factor
+     */
+    double getMonthlyCost(int region) {
+        double cost = 0;
+        for (int v = 0; v < regionVms[region].size(); v++) {
+            Vm vm = regionVms[region].get(v);
+            cost += CapacitySweep.monthlyVmPrice(vm.getPesNumber(), vm.getMips(), vm.getRam().getCapacity());
+        }
+        return cost * topology.getRegions().get(region).getPriceFactor();
+    }
+
+    double getMonthlyCost() {
+        double cost = 0;
+        for (int r = 0; r < regionVms.length; r++) {
+            cost += getMonthlyCost(r);
+        }
+        return cost;
+    }
+
+    private Vm selectVm(Cloudlet cloudlet) {
+        int users = sampleUsers();
+        double now = simulation.clock();
+        int bestRegion = -1;
+        int bestVm = -1;
+        double bestSeconds = Double.POSITIVE_INFINITY;
+        for (int r = 0; r < regionVms.length; r++) {
+            int v = nextCreatedVm(r);
+            if (v < 0) {
+                continue;
+            }
+            double seconds = topology.networkSeconds(users, r, cloudlet.getFileSize(), cloudlet.getOutputSize()) +
+                regionVms[r].expectedSeconds(v, cloudlet, now);
+            if (seconds < bestSeconds) {
+                bestSeconds = seconds;
+                bestRegion = r;
+                bestVm = v;
+            }
+        }
+        if (bestRegion < 0) {
+            return Vm.NULL;
+        }
+
+        nextVm[bestRegion] = bestVm;
+        regionVms[bestRegion].assign(bestVm, cloudlet, now);
+        servedRequests[bestRegion]++;
+        if (users == bestRegion) {
+            localRequests[users]++;
+        }
+        putRoute(cloudlet.getId(), users * topology.size() + bestRegion);
+        return regionVms[bestRegion].get(bestVm);
+    }
+
+    private void putRoute(long id, int route) {
+        if (id < 0 || id >= MAX_ROUTES) {
+            throw new IllegalArgumentException("Cloudlet id out of range: " + id);
+        }
+        int index = (int) id;
+        if (index >= routes.length) {
+            long capacity = Math.max(index + 1L, routes.length * 2L);
+            routes = Arrays.copyOf(routes, (int) Math.min(MAX_ROUTES, capacity));
+        }
+        routes[index] = route + 1;
+    }
+
+    private int nextCreatedVm(int region) {
+        VmLoadEstimate vms = regionVms[region];
+        for (int i = 1; i <= vms.size(); i++) {
+            int v = (nextVm[region] + i) % vms.size();
+            if (vms.get(v).isCreated()) {
+                return v;
+            }
+        }
+        return -1;
+    }
+
+    private int sampleUsers() {
+        double u = random.nextDouble();
+        for (int r = 0; r < cumulativeShares.length - 1; r++) {
+            if (u < cumulativeShares[r]) {
+                return r;
+            }
+        }
+        return cumulativeShares.length - 1;
+    }
+}
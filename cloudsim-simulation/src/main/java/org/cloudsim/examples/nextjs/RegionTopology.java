@@ -0,0 +1,220 @@
+package org.cloudsim.examples.nextjs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Regions the app is deployed in, the share of users near each, their prices
+ * and the network between them.
+ *
+ * Regions are written name=share@priceFactor and separated by commas, the
+ * first being the primary region, for example
+ *
+ *   us-east=0.6@1.0,eu-west=0.4@1.12
+ *
+ * Shares are normalized; a region with share 0 only serves traffic from
+ * elsewhere. The price factor scales every datacenter price of the region and
+ * defaults to 1. Links between regions are written a/b=latencyMs@bandwidthMbps,
+ * one-way and symmetric, for example
+ *
+ *   us-east/eu-west=40@1000
+ *
+ * and pairs without a link use {@link #DEFAULT_LATENCY_MS} and
+ * {@link #DEFAULT_BANDWIDTH_MBPS}. Users reach the region they are in after
+ * {@link #ACCESS_LATENCY_MS} and any other region over the link from theirs.
+ */
+final class RegionTopology {
+
+    // One-way latency and bandwidth from users to the region they are in
+    static final double ACCESS_LATENCY_MS = 10;
+    static final double ACCESS_BANDWIDTH_MBPS = 100;
+
+    // Between regions without a declared link, roughly across a continent
+    static final double DEFAULT_LATENCY_MS = 70;
+    static final double DEFAULT_BANDWIDTH_MBPS = 1000;
+
+    private static final double BITS_PER_MEGABIT = 1_000_000.0;
+
+    /**
+     * One region and the users near it
+     */
+    static final class Region {
+        private final String name;
+        private final double share;
+        private final double priceFactor;
+
+        private Region(String name, double share, double priceFactor) {
+            this.name = name;
+            this.share = share;
+            this.priceFactor = priceFactor;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        /**
+         * Share of users in the region, 0-1 once the topology is built
+         */
+        double getShare() {
+            return share;
+        }
+
+        /**
+         * Multiplier of the primary price list for machines in the region
+         */
+        double getPriceFactor() {
+            return priceFactor;
+        }
+    }
+
+    private final List<Region> regions;
+    // One-way latency (ms) and bandwidth (Mbps) between regions, row-major
+    private final double[] latencyMs;
+    private final double[] bandwidthMbps;
+
+    private RegionTopology(List<Region> regions, double[] latencyMs, double[] bandwidthMbps) {
+        this.regions = Collections.unmodifiableList(new ArrayList<>(regions));
+        this.latencyMs = latencyMs;
+        this.bandwidthMbps = bandwidthMbps;
+    }
+
+    /**
+     * Parses regions and, optionally, the links between them
+     *
+     * @param links link descriptions, or null to use the defaults for every pair
+     * @throws IllegalArgumentException if a region or link is malformed, a link names an
+     *                                  unknown region or no region has users
+     */
+    static RegionTopology parse(String regions, String links) {
+        Builder builder = new Builder();
+        for (String entry : regions.split(",")) {
+            entry = entry.trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+            int equals = entry.indexOf('=');
+            int at = entry.indexOf('@');
+            if (equals <= 0 || at >= 0 && at < equals) {
+                throw new IllegalArgumentException("Expected name=share@priceFactor but got '" + entry + "'");
+            }
+            try {
+                builder.addRegion(entry.substring(0, equals).trim(),
+                    Double.parseDouble(entry.substring(equals + 1, at > 0 ? at : entry.length()).trim()),
+                    at > 0 ? Double.parseDouble(entry.substring(at + 1).trim()) : 1.0);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid number in region '" + entry + "'");
+            }
+        }
+
+        if (links != null) {
+            for (String entry : links.split(",")) {
+                entry = entry.trim();
+                if (entry.isEmpty()) {
+                    continue;
+                }
+                int slash = entry.indexOf('/');
+                int equals = entry.indexOf('=');
+                int at = entry.indexOf('@');
+                if (slash <= 0 || equals < slash || at < equals) {
+                    throw new IllegalArgumentException("Expected a/b=latencyMs@bandwidthMbps but got '" +
+                        entry + "'");
+                }
+                try {
+                    builder.addLink(entry.substring(0, slash).trim(), entry.substring(slash + 1, equals).trim(),
+                        Double.parseDouble(entry.substring(equals + 1, at).trim()),
+                        Double.parseDouble(entry.substring(at + 1).trim()));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid number in link '" + entry + "'");
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    List<Region> getRegions() {
+        return regions;
+    }
+
+    int size() {
+        return regions.size();
+    }
+
+    /**
+     * Seconds for a request from users in one region to reach a server in another and
+     * the response to come back, carrying the given bytes each way
+     */
+    double networkSeconds(int users, int server, long requestBytes, long responseBytes) {
+        double latency = ACCESS_LATENCY_MS;
+        double bandwidth = ACCESS_BANDWIDTH_MBPS;
+        if (users != server) {
+            latency += latencyMs[users * size() + server];
+            bandwidth = Math.min(bandwidth, bandwidthMbps[users * size() + server]);
+        }
+        return 2 * latency / 1000.0 + (requestBytes + responseBytes) * 8 / (bandwidth * BITS_PER_MEGABIT);
+    }
+
+    static final class Builder {
+        private final List<String> names = new ArrayList<>();
+        private final List<double[]> specs = new ArrayList<>();
+        private final List<String[]> linkEnds = new ArrayList<>();
+        private final List<double[]> linkSpecs = new ArrayList<>();
+
+        Builder addRegion(String name, double share, double priceFactor) {
+            if (name.isEmpty() || share < 0 || priceFactor <= 0) {
+                throw new IllegalArgumentException("Invalid region " + name);
+            }
+            if (names.contains(name)) {
+                throw new IllegalArgumentException("Region " + name + " is declared twice");
+            }
+            names.add(name);
+            specs.add(new double[]{share, priceFactor});
+            return this;
+        }
+
+        /**
+         * Adds a symmetric link with one-way latency between two regions already added
+         */
+        Builder addLink(String a, String b, double latencyMs, double bandwidthMbps) {
+            if (latencyMs < 0 || bandwidthMbps <= 0) {
+                throw new IllegalArgumentException("Invalid link " + a + "/" + b);
+            }
+            linkEnds.add(new String[]{a, b});
+            linkSpecs.add(new double[]{latencyMs, bandwidthMbps});
+            return this;
+        }
+
+        RegionTopology build() {
+            double totalShare = 0;
+            for (double[] spec : specs) {
+                totalShare += spec[0];
+            }
+            if (totalShare <= 0) {
+                throw new IllegalArgumentException("No region has users");
+            }
+
+            int n = names.size();
+            List<Region> regions = new ArrayList<>(n);
+            for (int r = 0; r < n; r++) {
+                regions.add(new Region(names.get(r), specs.get(r)[0] / totalShare, specs.get(r)[1]));
+            }
+            double[] latency = new double[n * n];
+            double[] bandwidth = new double[n * n];
+            Arrays.fill(latency, DEFAULT_LATENCY_MS);
+            Arrays.fill(bandwidth, DEFAULT_BANDWIDTH_MBPS);
+            for (int l = 0; l < linkEnds.size(); l++) {
+                int a = names.indexOf(linkEnds.get(l)[0]);
+                int b = names.indexOf(linkEnds.get(l)[1]);
+                if (a < 0 || b < 0) {
+                    throw new IllegalArgumentException("Link " + linkEnds.get(l)[0] + "/" +
+                        linkEnds.get(l)[1] + " names an unknown region");
+                }
+                latency[a * n + b] = latency[b * n + a] = linkSpecs.get(l)[0];
+                bandwidth[a * n + b] = bandwidth[b * n + a] = linkSpecs.get(l)[1];
+            }
+            return new RegionTopology(regions, latency, bandwidth);
+        }
+    }
+}
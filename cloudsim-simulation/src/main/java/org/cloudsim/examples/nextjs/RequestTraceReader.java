@@ -0,0 +1,100 @@
+package org.cloudsim.examples.nextjs;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Streaming reader for the per-request trace written by the Next.js monitor.
+ *
+ * Each line is {@code timestamp,latencyMs,status,route}, with the route last
+ * so it may itself contain commas. Records are read one at a time into the
+ * reader's own fields, so a trace of any length is consumed in constant
+ * memory. Malformed lines and an optional header line are skipped.
+ */
+final class RequestTraceReader implements Closeable {
+
+    private final BufferedReader reader;
+
+    private long timestamp;
+    private double latencyMillis;
+    private int status;
+    private String route;
+    private long malformedLines;
+
+    RequestTraceReader(Path traceFile) throws IOException {
+        this.reader = Files.newBufferedReader(traceFile, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Advances to the next record
+     *
+     * @return false at the end of the trace
+     */
+    boolean next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (parse(line)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean parse(String line) {
+        int first = line.indexOf(',');
+        int second = first < 0 ? -1 : line.indexOf(',', first + 1);
+        int third = second < 0 ? -1 : line.indexOf(',', second + 1);
+        if (third < 0) {
+            if (!line.trim().isEmpty()) {
+                malformedLines++;
+            }
+            return false;
+        }
+
+        try {
+            timestamp = Long.parseLong(line.substring(0, first).trim());
+            latencyMillis = Double.parseDouble(line.substring(first + 1, second).trim());
+            status = Integer.parseInt(line.substring(second + 1, third).trim());
+            route = line.substring(third + 1);
+            return true;
+        } catch (NumberFormatException e) {
+            // Header line or corrupted record
+            if (!line.startsWith("timestamp")) {
+                malformedLines++;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Arrival time of the current request in epoch milliseconds
+     */
+    long getTimestamp() {
+        return timestamp;
+    }
+
+    double getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    int getStatus() {
+        return status;
+    }
+
+    String getRoute() {
+        return route;
+    }
+
+    long getMalformedLines() {
+        return malformedLines;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
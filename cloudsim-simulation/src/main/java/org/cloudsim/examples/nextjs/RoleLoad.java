@@ -0,0 +1,160 @@
+package org.cloudsim.examples.nextjs;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.cloudlets.CloudletExecution;
+import org.cloudsimplus.vms.Vm;
+
+import java.util.Arrays;
+
+/**
+ * CPU utilization, overload history and request latency of one autoscaled role.
+ *
+ * The autoscaler samples utilization, each sample held until the next, and
+ * the samples are integrated over each evaluation window. Evaluating a window
+ * returns its time-averaged utilization and marks the window start as the
+ * beginning or end of an overload, so the finish time of every request can be
+ * attributed to the load the role was under when it arrived.
+ */
+final class RoleLoad {
+
+    private double windowStart;
+    private double utilizationSeconds;
+    private double lastUtilization;
+
+    private double breachStart = -1;
+    // Start and end of each overload, in pairs; an open one has no end yet
+    private double[] overloads = new double[8];
+    private int overloadBounds;
+
+    private final LatencyHistogram overloadedLatency = new LatencyHistogram();
+    private final LatencyHistogram steadyLatency = new LatencyHistogram();
+
+    /**
+     * Opens the first evaluation window
+     */
+    void start(double now) {
+        windowStart = now;
+    }
+
+    /**
+     * Holds a new utilization sample (0-1) until the next one
+     */
+    void sample(double utilization) {
+        lastUtilization = utilization;
+    }
+
+    /**
+     * Integrates the held sample over the seconds elapsed since the last tick
+     */
+    void advance(double elapsed) {
+        utilizationSeconds += lastUtilization * elapsed;
+    }
+
+    /**
+     * Closes the current evaluation window and records overload transitions
+     *
+     * @return the window's time-averaged utilization
+     */
+    double evaluate(double now, AutoscalingPolicy policy) {
+        double window = now - windowStart;
+        double utilization = window > 0 ? utilizationSeconds / window : lastUtilization;
+        double start = windowStart;
+        windowStart = now;
+        utilizationSeconds = 0;
+
+        boolean overloaded = policy.isOverloaded(utilization);
+        if (overloaded && breachStart < 0) {
+            breachStart = start;
+            addOverloadBound(start);
+        } else if (!overloaded && breachStart >= 0) {
+            breachStart = -1;
+            addOverloadBound(start);
+        }
+        return utilization;
+    }
+
+    /**
+     * Start of the window in which the current overload began, or -1 if the role keeps up
+     */
+    double getBreachStart() {
+        return breachStart;
+    }
+
+    /**
+     * Attributes the finish time of a finished cloudlet to the load at its arrival
+     */
+    void record(Cloudlet cloudlet) {
+        double finishTime = cloudlet.getFinishTime() - cloudlet.getDcArrivalTime();
+        if (wasOverloadedAt(cloudlet.getDcArrivalTime())) {
+            overloadedLatency.record(finishTime);
+        } else {
+            steadyLatency.record(finishTime);
+        }
+    }
+
+    /**
+     * Seconds the role spent overloaded
+     */
+    double getOverloadedSeconds(double now) {
+        double seconds = 0;
+        for (int i = 0; i < overloadBounds; i += 2) {
+            double end = i + 1 < overloadBounds ? overloads[i + 1] : now;
+            seconds += end - overloads[i];
+        }
+        return seconds;
+    }
+
+    LatencyHistogram getOverloadedLatency() {
+        return overloadedLatency;
+    }
+
+    LatencyHistogram getSteadyLatency() {
+        return steadyLatency;
+    }
+
+    /**
+     * Share of the VM's PEs requested by its running cloudlets. Every request uses its PEs
+     * fully, so this equals the scheduler's CPU utilization, which CloudSim Plus computes in
+     * time quadratic in the number of running cloudlets.
+     */
+    static double cpuUtilization(Vm vm) {
+        return Math.min(1.0, requestedPes(vm) / (double) vm.getPesNumber());
+    }
+
+    /**
+     * PEs requested by the VM's running cloudlets, which may exceed the PEs it has
+     */
+    static long requestedPes(Vm vm) {
+        long requestedPes = 0;
+        for (CloudletExecution execution : vm.getCloudletScheduler().getCloudletExecList()) {
+            requestedPes += execution.getCloudlet().getPesNumber();
+        }
+        return requestedPes;
+    }
+
+    private boolean wasOverloadedAt(double time) {
+        // Overloads are recorded in time order
+        int lo = 0;
+        int hi = overloadBounds / 2 + overloadBounds % 2 - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            double start = overloads[2 * mid];
+            double end = 2 * mid + 1 < overloadBounds ? overloads[2 * mid + 1] : Double.POSITIVE_INFINITY;
+            if (time < start) {
+                hi = mid - 1;
+            } else if (time >= end) {
+                lo = mid + 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void addOverloadBound(double time) {
+        if (overloadBounds == overloads.length) {
+            overloads = Arrays.copyOf(overloads, overloads.length * 2);
+        }
+        overloads[overloadBounds++] = time;
+    }
+}
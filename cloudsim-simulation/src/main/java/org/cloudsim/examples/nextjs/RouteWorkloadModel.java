@@ -0,0 +1,303 @@
+package org.cloudsim.examples.nextjs;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Request mix of the app at route level, built from the per-route request
+ * counts the monitor writes under "routes".
+ *
+ * Every route is a workload class of its own, weighted by its share of the
+ * recorded traffic, with the mean service time its requests are drawn
+ * around, their PEs and their request and response sizes. The monitor only
+ * counts requests per route, so each route starts from the values of the
+ * workload type its path maps to, see {@link TraceArrivalSource#classify}.
+ * The monitor does not see static files or optimized images, so static
+ * assets and image processing without any recorded route are each added as
+ * one placeholder route holding their default share of
+ * {@link GeneratedArrivalSource#DEFAULT_WORKLOAD_MIX}.
+ *
+ * Without recorded routes, a mix of workload types is modeled as one route
+ * per type, so generated arrivals always draw from a route model.
+ *
+ * Routes are interned to dense ids when the model is built, with query
+ * strings dropped so /api/users?page=2 counts as /api/users, and every
+ * attribute is a primitive array indexed by id. Thousands of routes thus
+ * cost a handful of arrays, and drawing the route of a request is constant
+ * time through an {@link AliasSampler}. The model is immutable, so one model
+ * can feed any number of sources, and rebuilding it is only worth its linear
+ * cost when the shares have moved, see {@link #fromMetrics(MetricsSnapshot, RouteWorkloadModel)}.
+ */
+final class RouteWorkloadModel {
+
+    // Route standing for each workload type, in GeneratedArrivalSource.WORKLOAD_TYPES order
+    private static final String[] TYPE_ROUTES = {"/*", "/api/*", "/_next/static/*", "/_next/image"};
+    // Largest change in a route's share, 0-1, that keeps the previous model
+    private static final double SHARE_TOLERANCE = 0.001;
+
+    private final String[] routes;
+    private final Map<String, Integer> ids;
+    private final byte[] types;
+    private final double[] shares;
+    private final double[] meanServiceMillis;
+    private final int[] pesNumbers;
+    private final long[] requestBytes;
+    private final long[] responseBytes;
+    private final AliasSampler sampler;
+
+    private RouteWorkloadModel(Builder builder) {
+        int n = builder.count;
+        routes = Arrays.copyOf(builder.routes, n);
+        ids = new HashMap<>(builder.ids);
+        types = new byte[n];
+        shares = new double[n];
+        meanServiceMillis = new double[n];
+        pesNumbers = new int[n];
+        requestBytes = new long[n];
+        responseBytes = new long[n];
+
+        double total = 0;
+        for (int r = 0; r < n; r++) {
+            total += builder.weights[r];
+        }
+        for (int r = 0; r < n; r++) {
+            WorkloadType type = TraceArrivalSource.classify(routes[r]);
+            types[r] = (byte) type.ordinal();
+            shares[r] = builder.weights[r] / total;
+            meanServiceMillis[r] = GeneratedArrivalSource.meanServiceMillis(type);
+            pesNumbers[r] = type.getPesNumber();
+            requestBytes[r] = type.getRequestBytes();
+            responseBytes[r] = type.getResponseBytes();
+        }
+        sampler = new AliasSampler(shares);
+    }
+
+    /**
+     * Model of the routes in a metrics snapshot
+     *
+     * @return null if no route has recorded requests
+     */
+    static RouteWorkloadModel fromMetrics(MetricsSnapshot metrics) {
+        return fromMetrics(metrics, null);
+    }
+
+    /**
+     * Model of the routes in a metrics snapshot, or the previous model if it has the same
+     * routes and none of their shares moved by more than a tenth of a percentage point
+     *
+     * @param previous model of an earlier snapshot, may be null
+     * @return null if no route has recorded requests
+     */
+    static RouteWorkloadModel fromMetrics(MetricsSnapshot metrics, RouteWorkloadModel previous) {
+        Builder builder = new Builder();
+        for (int i = 0; i < metrics.getRouteCount(); i++) {
+            builder.addRoute(metrics.getRouteName(i), metrics.getRouteRequests(i));
+        }
+        if (builder.isEmpty()) {
+            return null;
+        }
+
+        // Recorded requests stand for the default share of application code and of the other
+        // types they cover
+        double[] mix = GeneratedArrivalSource.DEFAULT_WORKLOAD_MIX;
+        boolean[] recorded = new boolean[mix.length];
+        double recordedWeight = 0;
+        for (int r = 0; r < builder.count; r++) {
+            recorded[TraceArrivalSource.classify(builder.routes[r]).ordinal()] = true;
+            recordedWeight += builder.weights[r];
+        }
+        double recordedShare = 0;
+        for (int t = 0; t < mix.length; t++) {
+            if (recorded[t] || WorkloadType.fromOrdinal(t).isApplicationCode()) {
+                recordedShare += mix[t];
+            }
+        }
+        for (int t = 0; t < mix.length; t++) {
+            if (!recorded[t] && !WorkloadType.fromOrdinal(t).isApplicationCode()) {
+                builder.addRoute(TYPE_ROUTES[t], recordedWeight * mix[t] / recordedShare);
+            }
+        }
+        return builder.buildOrReuse(previous);
+    }
+
+    /**
+     * Model with one route per workload type
+     *
+     * @param workloadMix relative weight of each entry of {@link GeneratedArrivalSource#WORKLOAD_TYPES}
+     * @throws IllegalArgumentException if the mix has the wrong length or no positive weight
+     */
+    static RouteWorkloadModel fromMix(double[] workloadMix) {
+        return fromMix(workloadMix, null);
+    }
+
+    /**
+     * Model with one route per workload type, or the previous model if it has the same
+     * routes and none of their shares moved by more than a tenth of a percentage point
+     *
+     * @param previous model of an earlier mix, may be null
+     * @throws IllegalArgumentException if the mix has the wrong length or no positive weight
+     */
+    static RouteWorkloadModel fromMix(double[] workloadMix, RouteWorkloadModel previous) {
+        if (workloadMix.length != TYPE_ROUTES.length) {
+            throw new IllegalArgumentException("Expected " + TYPE_ROUTES.length + " workload weights");
+        }
+        Builder builder = new Builder();
+        for (int t = 0; t < workloadMix.length; t++) {
+            builder.addRoute(TYPE_ROUTES[t], workloadMix[t]);
+        }
+        if (builder.isEmpty()) {
+            throw new IllegalArgumentException("Workload mix has no positive weight");
+        }
+        return builder.buildOrReuse(previous);
+    }
+
+    int size() {
+        return routes.length;
+    }
+
+    String getRoute(int id) {
+        return routes[id];
+    }
+
+    /**
+     * Id of the route, ignoring any query string, or -1 if the model has no such route
+     */
+    int getId(String route) {
+        Integer id = ids.get(Builder.normalize(route));
+        return id != null ? id : -1;
+    }
+
+    WorkloadType getType(int id) {
+        return WorkloadType.fromOrdinal(types[id]);
+    }
+
+    /**
+     * Share of requests that go to the route, 0-1
+     */
+    double getShare(int id) {
+        return shares[id];
+    }
+
+    /**
+     * Mean service time of the route's requests on the reference VM
+     */
+    double getMeanServiceMillis(int id) {
+        return meanServiceMillis[id];
+    }
+
+    int getPesNumber(int id) {
+        return pesNumbers[id];
+    }
+
+    long getRequestBytes(int id) {
+        return requestBytes[id];
+    }
+
+    long getResponseBytes(int id) {
+        return responseBytes[id];
+    }
+
+    /**
+     * Id of a route drawn in proportion to its share of requests
+     */
+    int sample(SplittableRandom random) {
+        return sampler.sample(random);
+    }
+
+    /**
+     * Ids of the routes with the largest shares, largest first
+     */
+    int[] topRoutes(int limit) {
+        Integer[] order = new Integer[routes.length];
+        for (int r = 0; r < order.length; r++) {
+            order[r] = r;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(shares[b], shares[a]));
+        int[] top = new int[Math.min(limit, order.length)];
+        for (int i = 0; i < top.length; i++) {
+            top[i] = order[i];
+        }
+        return top;
+    }
+
+    static final class Builder {
+        private String[] routes = new String[16];
+        private double[] weights = new double[16];
+        private int count;
+        private final Map<String, Integer> ids = new HashMap<>();
+
+        /**
+         * Adds requests to a route, merging routes that only differ in their query string
+         *
+         * @param requests relative weight of the route; routes without requests are left out
+         */
+        Builder addRoute(String route, double requests) {
+            if (!(requests > 0)) {
+                return this;
+            }
+            String name = normalize(route);
+            Integer id = ids.get(name);
+            if (id == null) {
+                if (count == routes.length) {
+                    routes = Arrays.copyOf(routes, count * 2);
+                    weights = Arrays.copyOf(weights, count * 2);
+                }
+                id = count++;
+                routes[id] = name;
+                ids.put(name, id);
+            }
+            weights[id] += requests;
+            return this;
+        }
+
+        boolean isEmpty() {
+            return count == 0;
+        }
+
+        /**
+         * @throws IllegalArgumentException if no route has requests
+         */
+        RouteWorkloadModel build() {
+            if (count == 0) {
+                throw new IllegalArgumentException("No route has requests");
+            }
+            return new RouteWorkloadModel(this);
+        }
+
+        /**
+         * The previous model if it has the same routes at shares within {@link #SHARE_TOLERANCE},
+         * a new one otherwise
+         */
+        RouteWorkloadModel buildOrReuse(RouteWorkloadModel previous) {
+            if (previous == null || previous.size() != count) {
+                return build();
+            }
+            double total = 0;
+            for (int r = 0; r < count; r++) {
+                total += weights[r];
+            }
+            for (int r = 0; r < count; r++) {
+                Integer id = previous.ids.get(routes[r]);
+                if (id == null || Math.abs(weights[r] / total - previous.shares[id]) > SHARE_TOLERANCE) {
+                    return build();
+                }
+            }
+            return previous;
+        }
+
+        private static String normalize(String route) {
+            int end = route.length();
+            int query = route.indexOf('?');
+            if (query >= 0) {
+                end = query;
+            }
+            int fragment = route.indexOf('#');
+            if (fragment >= 0 && fragment < end) {
+                end = fragment;
+            }
+            return end == route.length() ? route : route.substring(0, end);
+        }
+    }
+}
@@ -0,0 +1,427 @@
+package org.cloudsim.examples.nextjs;
+
+import org.cloudsimplus.allocationpolicies.VmAllocationPolicy;
+import org.cloudsimplus.brokers.DatacenterBroker;
+import org.cloudsimplus.brokers.DatacenterBrokerSimple;
+import org.cloudsimplus.core.CloudSimPlus;
+import org.cloudsimplus.datacenters.Datacenter;
+import org.cloudsimplus.datacenters.DatacenterSimple;
+import org.cloudsimplus.hosts.Host;
+import org.cloudsimplus.hosts.HostSimple;
+import org.cloudsimplus.resources.Pe;
+import org.cloudsimplus.resources.PeSimple;
+import org.cloudsimplus.schedulers.cloudlet.CloudletSchedulerTimeShared;
+import org.cloudsimplus.schedulers.vm.VmSchedulerTimeShared;
+import org.cloudsimplus.vms.Vm;
+import org.cloudsimplus.vms.VmSimple;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable description of one or more datacenters, their hosts and the VMs
+ * submitted to them, compiled once and instantiated into any number of
+ * simulations.
+ *
+ * Host and VM specs are kept in flat primitive arrays, so instantiating a
+ * scenario is a single pass that only allocates the simulation objects
+ * themselves. Hosts are stored as groups of identical machines, one entry
+ * per group however many hosts it stands for. Simulation objects cannot be
+ * pooled or shared: hosts, PEs and VMs carry placement and scheduling state
+ * that belongs to one {@link CloudSimPlus} instance, and every PE has its own
+ * provisioner. Sweeps, Monte Carlo replicas and the digital twin compile a
+ * template per configuration and reuse it for every run.
+ *
+ * A template with lazy hosts starts its datacenter empty and creates each
+ * host, with its PEs, only when a VM is placed on it, see
+ * {@link LazyHostAllocationPolicy}. Large fleets then cost memory and setup
+ * time in proportion to the hosts in use, not the hosts declared.
+ *
+ * Each datacenter has its own prices, so a template can describe a
+ * deployment across several regions. A single broker serves all of them and
+ * creates every VM in the datacenter it was declared for.
+ */
+final class ScenarioTemplate {
+
+    // Host specs, one entry per group of identical hosts
+    private final int[] hostDatacenter;
+    private final int[] hostCounts;
+    private final int[] hostPes;
+    private final long[] hostMips;
+    private final long[] hostRam;
+    private final long[] hostBw;
+    private final long[] hostStorage;
+
+    // VM specs, one entry per VM, in submission order
+    private final int[] vmDatacenter;
+    private final long[] vmMips;
+    private final int[] vmPes;
+    private final long[] vmRam;
+    private final long[] vmBw;
+    private final long[] vmSize;
+
+    // Prices and host creation, one entry per datacenter
+    private final double[] costPerSecond;
+    private final double[] costPerMem;
+    private final double[] costPerStorage;
+    private final double[] costPerBw;
+    private final boolean[] lazyHosts;
+
+    /**
+     * Objects created for one simulation
+     */
+    static final class Instance {
+        private final List<Datacenter> datacenters;
+        private final DatacenterBroker broker;
+        private final List<Vm> vms;
+
+        private Instance(List<Datacenter> datacenters, DatacenterBroker broker, List<Vm> vms) {
+            this.datacenters = datacenters;
+            this.broker = broker;
+            this.vms = vms;
+        }
+
+        /**
+         * The first datacenter, the only one of a single-datacenter scenario
+         */
+        Datacenter getDatacenter() {
+            return datacenters.get(0);
+        }
+
+        /**
+         * Datacenters in template order
+         */
+        List<Datacenter> getDatacenters() {
+            return datacenters;
+        }
+
+        DatacenterBroker getBroker() {
+            return broker;
+        }
+
+        /**
+         * VMs in template order, already submitted to the broker
+         */
+        List<Vm> getVms() {
+            return vms;
+        }
+    }
+
+    private ScenarioTemplate(Builder builder) {
+        hostDatacenter = Arrays.copyOf(builder.hostDatacenter, builder.hostGroups);
+        hostCounts = Arrays.copyOf(builder.hostCounts, builder.hostGroups);
+        hostPes = Arrays.copyOf(builder.hostPes, builder.hostGroups);
+        hostMips = Arrays.copyOf(builder.hostMips, builder.hostGroups);
+        hostRam = Arrays.copyOf(builder.hostRam, builder.hostGroups);
+        hostBw = Arrays.copyOf(builder.hostBw, builder.hostGroups);
+        hostStorage = Arrays.copyOf(builder.hostStorage, builder.hostGroups);
+        vmDatacenter = Arrays.copyOf(builder.vmDatacenter, builder.vms);
+        vmMips = Arrays.copyOf(builder.vmMips, builder.vms);
+        vmPes = Arrays.copyOf(builder.vmPes, builder.vms);
+        vmRam = Arrays.copyOf(builder.vmRam, builder.vms);
+        vmBw = Arrays.copyOf(builder.vmBw, builder.vms);
+        vmSize = Arrays.copyOf(builder.vmSize, builder.vms);
+        costPerSecond = Arrays.copyOf(builder.costPerSecond, builder.datacenters);
+        costPerMem = Arrays.copyOf(builder.costPerMem, builder.datacenters);
+        costPerStorage = Arrays.copyOf(builder.costPerStorage, builder.datacenters);
+        costPerBw = Arrays.copyOf(builder.costPerBw, builder.datacenters);
+        lazyHosts = Arrays.copyOf(builder.lazyHosts, builder.datacenters);
+    }
+
+    /**
+     * Creates the datacenters, a broker and the VMs in the given simulation and submits the VMs
+     */
+    Instance instantiate(CloudSimPlus simulation) {
+        List<Datacenter> datacenterList = new ArrayList<>(costPerSecond.length);
+        for (int d = 0; d < costPerSecond.length; d++) {
+            datacenterList.add(createDatacenter(simulation, d));
+        }
+
+        DatacenterBroker broker = new DatacenterBrokerSimple(simulation);
+        List<Vm> vmList = new ArrayList<>(vmMips.length);
+        for (int v = 0; v < vmMips.length; v++) {
+            vmList.add(new VmSimple(vmMips[v], vmPes[v])
+                .setRam(vmRam[v])
+                .setBw(vmBw[v])
+                .setSize(vmSize[v])
+                .setCloudletScheduler(new CloudletSchedulerTimeShared()));
+        }
+        if (datacenterList.size() > 1) {
+            Map<Vm, Datacenter> placement = new IdentityHashMap<>(vmList.size());
+            for (int v = 0; v < vmList.size(); v++) {
+                placement.put(vmList.get(v), datacenterList.get(vmDatacenter[v]));
+            }
+            // The broker tries a VM only once in each datacenter, so a VM that does not fit
+            // its own is not created elsewhere; VMs added later go to the first one
+            Datacenter first = datacenterList.get(0);
+            broker.setDatacenterMapper((last, vm) -> placement.getOrDefault(vm, first));
+        }
+        broker.submitVmList(vmList);
+        return new Instance(Collections.unmodifiableList(datacenterList), broker,
+            Collections.unmodifiableList(vmList));
+    }
+
+    private Datacenter createDatacenter(CloudSimPlus simulation, int d) {
+        int groups = 0;
+        for (int datacenter : hostDatacenter) {
+            if (datacenter == d) {
+                groups++;
+            }
+        }
+        int[] counts = new int[groups];
+        int[] pes = new int[groups];
+        long[] mips = new long[groups];
+        long[] ram = new long[groups];
+        long[] bw = new long[groups];
+        long[] storage = new long[groups];
+        int hosts = 0;
+        for (int g = 0, i = 0; g < hostDatacenter.length; g++) {
+            if (hostDatacenter[g] == d) {
+                counts[i] = hostCounts[g];
+                pes[i] = hostPes[g];
+                mips[i] = hostMips[g];
+                ram[i] = hostRam[g];
+                bw[i] = hostBw[g];
+                storage[i] = hostStorage[g];
+                hosts += counts[i++];
+            }
+        }
+
+        Datacenter datacenter;
+        if (lazyHosts[d]) {
+            VmAllocationPolicy allocationPolicy = new LazyHostAllocationPolicy(counts, pes, mips, ram, bw, storage);
+            datacenter = new DatacenterSimple(simulation, new ArrayList<>(), allocationPolicy);
+        } else {
+            List<Host> hostList = new ArrayList<>(hosts);
+            for (int g = 0; g < groups; g++) {
+                for (int h = 0; h < counts[g]; h++) {
+                    hostList.add(createHost(pes[g], mips[g], ram[g], bw[g], storage[g]));
+                }
+            }
+            datacenter = new DatacenterSimple(simulation, hostList);
+        }
+        datacenter.getCharacteristics()
+            .setCostPerSecond(costPerSecond[d])
+            .setCostPerMem(costPerMem[d])
+            .setCostPerStorage(costPerStorage[d])
+            .setCostPerBw(costPerBw[d]);
+        return datacenter;
+    }
+
+    /**
+     * Copy of this template with only its first datacenters and their hosts and VMs
+     */
+    ScenarioTemplate firstDatacenters(int count) {
+        Builder builder = new Builder();
+        for (int d = 0; d < Math.min(count, costPerSecond.length); d++) {
+            builder.datacenter(d)
+                .setCosts(costPerSecond[d], costPerMem[d], costPerStorage[d], costPerBw[d])
+                .setLazyHosts(lazyHosts[d]);
+        }
+        for (int g = 0; g < hostDatacenter.length; g++) {
+            if (hostDatacenter[g] < count) {
+                builder.datacenter(hostDatacenter[g])
+                    .addHosts(hostCounts[g], hostPes[g], hostMips[g], hostRam[g], hostBw[g], hostStorage[g]);
+            }
+        }
+        for (int v = 0; v < vmDatacenter.length; v++) {
+            if (vmDatacenter[v] < count) {
+                builder.datacenter(vmDatacenter[v]).addVms(1, vmMips[v], vmPes[v], vmRam[v], vmBw[v], vmSize[v]);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Host with a time-shared VM scheduler and its own PEs
+     */
+    static Host createHost(int pes, long mips, long ramMb, long bw, long storage) {
+        List<Pe> peList = new ArrayList<>(pes);
+        for (int p = 0; p < pes; p++) {
+            peList.add(new PeSimple(mips));
+        }
+        return new HostSimple(ramMb, bw, storage, peList).setVmScheduler(new VmSchedulerTimeShared());
+    }
+
+    /**
+     * Hosts declared, whether or not a lazy datacenter ends up creating them
+     */
+    int getHostCount() {
+        int hosts = 0;
+        for (int count : hostCounts) {
+            hosts += count;
+        }
+        return hosts;
+    }
+
+    int getVmCount() {
+        return vmMips.length;
+    }
+
+    int getDatacenterCount() {
+        return costPerSecond.length;
+    }
+
+    /**
+     * Datacenter the VM at the given submission index is created in
+     */
+    int getVmDatacenter(int vm) {
+        return vmDatacenter[vm];
+    }
+
+    long getTotalHostPes() {
+        long pes = 0;
+        for (int g = 0; g < hostPes.length; g++) {
+            pes += (long) hostCounts[g] * hostPes[g];
+        }
+        return pes;
+    }
+
+    long getTotalHostRam() {
+        long ram = 0;
+        for (int g = 0; g < hostRam.length; g++) {
+            ram += hostCounts[g] * hostRam[g];
+        }
+        return ram;
+    }
+
+    boolean hasLazyHosts() {
+        for (boolean lazy : lazyHosts) {
+            if (lazy) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Hosts, VMs, prices and host creation apply to the datacenter last selected, the first by default
+     */
+    static final class Builder {
+        private int[] hostDatacenter = new int[8];
+        private int[] hostCounts = new int[8];
+        private int[] hostPes = new int[8];
+        private long[] hostMips = new long[8];
+        private long[] hostRam = new long[8];
+        private long[] hostBw = new long[8];
+        private long[] hostStorage = new long[8];
+        private int hostGroups;
+
+        private int[] vmDatacenter = new int[8];
+        private long[] vmMips = new long[8];
+        private int[] vmPes = new int[8];
+        private long[] vmRam = new long[8];
+        private long[] vmBw = new long[8];
+        private long[] vmSize = new long[8];
+        private int vms;
+
+        private double[] costPerSecond = new double[1];
+        private double[] costPerMem = new double[1];
+        private double[] costPerStorage = new double[1];
+        private double[] costPerBw = new double[1];
+        private boolean[] lazyHosts = new boolean[1];
+        private int datacenters = 1;
+        private int datacenter;
+
+        /**
+         * Selects the datacenter that following calls apply to, adding datacenters up to it
+         */
+        Builder datacenter(int index) {
+            if (index >= datacenters) {
+                datacenters = index + 1;
+                costPerSecond = Arrays.copyOf(costPerSecond, datacenters);
+                costPerMem = Arrays.copyOf(costPerMem, datacenters);
+                costPerStorage = Arrays.copyOf(costPerStorage, datacenters);
+                costPerBw = Arrays.copyOf(costPerBw, datacenters);
+                lazyHosts = Arrays.copyOf(lazyHosts, datacenters);
+            }
+            datacenter = index;
+            return this;
+        }
+
+        /**
+         * Adds a group of count identical hosts, each with a time-shared VM scheduler
+         */
+        Builder addHosts(int count, int pes, long mips, long ramMb, long bw, long storage) {
+            if (count <= 0) {
+                return this;
+            }
+            ensureHostCapacity(hostGroups + 1);
+            hostDatacenter[hostGroups] = datacenter;
+            hostCounts[hostGroups] = count;
+            hostPes[hostGroups] = pes;
+            hostMips[hostGroups] = mips;
+            hostRam[hostGroups] = ramMb;
+            hostBw[hostGroups] = bw;
+            hostStorage[hostGroups] = storage;
+            hostGroups++;
+            return this;
+        }
+
+        /**
+         * Creates hosts only when VMs are placed on them instead of all up front
+         */
+        Builder setLazyHosts(boolean lazyHosts) {
+            this.lazyHosts[datacenter] = lazyHosts;
+            return this;
+        }
+
+        /**
+         * Adds count identical VMs, each with a time-shared cloudlet scheduler
+         */
+        Builder addVms(int count, long mips, int pes, long ramMb, long bw, long size) {
+            ensureVmCapacity(vms + count);
+            for (int i = 0; i < count; i++) {
+                vmDatacenter[vms] = datacenter;
+                vmMips[vms] = mips;
+                vmPes[vms] = pes;
+                vmRam[vms] = ramMb;
+                vmBw[vms] = bw;
+                vmSize[vms] = size;
+                vms++;
+            }
+            return this;
+        }
+
+        Builder setCosts(double perSecond, double perMem, double perStorage, double perBw) {
+            costPerSecond[datacenter] = perSecond;
+            costPerMem[datacenter] = perMem;
+            costPerStorage[datacenter] = perStorage;
+            costPerBw[datacenter] = perBw;
+            return this;
+        }
+
+        ScenarioTemplate build() {
+            return new ScenarioTemplate(this);
+        }
+
+        private void ensureHostCapacity(int capacity) {
+            if (capacity > hostPes.length) {
+                int length = Math.max(capacity, hostPes.length * 2);
+                hostDatacenter = Arrays.copyOf(hostDatacenter, length);
+                hostCounts = Arrays.copyOf(hostCounts, length);
+                hostPes = Arrays.copyOf(hostPes, length);
+                hostMips = Arrays.copyOf(hostMips, length);
+                hostRam = Arrays.copyOf(hostRam, length);
+                hostBw = Arrays.copyOf(hostBw, length);
+                hostStorage = Arrays.copyOf(hostStorage, length);
+            }
+        }
+
+        private void ensureVmCapacity(int capacity) {
+            if (capacity > vmMips.length) {
+                int length = Math.max(capacity, vmMips.length * 2);
+                vmDatacenter = Arrays.copyOf(vmDatacenter, length);
+                vmMips = Arrays.copyOf(vmMips, length);
+                vmPes = Arrays.copyOf(vmPes, length);
+                vmRam = Arrays.copyOf(vmRam, length);
+                vmBw = Arrays.copyOf(vmBw, length);
+                vmSize = Arrays.copyOf(vmSize, length);
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package org.cloudsim.examples.nextjs;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+
+/**
+ * Execution results of the cloudlets returned by one simulation, built in
+ * a single pass and shared by every report.
+ *
+ * Totals are primitive arrays indexed by {@link WorkloadType} ordinal, so
+ * recording a cloudlet neither allocates nor boxes. Cloudlets are recorded as
+ * they are returned to the broker, whether they are released during the run
+ * or read from the broker's finished list at the end.
+ *
+ * Alongside the totals, each workload type has {@link LatencyHistogram}s of
+ * execution time, wait time (arrival to start) and finish time (arrival to
+ * finish) for tail percentiles. Aggregators of independent runs can be merged.
+ */
+final class SimulationResultAggregator {
+
+    private final long[] counts = new long[WorkloadType.count()];
+    private final double[] sums = new double[WorkloadType.count()];
+    private final double[] maxima = new double[WorkloadType.count()];
+    private final LatencyHistogram[] executionTimes = histograms();
+    private final LatencyHistogram[] waitTimes = histograms();
+    private final LatencyHistogram[] finishTimes = histograms();
+    private final LatencyHistogram allFinishTimes = new LatencyHistogram();
+
+    private long returned;
+    private long finished;
+    private double totalExecutionTime;
+
+    private static LatencyHistogram[] histograms() {
+        LatencyHistogram[] histograms = new LatencyHistogram[WorkloadType.count()];
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+        return histograms;
+    }
+
+    /**
+     * Records a cloudlet returned to the broker; only finished ones add execution time
+     *
+     * @param type workload type of the cloudlet, or null if it is not known
+     */
+    void record(Cloudlet cloudlet, WorkloadType type) {
+        returned++;
+        if (!cloudlet.isFinished()) {
+            return;
+        }
+        double execTime = cloudlet.getTotalExecutionTime();
+        double finishTime = cloudlet.getFinishTime() - cloudlet.getDcArrivalTime();
+        finished++;
+        totalExecutionTime += execTime;
+        allFinishTimes.record(finishTime);
+        if (type != null) {
+            int t = type.ordinal();
+            counts[t]++;
+            sums[t] += execTime;
+            maxima[t] = Math.max(maxima[t], execTime);
+            executionTimes[t].record(execTime);
+            waitTimes[t].record(cloudlet.getStartWaitTime());
+            finishTimes[t].record(finishTime);
+        }
+    }
+
+    /**
+     * Adds the results of another, independent run
+     */
+    void merge(SimulationResultAggregator other) {
+        returned += other.returned;
+        finished += other.finished;
+        totalExecutionTime += other.totalExecutionTime;
+        allFinishTimes.merge(other.allFinishTimes);
+        for (int t = 0; t < counts.length; t++) {
+            counts[t] += other.counts[t];
+            sums[t] += other.sums[t];
+            maxima[t] = Math.max(maxima[t], other.maxima[t]);
+            executionTimes[t].merge(other.executionTimes[t]);
+            waitTimes[t].merge(other.waitTimes[t]);
+            finishTimes[t].merge(other.finishTimes[t]);
+        }
+    }
+
+    long getReturnedCloudlets() {
+        return returned;
+    }
+
+    long getFinishedCloudlets() {
+        return finished;
+    }
+
+    /**
+     * Execution time of all finished cloudlets, in seconds
+     */
+    double getTotalExecutionTime() {
+        return totalExecutionTime;
+    }
+
+    double getMeanExecutionTime() {
+        return finished > 0 ? totalExecutionTime / finished : 0.0;
+    }
+
+    long getFinishedCloudlets(WorkloadType type) {
+        return counts[type.ordinal()];
+    }
+
+    double getTotalExecutionTime(WorkloadType type) {
+        return sums[type.ordinal()];
+    }
+
+    double getMeanExecutionTime(WorkloadType type) {
+        long count = counts[type.ordinal()];
+        return count > 0 ? sums[type.ordinal()] / count : 0.0;
+    }
+
+    double getMaxExecutionTime(WorkloadType type) {
+        return maxima[type.ordinal()];
+    }
+
+    LatencyHistogram getExecutionTimes(WorkloadType type) {
+        return executionTimes[type.ordinal()];
+    }
+
+    LatencyHistogram getWaitTimes(WorkloadType type) {
+        return waitTimes[type.ordinal()];
+    }
+
+    LatencyHistogram getFinishTimes(WorkloadType type) {
+        return finishTimes[type.ordinal()];
+    }
+
+    /**
+     * Finish times of all finished cloudlets, including those of unknown type
+     */
+    LatencyHistogram getFinishTimes() {
+        return allFinishTimes;
+    }
+}
@@ -0,0 +1,200 @@
+package org.cloudsim.examples.nextjs;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Arrivals read from a recorded request trace.
+ *
+ * Arrival times are offsets from the earliest request in the trace, service
+ * times are the recorded latencies and the workload type is derived from
+ * the request route once, as the record is read.
+ *
+ * The monitor writes a request when it finishes, so a slow request can follow
+ * faster ones that started after it. Records are read ahead into a min-heap on
+ * their timestamp and one is released only once a record more than the
+ * reorder window newer has been read, so arrivals come out in start order
+ * whenever no request was written more than the window late. The rare record
+ * later than that arrives with the request released before it and is counted
+ * in {@link #getLateRecords()}.
+ */
+final class TraceArrivalSource implements ArrivalSource, Closeable {
+
+    // Trace time by which a record may follow later-starting ones and still be replayed in order
+    static final long DEFAULT_REORDER_WINDOW_MILLIS = 60_000;
+
+    private final RequestTraceReader trace;
+    private final long reorderWindowMillis;
+
+    // Records read ahead of the current one, a binary min-heap on timestamp over parallel arrays
+    private long[] timestamps = new long[64];
+    private double[] latencies = new double[64];
+    private WorkloadType[] types = new WorkloadType[64];
+    private int buffered;
+    private long newestTimestamp = Long.MIN_VALUE;
+    private boolean traceEnded;
+
+    private long firstTimestamp = -1;
+    private long timestamp;
+    private double latencyMillis;
+    private WorkloadType workloadType;
+    private long lateRecords;
+
+    TraceArrivalSource(RequestTraceReader trace) {
+        this(trace, DEFAULT_REORDER_WINDOW_MILLIS);
+    }
+
+    /**
+     * @param reorderWindowMillis trace time by which a record may be written after
+     *                            later-starting ones and still be replayed in order
+     */
+    TraceArrivalSource(RequestTraceReader trace, long reorderWindowMillis) {
+        this.trace = trace;
+        this.reorderWindowMillis = reorderWindowMillis;
+    }
+
+    @Override
+    public boolean next() throws IOException {
+        // Read ahead until no unread record within the window could start before the earliest buffered one
+        while (!traceEnded && (buffered == 0 || newestTimestamp - timestamps[0] < reorderWindowMillis)) {
+            if (trace.next()) {
+                push(trace.getTimestamp(), trace.getLatencyMillis(), classify(trace.getRoute()));
+            } else {
+                traceEnded = true;
+            }
+        }
+        if (buffered == 0) {
+            return false;
+        }
+
+        long earliest = timestamps[0];
+        latencyMillis = latencies[0];
+        workloadType = types[0];
+        pop();
+        if (firstTimestamp < 0) {
+            firstTimestamp = earliest;
+            timestamp = earliest;
+        } else if (earliest < timestamp) {
+            // Written later than the window allows; keep arrivals in order
+            lateRecords++;
+        } else {
+            timestamp = earliest;
+        }
+        return true;
+    }
+
+    @Override
+    public double getArrivalTime() {
+        return (timestamp - firstTimestamp) / 1000.0;
+    }
+
+    @Override
+    public WorkloadType getWorkloadType() {
+        return workloadType;
+    }
+
+    @Override
+    public double getServiceMillis() {
+        return latencyMillis;
+    }
+
+    /**
+     * Records that followed later-starting ones by more than the reorder window,
+     * replayed at the arrival time of the request before them
+     */
+    long getLateRecords() {
+        return lateRecords;
+    }
+
+    /**
+     * Lines of the trace skipped as malformed so far
+     */
+    long getMalformedLines() {
+        return trace.getMalformedLines();
+    }
+
+    /**
+     * Closes the underlying trace
+     */
+    @Override
+    public void close() throws IOException {
+        trace.close();
+    }
+
+    private void push(long recordTimestamp, double latency, WorkloadType recordType) {
+        if (buffered == timestamps.length) {
+            timestamps = Arrays.copyOf(timestamps, buffered * 2);
+            latencies = Arrays.copyOf(latencies, buffered * 2);
+            types = Arrays.copyOf(types, buffered * 2);
+        }
+        newestTimestamp = Math.max(newestTimestamp, recordTimestamp);
+
+        int i = buffered++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (timestamps[parent] <= recordTimestamp) {
+                break;
+            }
+            move(parent, i);
+            i = parent;
+        }
+        timestamps[i] = recordTimestamp;
+        latencies[i] = latency;
+        types[i] = recordType;
+    }
+
+    private void pop() {
+        int last = --buffered;
+        long lastTimestamp = timestamps[last];
+        double lastLatency = latencies[last];
+        WorkloadType lastType = types[last];
+        if (last == 0) {
+            return;
+        }
+
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= last) {
+                break;
+            }
+            if (child + 1 < last && timestamps[child + 1] < timestamps[child]) {
+                child++;
+            }
+            if (timestamps[child] >= lastTimestamp) {
+                break;
+            }
+            move(child, i);
+            i = child;
+        }
+        timestamps[i] = lastTimestamp;
+        latencies[i] = lastLatency;
+        types[i] = lastType;
+    }
+
+    private void move(int from, int to) {
+        timestamps[to] = timestamps[from];
+        latencies[to] = latencies[from];
+        types[to] = types[from];
+    }
+
+    /**
+     * Maps a Next.js route to the workload type used by the analysis reports
+     */
+    static WorkloadType classify(String route) {
+        if (route.startsWith("/_next/image")) {
+            return WorkloadType.IMAGE_PROCESSING;
+        }
+        if (route.startsWith("/api/")) {
+            return WorkloadType.API_PROCESSING;
+        }
+        if (route.startsWith("/_next/static/") || route.startsWith("/static/")
+            || route.endsWith(".js") || route.endsWith(".css") || route.endsWith(".ico")
+            || route.endsWith(".png") || route.endsWith(".jpg") || route.endsWith(".svg")
+            || route.endsWith(".woff2")) {
+            return WorkloadType.STATIC_ASSETS;
+        }
+        return WorkloadType.PAGE_RENDERING;
+    }
+}
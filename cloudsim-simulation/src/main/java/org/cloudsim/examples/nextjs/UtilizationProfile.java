@@ -0,0 +1,33 @@
+package org.cloudsim.examples.nextjs;
+
+import org.cloudsimplus.utilizationmodels.UtilizationModelAbstract;
+
+/**
+ * Utilization that follows a precomputed table of levels over simulated time.
+ *
+ * The table covers consecutive steps of fixed length and repeats once the
+ * clock runs past its end, so evaluating the model is a division and an
+ * array read. Tables are shared and never written, see
+ * {@link WorkloadUtilizationProfiles}; each simulation gets models of its
+ * own because the broker binds a model to the first simulation it sees.
+ */
+final class UtilizationProfile extends UtilizationModelAbstract {
+
+    private final double[] levels;
+    private final double stepSeconds;
+
+    /**
+     * @param levels      utilization of each step, 0-1
+     * @param stepSeconds simulated seconds each level lasts, infinite for a single constant level
+     */
+    UtilizationProfile(double[] levels, double stepSeconds) {
+        this.levels = levels;
+        this.stepSeconds = stepSeconds;
+    }
+
+    @Override
+    protected double getUtilizationInternal(double time) {
+        long step = (long) (time / stepSeconds);
+        return levels[(int) (step % levels.length)];
+    }
+}
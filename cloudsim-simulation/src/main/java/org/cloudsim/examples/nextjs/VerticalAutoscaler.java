@@ -0,0 +1,427 @@
+package org.cloudsim.examples.nextjs;
+
+import org.cloudsimplus.brokers.DatacenterBroker;
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.core.CloudSimPlus;
+import org.cloudsimplus.hosts.Host;
+import org.cloudsimplus.listeners.EventInfo;
+import org.cloudsimplus.listeners.EventListener;
+import org.cloudsimplus.resources.Ram;
+import org.cloudsimplus.vms.Vm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Resizes the VMs of server roles in place while the simulation runs.
+ *
+ * Each role is one VM of the fleet and owns the workload types routed to it.
+ * The autoscaler installs a VM mapper on the broker: requests of a role's
+ * workload types go to its VM, every other request goes round-robin to the
+ * VMs that belong to no role.
+ *
+ * A role's size is a multiple of the VM it started as. One step adds as many
+ * cores and as much RAM as the VM was created with, the capacity one
+ * {@link HorizontalAutoscaler} replica adds, and the {@link AutoscalingPolicy}
+ * picks the multiple as it would a replica count. Resizing is live: the host
+ * reallocates the VM's PEs and RAM at once and running requests speed up at
+ * the next processing update, so there is no boot time. The VM cannot outgrow
+ * its host, though; steps the host has no free PEs, MIPS or RAM for are cut
+ * short. A step down waits until the running requests fit on fewer cores.
+ *
+ * RAM follows the cores rather than being scaled on its own: streamed
+ * requests ask for a share of their VM's memory, so memory pressure tracks
+ * concurrency and a larger VM would not relieve it.
+ */
+final class VerticalAutoscaler implements Autoscaler {
+
+    // Simulated seconds between utilization samples, each held until the next
+    private static final double UTILIZATION_SAMPLE_SECONDS = 1.0;
+
+    /**
+     * One resize of a role's VM
+     */
+    static final class ResizeEvent {
+        private final boolean scaleUp;
+        private final double breachTime;
+        private final double decisionTime;
+        private final long fromPes;
+        private final long toPes;
+        private final long fromRam;
+        private final long toRam;
+        private final boolean capped;
+
+        private ResizeEvent(boolean scaleUp, double breachTime, double decisionTime,
+                            long fromPes, long toPes, long fromRam, long toRam, boolean capped) {
+            this.scaleUp = scaleUp;
+            this.breachTime = breachTime;
+            this.decisionTime = decisionTime;
+            this.fromPes = fromPes;
+            this.toPes = toPes;
+            this.fromRam = fromRam;
+            this.toRam = toRam;
+            this.capped = capped;
+        }
+
+        boolean isScaleUp() {
+            return scaleUp;
+        }
+
+        double getDecisionTime() {
+            return decisionTime;
+        }
+
+        long getFromPes() {
+            return fromPes;
+        }
+
+        long getToPes() {
+            return toPes;
+        }
+
+        long getFromRam() {
+            return fromRam;
+        }
+
+        long getToRam() {
+            return toRam;
+        }
+
+        /**
+         * Whether the host had room for less than the policy wanted
+         */
+        boolean isCapped() {
+            return capped;
+        }
+
+        /**
+         * Seconds from the start of the overload to the resize; the added cores serve at once
+         */
+        double getTimeToScale() {
+            return decisionTime - breachTime;
+        }
+    }
+
+    /**
+     * VM size, resize history and latency of one server role
+     */
+    static final class Role implements Autoscaler.ScaledRole {
+        private final String name;
+        private final Vm vm;
+        private final long basePes;
+        private final long baseRam;
+        private final List<ResizeEvent> events = new ArrayList<>();
+        private final RoleLoad load = new RoleLoad();
+        private double lastScaleTime = Double.NEGATIVE_INFINITY;
+
+        private long peakPes;
+        private long peakRam;
+        private int cappedResizes;
+        // Monthly price above the starting size, integrated over simulated seconds
+        private double addedPriceSeconds;
+        private final WindowStats timeToScale = new WindowStats();
+
+        private Role(String name, Vm vm) {
+            this.name = name;
+            this.vm = vm;
+            this.basePes = vm.getPesNumber();
+            this.baseRam = vm.getRam().getCapacity();
+            this.peakPes = basePes;
+            this.peakRam = baseRam;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        List<ResizeEvent> getEvents() {
+            return Collections.unmodifiableList(events);
+        }
+
+        long getScaleUps() {
+            return events.stream().filter(ResizeEvent::isScaleUp).count();
+        }
+
+        long getScaleDowns() {
+            return events.size() - getScaleUps();
+        }
+
+        long getBasePes() {
+            return basePes;
+        }
+
+        long getBaseRam() {
+            return baseRam;
+        }
+
+        @Override
+        public long getPeakPes() {
+            return peakPes;
+        }
+
+        long getPeakRam() {
+            return peakRam;
+        }
+
+        @Override
+        public long getScalingActions() {
+            return events.size();
+        }
+
+        /**
+         * Scale-ups the host had room for only part of, or none
+         */
+        @Override
+        public long getCappedActions() {
+            return cappedResizes;
+        }
+
+        @Override
+        public WindowStats getTimeToScale() {
+            return timeToScale;
+        }
+
+        @Override
+        public double getOverloadedSeconds(double now) {
+            return load.getOverloadedSeconds(now);
+        }
+
+        @Override
+        public LatencyHistogram getOverloadedLatency() {
+            return load.getOverloadedLatency();
+        }
+
+        @Override
+        public LatencyHistogram getSteadyLatency() {
+            return load.getSteadyLatency();
+        }
+
+        /**
+         * Price of the cores and RAM added above the starting size, at on-demand VM prices
+         */
+        @Override
+        public double getAddedCost() {
+            return addedPriceSeconds / CapacitySweep.SECONDS_PER_MONTH;
+        }
+
+        private int getSteps() {
+            return (int) (vm.getPesNumber() / basePes);
+        }
+    }
+
+    private final CloudSimPlus simulation;
+    private final DatacenterBroker broker;
+    private final AutoscalingPolicy policy;
+    private final Function<Cloudlet, WorkloadType> classifier;
+    private final List<Vm> fleet;
+    private final List<Vm> unassignedVms = new ArrayList<>();
+    private final List<Role> roles = new ArrayList<>();
+    // Role serving each workload type, by ordinal; null for types left to the unassigned VMs
+    private final Role[] roleByType = new Role[WorkloadType.count()];
+    private final EventListener<EventInfo> clockTickListener = this::onClockTick;
+
+    private int nextUnassignedVm;
+    private double lastTick;
+    private double nextSample;
+    private double nextEvaluation;
+
+    /**
+     * @param fleet      every VM submitted to the broker before the run
+     * @param classifier workload type of a submitted cloudlet, or null if unknown
+     */
+    VerticalAutoscaler(CloudSimPlus simulation, DatacenterBroker broker, AutoscalingPolicy policy,
+                       List<Vm> fleet, Function<Cloudlet, WorkloadType> classifier) {
+        this.simulation = simulation;
+        this.broker = broker;
+        this.policy = policy;
+        this.fleet = fleet;
+        this.classifier = classifier;
+    }
+
+    /**
+     * Resizes the given fleet VM for a role; requests of the given types are routed to it
+     */
+    @Override
+    public Role addRole(String name, Vm vm, WorkloadType... types) {
+        Role role = new Role(name, vm);
+        for (WorkloadType type : types) {
+            roleByType[type.ordinal()] = role;
+        }
+        roles.add(role);
+        return role;
+    }
+
+    @Override
+    public List<Role> getRoles() {
+        return Collections.unmodifiableList(roles);
+    }
+
+    @Override
+    public AutoscalingPolicy getPolicy() {
+        return policy;
+    }
+
+    @Override
+    public void start() {
+        for (Vm vm : fleet) {
+            boolean assigned = false;
+            for (Role role : roles) {
+                assigned |= role.vm == vm;
+            }
+            if (!assigned) {
+                unassignedVms.add(vm);
+            }
+        }
+        lastTick = simulation.clock();
+        nextSample = lastTick;
+        nextEvaluation = lastTick + policy.getEvaluationSeconds();
+        for (Role role : roles) {
+            role.load.start(lastTick);
+        }
+        broker.setVmMapper(this::selectVm);
+        simulation.addOnClockTickListener(clockTickListener);
+    }
+
+    @Override
+    public void stop() {
+        simulation.removeOnClockTickListener(clockTickListener);
+        double now = simulation.clock();
+        for (Role role : roles) {
+            advance(role, now);
+        }
+    }
+
+    @Override
+    public void record(Cloudlet cloudlet, WorkloadType type) {
+        Role role = type != null ? roleByType[type.ordinal()] : null;
+        if (role != null && cloudlet.isFinished()) {
+            role.load.record(cloudlet);
+        }
+    }
+
+    private Vm selectVm(Cloudlet cloudlet) {
+        WorkloadType type = classifier.apply(cloudlet);
+        Role role = type != null ? roleByType[type.ordinal()] : null;
+        if (role != null) {
+            return role.vm;
+        }
+        List<Vm> candidates = unassignedVms.isEmpty() ? fleet : unassignedVms;
+        nextUnassignedVm = (nextUnassignedVm + 1) % candidates.size();
+        return candidates.get(nextUnassignedVm);
+    }
+
+    private void onClockTick(EventInfo info) {
+        double now = info.getTime();
+        for (Role role : roles) {
+            advance(role, now);
+        }
+        lastTick = now;
+        if (now >= nextSample) {
+            for (Role role : roles) {
+                role.load.sample(role.vm.isCreated() ? RoleLoad.cpuUtilization(role.vm) : 0);
+            }
+            nextSample = now + UTILIZATION_SAMPLE_SECONDS;
+        }
+        if (now >= nextEvaluation) {
+            for (Role role : roles) {
+                evaluate(role, now);
+            }
+            nextEvaluation = now + policy.getEvaluationSeconds();
+        }
+    }
+
+    /**
+     * Integrates utilization and the price of the added size up to now
+     */
+    private void advance(Role role, double now) {
+        double elapsed = now - lastTick;
+        role.load.advance(elapsed);
+        long pes = role.vm.getPesNumber();
+        if (pes > role.basePes) {
+            double mips = role.vm.getMips();
+            role.addedPriceSeconds += elapsed * (
+                CapacitySweep.monthlyVmPrice(pes, mips, role.vm.getRam().getCapacity())
+                    - CapacitySweep.monthlyVmPrice(role.basePes, mips, role.baseRam));
+        }
+    }
+
+    private void evaluate(Role role, double now) {
+        double utilization = role.load.evaluate(now, policy);
+        if (!role.vm.isCreated() || now - role.lastScaleTime < policy.getCooldownSeconds()) {
+            return;
+        }
+        int steps = role.getSteps();
+        int desired = policy.desiredReplicas(steps, utilization);
+        if (desired > steps) {
+            scaleUp(role, now, steps, desired);
+        } else if (desired < steps) {
+            scaleDown(role, now, desired);
+        }
+    }
+
+    private void scaleUp(Role role, double now, int steps, int desired) {
+        int fitting = steps;
+        while (fitting < desired && fitsOnHost(role, fitting + 1)) {
+            fitting++;
+        }
+        boolean capped = fitting < desired;
+        if (capped) {
+            role.cappedResizes++;
+        }
+        if (fitting == steps) {
+            return;
+        }
+
+        double breachStart = role.load.getBreachStart();
+        ResizeEvent event = resize(role, true, breachStart >= 0 ? breachStart : now, now, fitting, capped);
+        role.timeToScale.add(event.getTimeToScale());
+        role.peakPes = Math.max(role.peakPes, event.toPes);
+        role.peakRam = Math.max(role.peakRam, event.toRam);
+    }
+
+    private void scaleDown(Role role, double now, int desired) {
+        // PEs in use by running requests cannot be taken away; try again at the next evaluation
+        if (role.vm.getProcessor().getAllocatedResource() > desired * role.basePes) {
+            return;
+        }
+        resize(role, false, now, now, desired, false);
+    }
+
+    /**
+     * Whether the VM's host has room for it at the given number of steps, with the
+     * same checks as the host's time-shared VM scheduler and RAM provisioner
+     */
+    private static boolean fitsOnHost(Role role, int steps) {
+        Vm vm = role.vm;
+        Host host = vm.getHost();
+        long pes = steps * role.basePes;
+        double addedMips = (pes - vm.getPesNumber()) * vm.getMips();
+        return pes <= host.getWorkingPesNumber()
+            && host.getTotalAvailableMips() >= addedMips
+            && host.getProvisioner(Ram.class).isSuitableForVm(vm, steps * role.baseRam);
+    }
+
+    /**
+     * Gives the VM the cores and RAM of the given number of steps on its current host
+     */
+    private ResizeEvent resize(Role role, boolean scaleUp, double breachTime, double now, int steps, boolean capped) {
+        Vm vm = role.vm;
+        Host host = vm.getHost();
+        long fromPes = vm.getPesNumber();
+        long fromRam = vm.getRam().getCapacity();
+
+        host.getVmScheduler().deallocatePesFromVm(vm);
+        vm.getProcessor().setCapacity(steps * role.basePes);
+        host.getVmScheduler().allocatePesForVm(vm);
+        host.getProvisioner(Ram.class).allocateResourceForVm(vm, steps * role.baseRam);
+
+        ResizeEvent event = new ResizeEvent(scaleUp, breachTime, now, fromPes, vm.getPesNumber(),
+            fromRam, vm.getRam().getCapacity(), capped);
+        role.events.add(event);
+        role.lastScaleTime = now;
+        return event;
+    }
+}
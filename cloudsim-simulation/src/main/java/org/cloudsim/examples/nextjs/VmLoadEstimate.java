@@ -0,0 +1,113 @@
+package org.cloudsim.examples.nextjs;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.vms.Vm;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Expected finish time of a request on each VM of a set, from the PEs already
+ * requested there.
+ *
+ * VMs schedule cloudlets time-shared, so a request runs at the VM's speed
+ * until the PEs requested on it exceed the VM's, and slows down in proportion
+ * beyond that. The PEs of running cloudlets are read at most once per
+ * simulation time. Requests are routed ahead of their arrival, within the
+ * arrival engine's look-ahead, so those routed but not yet arrived count as
+ * well; otherwise a VM that looks idle would take every request routed until
+ * the first of them arrives.
+ */
+final class VmLoadEstimate {
+
+    private static final int INITIAL_PENDING_CAPACITY = 16;
+
+    private final Vm[] vms;
+    private final long[] runningPes;
+    private final double[] estimateTimes;
+
+    // Requests routed to each VM that have not arrived yet, as a queue in arrival order
+    private final double[][] pendingArrivals;
+    private final int[][] pendingPes;
+    private final int[] pendingHead;
+    private final int[] pendingCount;
+    private final long[] pendingTotalPes;
+
+    VmLoadEstimate(List<Vm> vms) {
+        this.vms = vms.toArray(new Vm[0]);
+        int n = this.vms.length;
+        this.runningPes = new long[n];
+        this.estimateTimes = new double[n];
+        Arrays.fill(estimateTimes, -1);
+        this.pendingArrivals = new double[n][INITIAL_PENDING_CAPACITY];
+        this.pendingPes = new int[n][INITIAL_PENDING_CAPACITY];
+        this.pendingHead = new int[n];
+        this.pendingCount = new int[n];
+        this.pendingTotalPes = new long[n];
+    }
+
+    int size() {
+        return vms.length;
+    }
+
+    Vm get(int v) {
+        return vms[v];
+    }
+
+    /**
+     * Seconds the cloudlet would take on the VM if routed there now
+     */
+    double expectedSeconds(int v, Cloudlet cloudlet, double now) {
+        Vm vm = vms[v];
+        if (estimateTimes[v] != now) {
+            estimateTimes[v] = now;
+            runningPes[v] = RoleLoad.requestedPes(vm);
+            dropArrived(v, now);
+        }
+        long requestedPes = runningPes[v] + pendingTotalPes[v];
+        double slowdown = Math.max(1.0, (requestedPes + cloudlet.getPesNumber()) / (double) vm.getPesNumber());
+        return cloudlet.getLength() / vm.getMips() * slowdown;
+    }
+
+    /**
+     * Counts the cloudlet on the VM from now on; it arrives after its submission delay
+     */
+    void assign(int v, Cloudlet cloudlet, double now) {
+        int capacity = pendingArrivals[v].length;
+        if (pendingCount[v] == capacity) {
+            grow(v);
+            capacity = pendingArrivals[v].length;
+        }
+        int tail = (pendingHead[v] + pendingCount[v]) % capacity;
+        pendingArrivals[v][tail] = now + cloudlet.getSubmissionDelay();
+        pendingPes[v][tail] = (int) cloudlet.getPesNumber();
+        pendingCount[v]++;
+        pendingTotalPes[v] += cloudlet.getPesNumber();
+    }
+
+    /**
+     * Forgets requests that have arrived by now, which the VM's running cloudlets include.
+     * Requests are routed in arrival order, so the queue is drained from its head.
+     */
+    private void dropArrived(int v, double now) {
+        int capacity = pendingArrivals[v].length;
+        while (pendingCount[v] > 0 && pendingArrivals[v][pendingHead[v]] <= now) {
+            pendingTotalPes[v] -= pendingPes[v][pendingHead[v]];
+            pendingHead[v] = (pendingHead[v] + 1) % capacity;
+            pendingCount[v]--;
+        }
+    }
+
+    private void grow(int v) {
+        int capacity = pendingArrivals[v].length;
+        double[] arrivals = new double[capacity * 2];
+        int[] pes = new int[capacity * 2];
+        for (int i = 0; i < pendingCount[v]; i++) {
+            arrivals[i] = pendingArrivals[v][(pendingHead[v] + i) % capacity];
+            pes[i] = pendingPes[v][(pendingHead[v] + i) % capacity];
+        }
+        pendingArrivals[v] = arrivals;
+        pendingPes[v] = pes;
+        pendingHead[v] = 0;
+    }
+}
@@ -0,0 +1,57 @@
+package org.cloudsim.examples.nextjs;
+
+/**
+ * Count, sum, min and max of a metric over a time window
+ */
+final class WindowStats {
+
+    private long count;
+    private double sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    void add(double value) {
+        count++;
+        sum += value;
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    void merge(long count, double sum, double min, double max) {
+        if (count == 0) {
+            return;
+        }
+        this.count += count;
+        this.sum += sum;
+        if (min < this.min) {
+            this.min = min;
+        }
+        if (max > this.max) {
+            this.max = max;
+        }
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    double getSum() {
+        return sum;
+    }
+
+    double getMin() {
+        return count == 0 ? 0.0 : min;
+    }
+
+    double getMax() {
+        return count == 0 ? 0.0 : max;
+    }
+
+    double getMean() {
+        return count == 0 ? 0.0 : sum / count;
+    }
+}
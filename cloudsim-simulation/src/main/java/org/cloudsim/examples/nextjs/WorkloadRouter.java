@@ -0,0 +1,128 @@
+package org.cloudsim.examples.nextjs;
+
+import org.cloudsimplus.brokers.DatacenterBroker;
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.core.CloudSimPlus;
+import org.cloudsimplus.vms.Vm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Routes each request to the pool of VMs that serves its workload type and,
+ * within the pool, to the VM expected to finish it soonest.
+ *
+ * VMs join the pools of the workload types they are added with; VMs added
+ * without types form the general pool, which takes the types no pool serves.
+ * The expected finish time accounts for each VM's speed and the PEs already
+ * requested on it, see {@link VmLoadEstimate}, so faster or idler VMs of a
+ * pool take more requests instead of every VM taking its turn as with the
+ * broker's default round-robin mapping.
+ */
+final class WorkloadRouter {
+
+    private final CloudSimPlus simulation;
+    private final Function<Cloudlet, WorkloadType> classifier;
+    private final List<Vm> vms = new ArrayList<>();
+    private final List<List<Integer>> typePools = new ArrayList<>();
+    private final List<Integer> generalPool = new ArrayList<>();
+
+    private VmLoadEstimate load;
+    // VM indexes of each type's pool, by type ordinal, and of the general pool
+    private int[][] pools;
+    private int[] general;
+    private long[] routedRequests;
+    private int nextStart;
+
+    /**
+     * @param classifier workload type of a cloudlet, or null if unknown
+     */
+    WorkloadRouter(CloudSimPlus simulation, Function<Cloudlet, WorkloadType> classifier) {
+        this.simulation = simulation;
+        this.classifier = classifier;
+        for (int t = 0; t < WorkloadType.count(); t++) {
+            typePools.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Adds the VM to the pools of the given types, or to the general pool without types
+     */
+    WorkloadRouter addVm(Vm vm, WorkloadType... types) {
+        int v = vms.size();
+        vms.add(vm);
+        for (WorkloadType type : types) {
+            typePools.get(type.ordinal()).add(v);
+        }
+        if (types.length == 0) {
+            generalPool.add(v);
+        }
+        return this;
+    }
+
+    /**
+     * Takes over request routing on the broker
+     */
+    void start(DatacenterBroker broker) {
+        load = new VmLoadEstimate(vms);
+        // Types without a pool go to the general pool, or to every VM without one
+        general = toArray(generalPool.isEmpty() ? allVms() : generalPool);
+        pools = new int[typePools.size()][];
+        for (int t = 0; t < pools.length; t++) {
+            pools[t] = typePools.get(t).isEmpty() ? general : toArray(typePools.get(t));
+        }
+        routedRequests = new long[vms.size()];
+        broker.setVmMapper(this::selectVm);
+    }
+
+    /**
+     * Requests routed to the VM added at the given position
+     */
+    long getRoutedRequests(int vm) {
+        return routedRequests[vm];
+    }
+
+    private Vm selectVm(Cloudlet cloudlet) {
+        WorkloadType type = classifier.apply(cloudlet);
+        int[] pool = type != null ? pools[type.ordinal()] : general;
+        double now = simulation.clock();
+        int best = -1;
+        double bestSeconds = Double.POSITIVE_INFINITY;
+        // Start each scan one VM further, so VMs expected to finish equally soon take turns
+        int start = nextStart++ % pool.length;
+        for (int i = 0; i < pool.length; i++) {
+            int v = pool[(start + i) % pool.length];
+            if (!load.get(v).isCreated()) {
+                continue;
+            }
+            double seconds = load.expectedSeconds(v, cloudlet, now);
+            if (seconds < bestSeconds) {
+                bestSeconds = seconds;
+                best = v;
+            }
+        }
+        if (best < 0) {
+            return Vm.NULL;
+        }
+        load.assign(best, cloudlet, now);
+        routedRequests[best]++;
+        return load.get(best);
+    }
+
+    private List<Integer> allVms() {
+        List<Integer> all = new ArrayList<>(vms.size());
+        for (int v = 0; v < vms.size(); v++) {
+            all.add(v);
+        }
+        return all;
+    }
+
+    private static int[] toArray(List<Integer> indexes) {
+        int[] array = new int[indexes.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = indexes.get(i);
+        }
+        return array;
+    }
+}
@@ -0,0 +1,61 @@
+package org.cloudsim.examples.nextjs;
+
+/**
+ * Kinds of work a Next.js deployment runs, in reporting order.
+ *
+ * Aggregates are kept in arrays indexed by {@link #ordinal()}, so per-cloudlet
+ * bookkeeping never hashes or compares the labels.
+ */
+enum WorkloadType {
+    PAGE_RENDERING("Page Rendering", 2, 400, 350),
+    API_PROCESSING("API Processing", 1, 600, 500),
+    STATIC_ASSETS("Static Assets", 1, 200, 1800),
+    IMAGE_PROCESSING("Image Processing", 3, 1200, 900),
+    BUILD_DEPLOY("Build/Deploy", 4, 800, 600);
+
+    private static final WorkloadType[] VALUES = values();
+
+    private final String label;
+    // Shape of one request of this type: PEs and request and response sizes in bytes
+    private final int pesNumber;
+    private final long requestBytes;
+    private final long responseBytes;
+
+    WorkloadType(String label, int pesNumber, long requestBytes, long responseBytes) {
+        this.label = label;
+        this.pesNumber = pesNumber;
+        this.requestBytes = requestBytes;
+        this.responseBytes = responseBytes;
+    }
+
+    String getLabel() {
+        return label;
+    }
+
+    int getPesNumber() {
+        return pesNumber;
+    }
+
+    long getRequestBytes() {
+        return requestBytes;
+    }
+
+    long getResponseBytes() {
+        return responseBytes;
+    }
+
+    /**
+     * Whether the work runs application code, so reports name it after the project
+     */
+    boolean isApplicationCode() {
+        return this == PAGE_RENDERING || this == API_PROCESSING;
+    }
+
+    static int count() {
+        return VALUES.length;
+    }
+
+    static WorkloadType fromOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+}
@@ -0,0 +1,70 @@
+package org.cloudsim.examples.nextjs;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+
+import java.util.Arrays;
+
+/**
+ * Workload type of each cloudlet, kept as one byte per cloudlet id.
+ *
+ * Brokers number cloudlets densely from 0, so a byte array indexed by id
+ * holds the type of every cloudlet in a run: no boxed ids, no map entries,
+ * and a lookup is an array read. Each entry is the type's ordinal plus one,
+ * so 0 marks ids without a type. The array grows to the largest id recorded
+ * and is not shrunk when types are removed, a megabyte for a million
+ * cloudlets.
+ */
+final class WorkloadTypeIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    // Largest array the JVM reliably allocates
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    private byte[] types = new byte[INITIAL_CAPACITY];
+
+    /**
+     * @param type type of the cloudlet, or null to clear it
+     * @throws IllegalArgumentException if the id is negative or beyond the largest array
+     */
+    void put(long id, WorkloadType type) {
+        if (id < 0 || id >= MAX_CAPACITY) {
+            throw new IllegalArgumentException("Cloudlet id out of range: " + id);
+        }
+        int index = (int) id;
+        if (index >= types.length) {
+            long capacity = Math.max(index + 1L, types.length * 2L);
+            types = Arrays.copyOf(types, (int) Math.min(MAX_CAPACITY, capacity));
+        }
+        types[index] = type != null ? (byte) (type.ordinal() + 1) : 0;
+    }
+
+    /**
+     * Type of the cloudlet with the id, or null if none was recorded
+     */
+    WorkloadType get(long id) {
+        if (id < 0 || id >= types.length || types[(int) id] == 0) {
+            return null;
+        }
+        return WorkloadType.fromOrdinal(types[(int) id] - 1);
+    }
+
+    /**
+     * Type of the cloudlet, or null if none was recorded
+     */
+    WorkloadType typeOf(Cloudlet cloudlet) {
+        return get(cloudlet.getId());
+    }
+
+    /**
+     * Type of the cloudlet with the id, which is forgotten
+     *
+     * @return null if none was recorded
+     */
+    WorkloadType remove(long id) {
+        WorkloadType type = get(id);
+        if (type != null) {
+            types[(int) id] = 0;
+        }
+        return type;
+    }
+}
@@ -0,0 +1,311 @@
+package org.cloudsim.examples.nextjs;
+
+import org.cloudsimplus.core.Simulation;
+import org.cloudsimplus.utilizationmodels.UtilizationModel;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * CPU, RAM and bandwidth utilization of each workload type's requests, as
+ * immutable tables of levels over simulated time.
+ *
+ * By default every request uses all of its PEs and a fixed 2% of its VM's
+ * RAM and bandwidth, so about 50 requests fit on a VM at once. Calibrated
+ * profiles keep that average over the default workload mix but spread it by
+ * type: image processing and builds hold several times the memory of an API
+ * call, and bandwidth follows each type's request and response size. The RAM
+ * level scales with the app's memory usage. Given enough history, RAM follows
+ * the recorded memory curve over the last day and bandwidth the request rate
+ * derived from the recorded request count, both replayed from the start of the
+ * simulation. Both carry seeded lognormal noise, so memory pressure and
+ * bandwidth contention come and go as they do in production instead of
+ * staying flat.
+ *
+ * CPU stays at full use rather than following the recorded CPU usage: request
+ * lengths are already the CPU time measured through the response time, and a
+ * lower level would only stretch them.
+ *
+ * Tables are computed once; {@link #instantiate} wraps them in models for
+ * one simulation, so evaluating a level never allocates.
+ */
+final class WorkloadUtilizationProfiles {
+
+    // RAM and bandwidth share of a VM per request, on average over the workload mix
+    static final double DEFAULT_SHARE = 0.02;
+
+    static final WorkloadUtilizationProfiles DEFAULT = constant(1.0, DEFAULT_SHARE, DEFAULT_SHARE);
+
+    // Memory held by a request of each type relative to the others, in WorkloadType order
+    private static final double[] RAM_WEIGHTS = {1.0, 0.75, 0.25, 3.0, 4.0};
+    // Memory usage the default share stands for, in percent
+    private static final double REFERENCE_MEMORY_USAGE = 50.0;
+    private static final double MIN_MEMORY_SCALE = 0.5;
+    private static final double MAX_MEMORY_SCALE = 2.0;
+    // Coefficients of variation of the noise on each level
+    private static final double RAM_VARIATION = 0.10;
+    private static final double BW_VARIATION = 0.20;
+    private static final double MIN_SHARE = 0.001;
+    private static final double MAX_SHARE = 0.25;
+
+    private static final int TABLE_SIZE = 96;
+    // Step of the noise when there is no history to follow
+    private static final double DEFAULT_STEP_SECONDS = 60.0;
+    private static final long HISTORY_WINDOW_MILLIS = CompressedTimeSeries.DAY_MILLIS;
+
+    // Levels per workload type, by ordinal
+    private final double[][] cpuLevels;
+    private final double[][] ramLevels;
+    private final double[][] bwLevels;
+    private final double stepSeconds;
+
+    private WorkloadUtilizationProfiles(double[][] cpuLevels, double[][] ramLevels, double[][] bwLevels,
+                                        double stepSeconds) {
+        this.cpuLevels = cpuLevels;
+        this.ramLevels = ramLevels;
+        this.bwLevels = bwLevels;
+        this.stepSeconds = stepSeconds;
+    }
+
+    /**
+     * The same constant levels for every workload type
+     */
+    static WorkloadUtilizationProfiles constant(double cpu, double ram, double bw) {
+        int types = WorkloadType.count();
+        double[][] cpuLevels = new double[types][];
+        double[][] ramLevels = new double[types][];
+        double[][] bwLevels = new double[types][];
+        for (int t = 0; t < types; t++) {
+            cpuLevels[t] = new double[] {cpu};
+            ramLevels[t] = new double[] {ram};
+            bwLevels[t] = new double[] {bw};
+        }
+        return new WorkloadUtilizationProfiles(cpuLevels, ramLevels, bwLevels, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Profiles calibrated from the app's metrics
+     *
+     * @param metrics latest snapshot, whose memory usage scales the RAM levels
+     * @param history stored samples whose memory curve the RAM levels and request rate the bandwidth
+     *                levels follow, or null to use noise alone
+     */
+    static WorkloadUtilizationProfiles calibrate(MetricsSnapshot metrics, MetricsTimeSeriesStore history, long seed) {
+        double[] memoryCurve = history != null ? memoryCurve(history) : null;
+        double[] requestRateCurve = history != null ? requestRateCurve(history) : null;
+        double stepSeconds = DEFAULT_STEP_SECONDS;
+        if (memoryCurve != null || requestRateCurve != null) {
+            long span = Math.min(HISTORY_WINDOW_MILLIS, history.getLastTimestamp() - history.getFirstTimestamp());
+            stepSeconds = Math.max(1.0, span / 1000.0 / TABLE_SIZE);
+        }
+
+        double memoryScale = Math.max(MIN_MEMORY_SCALE,
+            Math.min(MAX_MEMORY_SCALE, metrics.getMemoryUsage() / REFERENCE_MEMORY_USAGE));
+        double[] ramWeights = normalizeOverMix(RAM_WEIGHTS);
+        double[] bytes = new double[WorkloadType.count()];
+        for (int t = 0; t < bytes.length; t++) {
+            WorkloadType type = WorkloadType.fromOrdinal(t);
+            bytes[t] = type.getRequestBytes() + type.getResponseBytes();
+        }
+        double[] bwWeights = normalizeOverMix(bytes);
+
+        SplittableRandom random = new SplittableRandom(seed);
+        int types = WorkloadType.count();
+        double[][] cpuLevels = new double[types][];
+        double[][] ramLevels = new double[types][];
+        double[][] bwLevels = new double[types][];
+        for (int t = 0; t < types; t++) {
+            cpuLevels[t] = new double[] {1.0};
+            ramLevels[t] = levels(DEFAULT_SHARE * ramWeights[t] * memoryScale, memoryCurve, RAM_VARIATION, random);
+            bwLevels[t] = levels(DEFAULT_SHARE * bwWeights[t], requestRateCurve, BW_VARIATION, random);
+        }
+        return new WorkloadUtilizationProfiles(cpuLevels, ramLevels, bwLevels, stepSeconds);
+    }
+
+    /**
+     * Mean RAM level of a workload type over its table
+     */
+    double getMeanRamShare(WorkloadType type) {
+        return mean(ramLevels[type.ordinal()]);
+    }
+
+    /**
+     * Mean bandwidth level of a workload type over its table
+     */
+    double getMeanBwShare(WorkloadType type) {
+        return mean(bwLevels[type.ordinal()]);
+    }
+
+    /**
+     * Seconds each level of the tables lasts, infinite for constant profiles
+     */
+    double getStepSeconds() {
+        return stepSeconds;
+    }
+
+    /**
+     * Utilization models over the tables for cloudlets of one simulation
+     */
+    Instance instantiate(Simulation simulation) {
+        return new Instance(this, simulation);
+    }
+
+    /**
+     * Weights scaled so their average over the default workload mix is 1
+     */
+    private static double[] normalizeOverMix(double[] weights) {
+        double[] mix = GeneratedArrivalSource.DEFAULT_WORKLOAD_MIX;
+        double mean = 0;
+        for (int t = 0; t < mix.length; t++) {
+            mean += mix[t] * weights[t];
+        }
+        double[] normalized = new double[weights.length];
+        for (int t = 0; t < weights.length; t++) {
+            normalized[t] = weights[t] / mean;
+        }
+        return normalized;
+    }
+
+    /**
+     * Table around a mean level, following a curve of mean 1 if given, with lognormal noise
+     */
+    private static double[] levels(double mean, double[] curve, double variation, SplittableRandom random) {
+        double sigma = Math.sqrt(Math.log(1 + variation * variation));
+        double[] levels = new double[TABLE_SIZE];
+        for (int i = 0; i < TABLE_SIZE; i++) {
+            double noise = Math.exp(sigma * gaussian(random) - sigma * sigma / 2);
+            double level = mean * (curve != null ? curve[i] : 1.0) * noise;
+            levels[i] = Math.max(MIN_SHARE, Math.min(MAX_SHARE, level));
+        }
+        return levels;
+    }
+
+    /**
+     * Mean memory usage of each step of the stored window, divided by the mean of the window,
+     * or null if no memory was recorded
+     */
+    private static double[] memoryCurve(MetricsTimeSeriesStore history) {
+        long to = history.getLastTimestamp() + 1;
+        long from = Math.max(history.getFirstTimestamp(), to - HISTORY_WINDOW_MILLIS);
+        long stepMillis = Math.max(1, (to - from) / TABLE_SIZE);
+        double[] curve = new double[TABLE_SIZE];
+        double previous = Double.NaN;
+        for (int i = 0; i < TABLE_SIZE; i++) {
+            WindowStats stats = history.aggregate(MetricsTimeSeriesStore.Metric.MEMORY_USAGE,
+                from + i * stepMillis, from + (i + 1) * stepMillis);
+            // Steps without samples hold the last recorded level
+            curve[i] = stats.getCount() > 0 ? stats.getMean() : previous;
+            previous = curve[i];
+        }
+        return relativeToMean(curve);
+    }
+
+    /**
+     * Request rate of each step of the stored window, divided by the mean of the window,
+     * or null if fewer than two steps recorded a request count
+     */
+    private static double[] requestRateCurve(MetricsTimeSeriesStore history) {
+        long to = history.getLastTimestamp() + 1;
+        long from = Math.max(history.getFirstTimestamp(), to - HISTORY_WINDOW_MILLIS);
+        long stepMillis = Math.max(1, (to - from) / TABLE_SIZE);
+        double[] curve = new double[TABLE_SIZE];
+        Arrays.fill(curve, Double.NaN);
+        double lastCount = Double.NaN;
+        int lastStep = -1;
+        for (int i = 0; i < TABLE_SIZE; i++) {
+            WindowStats stats = history.aggregate(MetricsTimeSeriesStore.Metric.REQUEST_COUNT,
+                from + i * stepMillis, from + (i + 1) * stepMillis);
+            if (stats.getCount() == 0) {
+                continue;
+            }
+            // The count is a running total; a drop means the app restarted and counts from zero
+            double count = stats.getMax();
+            if (lastStep >= 0) {
+                double increase = count >= lastCount ? count - lastCount : count;
+                // Spread over the steps since the last sample
+                Arrays.fill(curve, lastStep + 1, i + 1, increase / (i - lastStep));
+            }
+            lastCount = count;
+            lastStep = i;
+        }
+        if (lastStep >= 0 && lastStep + 1 < TABLE_SIZE) {
+            // Steps after the last sample hold the last rate
+            Arrays.fill(curve, lastStep + 1, TABLE_SIZE, curve[lastStep]);
+        }
+        return relativeToMean(curve);
+    }
+
+    /**
+     * The curve divided by the mean of its recorded steps, with steps before the first recorded at 1,
+     * or null if it recorded nothing
+     */
+    private static double[] relativeToMean(double[] curve) {
+        double sum = 0;
+        int steps = 0;
+        for (double level : curve) {
+            if (!Double.isNaN(level)) {
+                sum += level;
+                steps++;
+            }
+        }
+        if (steps == 0 || sum <= 0) {
+            return null;
+        }
+        double mean = sum / steps;
+        for (int i = 0; i < curve.length; i++) {
+            curve[i] = Double.isNaN(curve[i]) ? 1.0 : curve[i] / mean;
+        }
+        return curve;
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        // Box-Muller; 1 - u keeps the logarithm finite
+        double u = 1.0 - random.nextDouble();
+        double v = random.nextDouble();
+        return Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * v);
+    }
+
+    private static double mean(double[] levels) {
+        double sum = 0;
+        for (double level : levels) {
+            sum += level;
+        }
+        return sum / levels.length;
+    }
+
+    /**
+     * Models of every workload type, bound to one simulation
+     */
+    static final class Instance {
+        private final UtilizationModel[] cpuModels;
+        private final UtilizationModel[] ramModels;
+        private final UtilizationModel[] bwModels;
+
+        private Instance(WorkloadUtilizationProfiles profiles, Simulation simulation) {
+            int types = WorkloadType.count();
+            cpuModels = new UtilizationModel[types];
+            ramModels = new UtilizationModel[types];
+            bwModels = new UtilizationModel[types];
+            for (int t = 0; t < types; t++) {
+                cpuModels[t] = new UtilizationProfile(profiles.cpuLevels[t], profiles.stepSeconds)
+                    .setSimulation(simulation);
+                ramModels[t] = new UtilizationProfile(profiles.ramLevels[t], profiles.stepSeconds)
+                    .setSimulation(simulation);
+                bwModels[t] = new UtilizationProfile(profiles.bwLevels[t], profiles.stepSeconds)
+                    .setSimulation(simulation);
+            }
+        }
+
+        UtilizationModel getCpuModel(WorkloadType type) {
+            return cpuModels[type.ordinal()];
+        }
+
+        UtilizationModel getRamModel(WorkloadType type) {
+            return ramModels[type.ordinal()];
+        }
+
+        UtilizationModel getBwModel(WorkloadType type) {
+            return bwModels[type.ordinal()];
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.cloudsim.examples.nextjs;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AliasSamplerTest {
+
+    @Test
+    void tableGivesEachIndexItsShareOfTheUnitInterval() {
+        double[][] cases = {
+            {1},
+            {1, 1, 1, 1},
+            {0.35, 0.35, 0.25, 0.05},
+            {5, 0, 3, -2, 2},
+            {1e-6, 1, 1e-6, 1000},
+            randomWeights(new SplittableRandom(4), 257)
+        };
+        for (double[] weights : cases) {
+            double[] expected = shares(weights);
+            AliasSampler sampler = new AliasSampler(weights);
+            assertEquals(weights.length, sampler.size());
+
+            // Midpoints of a fine grid over [0, 1) measure each index's share up to the grid step
+            int steps = weights.length * 20_000;
+            long[] counts = new long[weights.length];
+            for (int k = 0; k < steps; k++) {
+                counts[sampler.sample((k + 0.5) / steps)]++;
+            }
+            for (int i = 0; i < weights.length; i++) {
+                assertEquals(expected[i], counts[i] / (double) steps, 2.0 / 20_000, "share of index " + i);
+            }
+        }
+    }
+
+    @Test
+    void sampleFrequenciesMatchWeights() {
+        double[] weights = randomWeights(new SplittableRandom(8), 40);
+        double[] expected = shares(weights);
+        AliasSampler sampler = new AliasSampler(weights);
+        SplittableRandom random = new SplittableRandom(9);
+
+        int draws = 2_000_000;
+        long[] counts = new long[weights.length];
+        for (int i = 0; i < draws; i++) {
+            counts[sampler.sample(random)]++;
+        }
+
+        double chiSquare = 0;
+        for (int i = 0; i < weights.length; i++) {
+            double mean = expected[i] * draws;
+            chiSquare += (counts[i] - mean) * (counts[i] - mean) / mean;
+        }
+        // 39 degrees of freedom: the 99.9th percentile of the chi-square distribution is about 72
+        assertTrue(chiSquare < 72, "chi-square " + chiSquare);
+    }
+
+    @Test
+    void neverDrawsIndexesWithoutWeight() {
+        AliasSampler sampler = new AliasSampler(new double[]{0, 2, -1, 0, 1, 0});
+        SplittableRandom random = new SplittableRandom(10);
+        for (int i = 0; i < 100_000; i++) {
+            int index = sampler.sample(random);
+            assertTrue(index == 1 || index == 4, "drew " + index);
+        }
+        int last = sampler.sample(Math.nextDown(1.0));
+        assertTrue(last == 1 || last == 4, "drew " + last);
+    }
+
+    @Test
+    void rejectsWeightsThatSumToNothing() {
+        assertThrows(IllegalArgumentException.class, () -> new AliasSampler(new double[0]));
+        assertThrows(IllegalArgumentException.class, () -> new AliasSampler(new double[]{0, -1, 0}));
+    }
+
+    private static double[] randomWeights(SplittableRandom random, int n) {
+        double[] weights = new double[n];
+        for (int i = 0; i < n; i++) {
+            // Heavy-tailed like request counts per route
+            weights[i] = 1.0 / Math.pow(1 - random.nextDouble(), 2);
+        }
+        return weights;
+    }
+
+    private static double[] shares(double[] weights) {
+        double total = 0;
+        for (double weight : weights) {
+            total += Math.max(0, weight);
+        }
+        double[] shares = new double[weights.length];
+        for (int i = 0; i < weights.length; i++) {
+            shares[i] = Math.max(0, weights[i]) / total;
+        }
+        return shares;
+    }
+}
@@ -0,0 +1,52 @@
+package org.cloudsim.examples.nextjs;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CloudletSpecsTest {
+
+    @Test
+    void replaysTheRecordedArrivalsExactly() throws IOException {
+        CloudletSpecs specs = CloudletSpecs.record(generated());
+        assertTrue(specs.size() > 1000);
+
+        // Two cursors replay independently
+        ArrivalSource first = specs.arrivals();
+        ArrivalSource second = specs.arrivals();
+        ArrivalSource expected = generated();
+        int count = 0;
+        while (expected.next()) {
+            assertTrue(first.next());
+            assertTrue(second.next());
+            for (ArrivalSource replay : new ArrivalSource[]{first, second}) {
+                assertEquals(expected.getArrivalTime(), replay.getArrivalTime());
+                assertEquals(expected.getWorkloadType(), replay.getWorkloadType());
+                assertEquals(expected.getLength(), replay.getLength());
+                assertEquals(expected.getPesNumber(), replay.getPesNumber());
+                assertEquals(expected.getRequestBytes(), replay.getRequestBytes());
+                assertEquals(expected.getResponseBytes(), replay.getResponseBytes());
+            }
+            count++;
+        }
+        assertFalse(first.next());
+        assertFalse(second.next());
+        assertEquals(specs.size(), count);
+    }
+
+    @Test
+    void rejectsRequestsOutOfArrivalOrder() {
+        CloudletSpecs.Builder builder = new CloudletSpecs.Builder().add(2.0, 1000, WorkloadType.API_PROCESSING);
+        assertThrows(IllegalArgumentException.class, () -> builder.add(1.0, 1000, WorkloadType.API_PROCESSING));
+    }
+
+    private static ArrivalSource generated() {
+        return new GeneratedArrivalSource(ArrivalRateModel.poisson(5), 600,
+            GeneratedArrivalSource.DEFAULT_WORKLOAD_MIX, 1.0, 11);
+    }
+}
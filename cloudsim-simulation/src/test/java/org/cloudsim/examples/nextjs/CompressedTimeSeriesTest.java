@@ -0,0 +1,180 @@
+package org.cloudsim.examples.nextjs;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressedTimeSeriesTest {
+
+    // Spans several chunks so decoding crosses chunk boundaries
+    private static final int POINTS = CompressedTimeSeries.CHUNK_POINTS * 3 + 17;
+
+    @Test
+    void decodesSteadySamplesExactly() {
+        long[] timestamps = new long[POINTS];
+        double[] values = new double[POINTS];
+        double value = 42.5;
+        for (int i = 0; i < POINTS; i++) {
+            timestamps[i] = 1_700_000_000_000L + i * 5_000L;
+            // Repeats, small drifts and an occasional jump exercise every XOR case
+            value = i % 97 == 0 ? value * 3.7 : i % 3 == 0 ? value : value + 0.25;
+            values[i] = value;
+        }
+
+        assertRoundTrip(timestamps, values);
+    }
+
+    @Test
+    void decodesIrregularTimestampsAndSpecialValuesExactly() {
+        SplittableRandom random = new SplittableRandom(7);
+        double[] special = {
+            0.0, -0.0, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+            Double.MIN_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE, 1e-300
+        };
+        long[] timestamps = new long[POINTS];
+        double[] values = new double[POINTS];
+        long timestamp = -5_000L;
+        for (int i = 0; i < POINTS; i++) {
+            // Gaps from 1 ms to days hit every delta-of-delta width
+            int width = random.nextInt(5);
+            long gap = width == 0 ? 1000 : width == 1 ? 1 + random.nextInt(60)
+                : width == 2 ? 1 + random.nextInt(2000) : width == 3 ? 1 + random.nextInt(100_000)
+                : 1 + random.nextLong(CompressedTimeSeries.DAY_MILLIS * 30);
+            timestamp += gap;
+            timestamps[i] = timestamp;
+            values[i] = i % 11 == 0 ? special[random.nextInt(special.length)]
+                : Double.longBitsToDouble(random.nextLong());
+        }
+
+        assertRoundTrip(timestamps, values);
+    }
+
+    @Test
+    void rejectsPointsNotAfterTheLastOne() {
+        CompressedTimeSeries series = new CompressedTimeSeries();
+        assertTrue(series.append(1000, 1.0));
+        assertFalse(series.append(1000, 2.0));
+        assertFalse(series.append(999, 2.0));
+        assertTrue(series.append(1001, 2.0));
+        assertEquals(2, series.size());
+    }
+
+    @Test
+    void aggregatesMatchRawPointsForAnyWindow() {
+        SplittableRandom random = new SplittableRandom(11);
+        CompressedTimeSeries series = new CompressedTimeSeries();
+        long[] timestamps = new long[POINTS];
+        double[] values = new double[POINTS];
+        long timestamp = 3 * CompressedTimeSeries.DAY_MILLIS - 17;
+        for (int i = 0; i < POINTS; i++) {
+            timestamp += 1 + random.nextLong(10 * CompressedTimeSeries.MINUTE_MILLIS);
+            timestamps[i] = timestamp;
+            values[i] = random.nextDouble() * 100;
+            series.append(timestamp, values[i]);
+        }
+
+        long first = timestamps[0];
+        long span = timestamps[POINTS - 1] - first;
+        for (int q = 0; q < 200; q++) {
+            long from = first - CompressedTimeSeries.HOUR_MILLIS + random.nextLong(span);
+            long to = from + random.nextLong(span / 2 + 1);
+            if (q % 10 == 0) {
+                // Windows aligned to rollup buckets take the rollup-only path
+                from = Math.floorDiv(from, CompressedTimeSeries.HOUR_MILLIS) * CompressedTimeSeries.HOUR_MILLIS;
+                to = Math.floorDiv(to, CompressedTimeSeries.DAY_MILLIS) * CompressedTimeSeries.DAY_MILLIS;
+            }
+
+            WindowStats expected = new WindowStats();
+            for (int i = 0; i < POINTS; i++) {
+                if (timestamps[i] >= from && timestamps[i] < to) {
+                    expected.add(values[i]);
+                }
+            }
+            WindowStats actual = new WindowStats();
+            series.aggregate(from, to, actual);
+
+            assertEquals(expected.getCount(), actual.getCount(), "count over [" + from + ", " + to + ")");
+            assertEquals(expected.getSum(), actual.getSum(), 1e-6 * Math.max(1, expected.getSum()));
+            assertEquals(expected.getMin(), actual.getMin());
+            assertEquals(expected.getMax(), actual.getMax());
+        }
+    }
+
+    @Test
+    void readsBackWhatItWritesAndKeepsAppending() throws IOException {
+        SplittableRandom random = new SplittableRandom(3);
+        CompressedTimeSeries series = new CompressedTimeSeries();
+        long[] timestamps = new long[POINTS];
+        double[] values = new double[POINTS];
+        int written = POINTS - 100;
+        long timestamp = 1_000_000L;
+        for (int i = 0; i < POINTS; i++) {
+            timestamp += 1 + random.nextInt(20_000);
+            timestamps[i] = timestamp;
+            values[i] = Math.round(random.nextDouble() * 1000) / 10.0;
+            if (i < written) {
+                series.append(timestamps[i], values[i]);
+            }
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        series.write(new DataOutputStream(bytes));
+        CompressedTimeSeries read = CompressedTimeSeries.read(
+            new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(series.size(), read.size());
+        assertEquals(series.getFirstTimestamp(), read.getFirstTimestamp());
+        assertEquals(series.getLastTimestamp(), read.getLastTimestamp());
+        assertEquals(series.getCompressedBytes(), read.getCompressedBytes());
+
+        // The encoder state of the open chunk survives, so appends continue the same stream
+        for (int i = written; i < POINTS; i++) {
+            assertTrue(read.append(timestamps[i], values[i]));
+        }
+        assertDecodes(read, timestamps, values);
+
+        WindowStats stats = new WindowStats();
+        read.aggregate(Long.MIN_VALUE / 2, Long.MAX_VALUE / 2, stats);
+        assertEquals(POINTS, stats.getCount());
+    }
+
+    private static void assertRoundTrip(long[] timestamps, double[] values) {
+        CompressedTimeSeries series = new CompressedTimeSeries();
+        for (int i = 0; i < timestamps.length; i++) {
+            assertTrue(series.append(timestamps[i], values[i]));
+        }
+        assertEquals(timestamps.length, series.size());
+        assertEquals(timestamps[0], series.getFirstTimestamp());
+        assertEquals(timestamps[timestamps.length - 1], series.getLastTimestamp());
+        assertDecodes(series, timestamps, values);
+    }
+
+    /**
+     * Checks the decoded values bit for bit, and that every timestamp falls in its own one-point window
+     */
+    private static void assertDecodes(CompressedTimeSeries series, long[] timestamps, double[] values) {
+        int[] count = new int[1];
+        double[] decoded = series.collect(Long.MIN_VALUE, Long.MAX_VALUE, new double[0], count);
+        assertEquals(values.length, count[0]);
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(Double.doubleToRawLongBits(values[i]), Double.doubleToRawLongBits(decoded[i]),
+                "value " + i);
+        }
+
+        double[] one = new double[1];
+        for (int i = 0; i < timestamps.length; i += 37) {
+            one = series.collect(timestamps[i], timestamps[i] + 1, one, count);
+            assertEquals(1, count[0], "point at " + timestamps[i]);
+            assertEquals(Double.doubleToRawLongBits(values[i]), Double.doubleToRawLongBits(one[0]));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.cloudsim.examples.nextjs;
+
+import org.cloudsimplus.brokers.DatacenterBroker;
+import org.cloudsimplus.brokers.DatacenterBrokerAbstract;
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.core.CloudSimPlus;
+import org.cloudsimplus.schedulers.cloudlet.CloudletSchedulerAbstract;
+import org.cloudsimplus.vms.Vm;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FinishedCloudletReleaserTest {
+
+    private static final double HORIZON_SECONDS = 300;
+
+    // Fails when a CloudSim Plus upgrade renames the internals the releaser clears
+    @Test
+    void streamedRunLeavesNoFinishedCloudletsInTheSimulation() throws Exception {
+        CloudSimPlus simulation = new CloudSimPlus();
+        ScenarioTemplate.Instance scenario = new ScenarioTemplate.Builder()
+            .addHosts(1, 8, 10_000, 32_768, 10_000, 1_000_000)
+            .addVms(2, 10_000, 4, 8_192, 1_000, 10_000)
+            .build()
+            .instantiate(simulation);
+        DatacenterBroker broker = scenario.getBroker();
+
+        GeneratedArrivalSource source = new GeneratedArrivalSource(ArrivalRateModel.poisson(5), HORIZON_SECONDS,
+            GeneratedArrivalSource.DEFAULT_WORKLOAD_MIX, 1.0, 42);
+        CloudletArrivalEngine engine = new CloudletArrivalEngine(simulation, broker, source,
+            WorkloadUtilizationProfiles.constant(1.0, 0.1, 0.1), (cloudlet, type) -> { });
+        long[] finished = new long[1];
+        FinishedCloudletReleaser releaser = new FinishedCloudletReleaser(simulation, broker,
+            cloudlet -> finished[0]++);
+
+        engine.start();
+        releaser.start();
+        simulation.start();
+        releaser.stop();
+
+        assertTrue(releaser.isReleasing());
+        assertTrue(finished[0] > 1000);
+        assertEquals(finished[0], releaser.getDeliveredCloudlets());
+        assertEquals(finished[0], releaser.getReleasedCloudlets());
+
+        assertTrue(broker.getCloudletFinishedList().isEmpty());
+        assertTrue(internal(DatacenterBrokerAbstract.class, "cloudletFinishedList", broker).isEmpty());
+        assertTrue(broker.getCloudletSubmittedList().stream().noneMatch(Cloudlet::isFinished));
+        for (Vm vm : scenario.getVms()) {
+            assertTrue(vm.getCloudletScheduler().getCloudletFinishedList().isEmpty());
+            assertTrue(internal(CloudletSchedulerAbstract.class, "cloudletReturnedList",
+                vm.getCloudletScheduler()).isEmpty());
+        }
+    }
+
+    private static Collection<?> internal(Class<?> type, String name, Object target) throws Exception {
+        Field field = type.getDeclaredField(name);
+        field.setAccessible(true);
+        return (Collection<?>) field.get(target);
+    }
+}
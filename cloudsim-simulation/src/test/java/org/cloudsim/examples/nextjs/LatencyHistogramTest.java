@@ -0,0 +1,107 @@
+package org.cloudsim.examples.nextjs;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    @Test
+    void bucketsCoverEveryValueWithoutGapsOrOverlaps() {
+        int previous = LatencyHistogram.bucketIndex(0);
+        assertEquals(0, previous);
+        for (long micros = 1; micros < 1 << 22; micros++) {
+            int index = LatencyHistogram.bucketIndex(micros);
+            assertTrue(index == previous || index == previous + 1, "step at " + micros);
+            previous = index;
+        }
+
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < 100_000; i++) {
+            // Values up to about 35 minutes, spread across every power of two
+            long micros = random.nextLong(1L << random.nextInt(1, 42));
+            int index = LatencyHistogram.bucketIndex(micros);
+            assertTrue(LatencyHistogram.lowestValue(index) <= micros, "lower bound of " + micros);
+            assertTrue(micros < LatencyHistogram.lowestValue(index + 1), "upper bound of " + micros);
+        }
+    }
+
+    @Test
+    void lowestValueIsTheInverseOfBucketIndex() {
+        for (int index = 0; index < 64 * 40; index++) {
+            long lowest = LatencyHistogram.lowestValue(index);
+            assertEquals(index, LatencyHistogram.bucketIndex(lowest), "bucket " + index);
+            assertEquals(index, LatencyHistogram.bucketIndex(LatencyHistogram.lowestValue(index + 1) - 1));
+            // Each bucket spans at most 1/64 of its lowest value
+            assertTrue(LatencyHistogram.lowestValue(index + 1) - lowest <= Math.max(1, lowest / 64));
+        }
+    }
+
+    @Test
+    void percentilesStayWithinTheBucketPrecision() {
+        SplittableRandom random = new SplittableRandom(2);
+        LatencyHistogram histogram = new LatencyHistogram();
+        double[] samples = new double[50_000];
+        for (int i = 0; i < samples.length; i++) {
+            // Log-normal latencies around 50 ms with a long tail
+            samples[i] = Math.round(Math.exp(Math.log(0.05) + random.nextDouble() * 3 - 1.5) * 1e6) / 1e6;
+            histogram.record(samples[i]);
+        }
+        Arrays.sort(samples);
+
+        assertEquals(samples.length, histogram.getCount());
+        assertEquals(samples[0], histogram.getMin(), 1e-9);
+        assertEquals(samples[samples.length - 1], histogram.getMax(), 1e-9);
+        assertEquals(Arrays.stream(samples).average().getAsDouble(), histogram.getMean(), 1e-9);
+        for (double percentile : new double[]{1, 50, 90, 95, 99, 99.9, 100}) {
+            double exact = samples[(int) Math.ceil(percentile / 100 * samples.length) - 1];
+            assertEquals(exact, histogram.getPercentile(percentile), exact * 0.016, "p" + percentile);
+        }
+    }
+
+    @Test
+    void mergeEqualsRecordingEverySampleInOne() {
+        SplittableRandom random = new SplittableRandom(3);
+        LatencyHistogram all = new LatencyHistogram();
+        LatencyHistogram fast = new LatencyHistogram();
+        LatencyHistogram slow = new LatencyHistogram();
+        for (int i = 0; i < 10_000; i++) {
+            double latency = random.nextDouble() * 0.01;
+            fast.record(latency);
+            all.record(latency);
+        }
+        for (int i = 0; i < 1_000; i++) {
+            // Slow samples grow the bucket array beyond the fast histogram's
+            double latency = 5 + random.nextDouble() * 120;
+            slow.record(latency);
+            all.record(latency);
+        }
+
+        LatencyHistogram merged = new LatencyHistogram();
+        merged.merge(new LatencyHistogram());
+        merged.merge(fast);
+        merged.merge(slow);
+        merged.merge(new LatencyHistogram());
+
+        assertEquals(all.getCount(), merged.getCount());
+        assertEquals(all.getMean(), merged.getMean(), 1e-12);
+        assertEquals(all.getMin(), merged.getMin());
+        assertEquals(all.getMax(), merged.getMax());
+        for (double percentile = 0; percentile <= 100; percentile += 0.5) {
+            assertEquals(all.getPercentile(percentile), merged.getPercentile(percentile), "p" + percentile);
+        }
+    }
+
+    @Test
+    void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0.0, histogram.getMean());
+        assertEquals(0.0, histogram.getMin());
+        assertEquals(0.0, histogram.getPercentile(99));
+    }
+}
@@ -0,0 +1,132 @@
+package org.cloudsim.examples.nextjs;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MetricsHistoryTailerTest {
+
+    @Test
+    void deliversLineSplitAcrossPollsOnceWhenComplete() throws IOException {
+        Path file = Files.createTempFile("metrics-history", ".ndjson");
+        try (MetricsHistoryTailer tailer = new MetricsHistoryTailer(file)) {
+            List<Long> timestamps = new ArrayList<>();
+            String second = line(2);
+            append(file, line(1) + second.substring(0, 12));
+
+            assertEquals(1, tailer.poll(snapshot -> timestamps.add(snapshot.getTimestamp())));
+            assertEquals(line(1).length(), tailer.getOffset());
+
+            append(file, second.substring(12, 20));
+            assertEquals(0, tailer.poll(snapshot -> timestamps.add(snapshot.getTimestamp())));
+
+            append(file, second.substring(20) + line(3));
+            assertEquals(2, tailer.poll(snapshot -> timestamps.add(snapshot.getTimestamp())));
+
+            assertEquals(list(1, 2, 3), timestamps);
+            assertEquals(0, tailer.getMalformedLines());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void rereadsRotatedFileFromTheStart() throws IOException {
+        Path file = Files.createTempFile("metrics-history", ".ndjson");
+        Path rotated = file.resolveSibling(file.getFileName() + ".1");
+        try (MetricsHistoryTailer tailer = new MetricsHistoryTailer(file)) {
+            List<Long> timestamps = new ArrayList<>();
+            append(file, line(1) + line(2));
+            assertEquals(2, tailer.poll(snapshot -> timestamps.add(snapshot.getTimestamp())));
+
+            // Written just before the rotation, then the new file outgrows the old one
+            append(file, line(3));
+            Files.move(file, rotated);
+            StringBuilder lines = new StringBuilder();
+            for (int t = 100; t < 110; t++) {
+                lines.append(line(t));
+            }
+            append(file, lines.toString());
+
+            assertEquals(11, tailer.poll(snapshot -> timestamps.add(snapshot.getTimestamp())));
+            assertEquals(list(1, 2, 3, 100, 101, 102, 103, 104, 105, 106, 107, 108, 109), timestamps);
+            assertEquals(lines.length(), tailer.getOffset());
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(rotated);
+        }
+    }
+
+    @Test
+    void rereadsTruncatedFileFromTheStart() throws IOException {
+        Path file = Files.createTempFile("metrics-history", ".ndjson");
+        try (MetricsHistoryTailer tailer = new MetricsHistoryTailer(file)) {
+            List<Long> timestamps = new ArrayList<>();
+            append(file, line(1) + line(2) + line(3));
+            assertEquals(3, tailer.poll(snapshot -> timestamps.add(snapshot.getTimestamp())));
+
+            Files.write(file, line(4).getBytes(StandardCharsets.UTF_8), StandardOpenOption.TRUNCATE_EXISTING);
+            assertEquals(1, tailer.poll(snapshot -> timestamps.add(snapshot.getTimestamp())));
+
+            assertEquals(list(1, 2, 3, 4), timestamps);
+            assertEquals(line(4).length(), tailer.getOffset());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void neitherLosesNorRepeatsRecordsAtWindowBoundaries() throws IOException {
+        Path file = Files.createTempFile("metrics-history", ".ndjson");
+        try {
+            StringBuilder lines = new StringBuilder();
+            List<Long> expected = new ArrayList<>();
+            int longest = 0;
+            for (long t = 1; t <= 200; t++) {
+                // Timestamps of growing width so lines end at every position within a window
+                long timestamp = t * t * t;
+                String line = t % 3 == 0 ? line(timestamp).replace("\n", "\r\n") : line(timestamp);
+                lines.append(line);
+                expected.add(timestamp);
+                longest = Math.max(longest, line.length());
+            }
+            append(file, lines.toString());
+
+            for (int window = longest; window <= 3 * longest; window++) {
+                List<Long> timestamps = new ArrayList<>();
+                try (MetricsHistoryTailer tailer = new MetricsHistoryTailer(file, window)) {
+                    assertEquals(expected.size(), tailer.poll(snapshot -> timestamps.add(snapshot.getTimestamp())));
+                    assertEquals(lines.length(), tailer.getOffset());
+                    assertEquals(0, tailer.poll(snapshot -> timestamps.add(snapshot.getTimestamp())));
+                }
+                assertEquals(expected, timestamps, "window " + window);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static String line(long timestamp) {
+        return "{\"timestamp\": " + timestamp + ", \"cpuUsage\": " + (timestamp % 100) + "}\n";
+    }
+
+    private static void append(Path file, String text) throws IOException {
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static List<Long> list(long... values) {
+        List<Long> list = new ArrayList<>();
+        for (long value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,114 @@
+package org.cloudsim.examples.nextjs;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsJsonParserTest {
+
+    private final MetricsJsonParser parser = new MetricsJsonParser();
+
+    @Test
+    void parsesEdgeCaseNumbersLikeTheJdk() {
+        String[] numbers = {
+            "0", "-0", "0.0", "7", "-7", "0.1", "0.3", "123.456", "-123.456", "0.000001",
+            "999999999999999", "9999999999999999", "12345678901234567890", "0.1234567890123456789",
+            "1e3", "1E3", "1e+3", "2.5e-3", "-2.5E+2", "1e308", "4.9e-324", "1e-400", "100000000000000000000000",
+            "3.141592653589793", "2.718281828459045", "1.7976931348623157", "0.30000000000000004"
+        };
+        for (String number : numbers) {
+            assertParsesCpu(number);
+        }
+    }
+
+    @Test
+    void parsesFormattedRandomDoublesLikeTheJdk() {
+        SplittableRandom random = new SplittableRandom(5);
+        for (int i = 0; i < 20_000; i++) {
+            double value = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(-6, 12));
+            assertParsesCpu(Double.toString(value));
+            assertParsesCpu(String.format(Locale.ROOT, "%." + random.nextInt(0, 18) + "f", value));
+        }
+    }
+
+    @Test
+    void decodesEscapesInValuesAndKeys() {
+        MetricsSnapshot snapshot = parser.parse(
+            "{\"projectName\": \"a\\\"b\\\\c\\/d\\n\\t\\u00e9\\u20AC\"," +
+            " \"cpu\\u0055sage\": 12.5," +
+            " \"routes\": {\"/caf\\u00e9\": 3, \"/plain\": 4}}");
+
+        assertEquals("a\"b\\c/d\n\t\u00e9\u20ac", snapshot.getProjectName());
+        assertEquals(12.5, snapshot.getCpuUsage());
+        assertEquals(2, snapshot.getRouteCount());
+        assertEquals("/caf\u00e9", snapshot.getRouteName(0));
+        assertEquals(3, snapshot.getRouteRequests(0));
+        assertEquals("/plain", snapshot.getRouteName(1));
+    }
+
+    @Test
+    void readsNestedObjectsAndSkipsUnknownValues() {
+        MetricsSnapshot snapshot = parser.parse("\uFEFF {\n" +
+            "  \"unknown\": {\"deep\": [1, {\"x\": \"}\\\"]\"}, [], {}], \"flag\": false},\n" +
+            "  \"responseTime\": 87.25,\n" +
+            "  \"requestCount\": \"many\",\n" +
+            "  \"errorCount\": null,\n" +
+            "  \"timestamp\": 1700000000123,\n" +
+            "  \"pages\": {\"home\": 10, \"api\": 20, \"other\": 30, \"extra\": [1, 2]},\n" +
+            "  \"buildInfo\": {\"lastBuild\": \"today\", \"buildTime\": 4200, \"isProduction\": true},\n" +
+            "  \"integration\": {\"cloudsimReady\": true, \"monitoringActive\": false, \"version\": null}\n" +
+            "}");
+
+        assertEquals(87.25, snapshot.getResponseTime());
+        assertEquals(0.0, snapshot.getRequestCount());
+        assertEquals(0.0, snapshot.getErrorCount());
+        assertEquals(1_700_000_000_123L, snapshot.getTimestamp());
+        assertEquals(10.0, snapshot.getPagesHome());
+        assertEquals(20.0, snapshot.getPagesApi());
+        assertEquals(30.0, snapshot.getPagesOther());
+        assertEquals("today", snapshot.getLastBuild());
+        assertEquals(4200, snapshot.getBuildTime());
+        assertTrue(snapshot.isProduction());
+        assertTrue(snapshot.isCloudsimReady());
+        assertFalse(snapshot.isMonitoringActive());
+        assertNull(snapshot.getIntegrationVersion());
+    }
+
+    @Test
+    void startsEachParseFromAnEmptySnapshotAndReusesRouteNames() {
+        MetricsSnapshot first = parser.parse("{\"cpuUsage\": 40, \"routes\": {\"/api/users\": 1}}");
+        MetricsSnapshot second = parser.parse("{\"routes\": {\"/api/users\": 2}}");
+
+        assertEquals(0.0, second.getCpuUsage());
+        assertEquals(40.0, first.getCpuUsage());
+        assertEquals(2, second.getRouteRequests(0));
+        assertSame(first.getRouteName(0), second.getRouteName(0));
+    }
+
+    @Test
+    void rejectsMalformedDocuments() {
+        String[] documents = {
+            "", "{", "[]", "{\"cpuUsage\": }", "{\"cpuUsage\": 1,}", "{\"cpuUsage\": 1} trailing",
+            "{\"cpuUsage\": -}", "{\"cpuUsage\": 1.}", "{\"cpuUsage\": 1e}", "{\"cpuUsage\" 1}",
+            "{\"projectName\": \"open}", "{\"projectName\": \"bad \\x escape\"}",
+            "{\"projectName\": \"\\u12\"}", "{\"a\": tru}", "{\"a\": [1 2]}"
+        };
+        for (String document : documents) {
+            assertThrows(IllegalArgumentException.class, () -> parser.parse(document), document);
+        }
+    }
+
+    private void assertParsesCpu(String number) {
+        MetricsSnapshot snapshot = parser.parse("{\"cpuUsage\":" + number + "}");
+        assertEquals(Double.doubleToLongBits(Double.parseDouble(number)),
+            Double.doubleToLongBits(snapshot.getCpuUsage()), number);
+    }
+}
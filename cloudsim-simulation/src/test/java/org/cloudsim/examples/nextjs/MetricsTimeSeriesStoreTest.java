@@ -0,0 +1,118 @@
+package org.cloudsim.examples.nextjs;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsTimeSeriesStoreTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    void savesAndLoadsEveryColumnAndRoute() throws IOException {
+        MetricsTimeSeriesStore store = new MetricsTimeSeriesStore();
+        for (int i = 0; i < 3000; i++) {
+            store.record(snapshot(START + i * 15_000L, i));
+        }
+
+        Path file = Files.createTempFile("metrics-store", ".tsdb");
+        try {
+            store.save(file);
+            MetricsTimeSeriesStore loaded = new MetricsTimeSeriesStore();
+            loaded.load(file);
+
+            assertEquals(store.size(), loaded.size());
+            assertEquals(store.getFirstTimestamp(), loaded.getFirstTimestamp());
+            assertEquals(store.getLastTimestamp(), loaded.getLastTimestamp());
+            assertEquals(store.getCompressedBytes(), loaded.getCompressedBytes());
+            assertEquals(sorted(store.getRouteNames()), sorted(loaded.getRouteNames()));
+            for (MetricsTimeSeriesStore.Metric metric : MetricsTimeSeriesStore.Metric.values()) {
+                for (long window : new long[]{CompressedTimeSeries.HOUR_MILLIS, CompressedTimeSeries.DAY_MILLIS}) {
+                    assertEquals(store.percentileOverLast(metric, window, 95),
+                        loaded.percentileOverLast(metric, window, 95));
+                    WindowStats expected = store.aggregateOverLast(metric, window);
+                    WindowStats actual = loaded.aggregateOverLast(metric, window);
+                    assertEquals(expected.getCount(), actual.getCount());
+                    assertEquals(expected.getSum(), actual.getSum());
+                }
+            }
+            long end = store.getLastTimestamp() + 1;
+            assertEquals(store.aggregateRoute("/api/users", START, end).getSum(),
+                loaded.aggregateRoute("/api/users", START, end).getSum());
+
+            // Loaded history keeps growing where it left off
+            assertTrue(loaded.record(snapshot(store.getLastTimestamp() + 15_000L, 3000)));
+            assertEquals(store.size() + 1, loaded.size());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void rejectsFilesOfAnotherFormat() throws IOException {
+        Path file = Files.createTempFile("metrics-store", ".tsdb");
+        try {
+            Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+            assertThrows(IOException.class, () -> new MetricsTimeSeriesStore().load(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void ignoresSimulatedStaleAndUntimedSnapshots() {
+        MetricsTimeSeriesStore store = new MetricsTimeSeriesStore();
+        assertTrue(store.record(snapshot(START, 0)));
+        assertFalse(store.record(snapshot(START, 1)));
+        assertFalse(store.record(snapshot(0, 1)));
+        assertFalse(store.record(new MetricsSnapshot.Builder().setSimulated(true).setTimestamp(START + 1).build()));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void percentileUsesNearestRank() {
+        MetricsTimeSeriesStore store = new MetricsTimeSeriesStore();
+        // CPU values 1..100 in shuffled order
+        int[] order = new int[100];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = (i * 37) % 100 + 1;
+        }
+        for (int i = 0; i < order.length; i++) {
+            store.record(new MetricsSnapshot.Builder().setTimestamp(START + i).setCpuUsage(order[i]).build());
+        }
+
+        long end = START + order.length;
+        assertEquals(95.0, store.percentile(MetricsTimeSeriesStore.Metric.CPU_USAGE, START, end, 95));
+        assertEquals(50.0, store.percentile(MetricsTimeSeriesStore.Metric.CPU_USAGE, START, end, 50));
+        assertEquals(1.0, store.percentile(MetricsTimeSeriesStore.Metric.CPU_USAGE, START, end, 0));
+        assertEquals(100.0, store.percentile(MetricsTimeSeriesStore.Metric.CPU_USAGE, START, end, 100));
+        assertEquals(0.0, store.percentile(MetricsTimeSeriesStore.Metric.CPU_USAGE, end, end + 10, 95));
+    }
+
+    private static MetricsSnapshot snapshot(long timestamp, int i) {
+        return new MetricsSnapshot.Builder()
+            .setTimestamp(timestamp)
+            .setCpuUsage(30 + (i % 40) * 0.5)
+            .setResponseTime(90 + (i % 13))
+            .setMemoryUsage(512 + i / 100.0)
+            .setRequestCount(i * 3)
+            .setActiveConnections(i % 7)
+            .addRoute("/", i)
+            .addRoute("/api/users", i * 2L)
+            .build();
+    }
+
+    private static List<String> sorted(List<String> names) {
+        Collections.sort(names);
+        return names;
+    }
+}
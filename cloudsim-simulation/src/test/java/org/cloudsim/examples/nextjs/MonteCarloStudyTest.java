@@ -0,0 +1,44 @@
+package org.cloudsim.examples.nextjs;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MonteCarloStudyTest {
+
+    @Test
+    void tQuantileMatchesPublishedValues() {
+        assertEquals(12.706, MonteCarloStudy.tQuantile95(1), 1e-3);
+        assertEquals(2.262, MonteCarloStudy.tQuantile95(9), 1e-3);
+        assertEquals(2.042, MonteCarloStudy.tQuantile95(30), 1e-3);
+        assertEquals(2.021, MonteCarloStudy.tQuantile95(40), 1e-3);
+        assertEquals(2.000, MonteCarloStudy.tQuantile95(60), 1e-3);
+        assertEquals(1.980, MonteCarloStudy.tQuantile95(120), 1e-3);
+        assertEquals(1.960, MonteCarloStudy.tQuantile95(100_000), 1e-3);
+    }
+
+    @Test
+    void tQuantileShrinksTowardsTheNormalQuantile() {
+        double previous = Double.POSITIVE_INFINITY;
+        for (int df = 1; df <= 10_000; df++) {
+            double t = MonteCarloStudy.tQuantile95(df);
+            assertTrue(t < previous, "df " + df);
+            assertTrue(t > 1.959963, "df " + df);
+            previous = t;
+        }
+    }
+
+    @Test
+    void confidenceIntervalWidensForFewReplicas() {
+        MonteCarloStudy.ReplicaSummary two = new MonteCarloStudy.ReplicaSummary(2);
+        two.record(0, 0.0);
+        two.record(1, 2.0);
+        // Standard deviation sqrt(2) over sqrt(2) replicas, times t with one degree of freedom
+        assertEquals(12.706, two.getConfidenceHalfWidth(), 1e-3);
+
+        MonteCarloStudy.ReplicaSummary one = new MonteCarloStudy.ReplicaSummary(1);
+        one.record(0, 5.0);
+        assertEquals(0.0, one.getConfidenceHalfWidth());
+    }
+}
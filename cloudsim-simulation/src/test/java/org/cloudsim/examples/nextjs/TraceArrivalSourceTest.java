@@ -0,0 +1,110 @@
+package org.cloudsim.examples.nextjs;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TraceArrivalSourceTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    void replaysRequestsInStartOrderWhenWrittenInCompletionOrder() throws IOException {
+        SplittableRandom random = new SplittableRandom(6);
+        int requests = 5000;
+        long[] started = new long[requests];
+        double[] latencies = new double[requests];
+        Integer[] completionOrder = new Integer[requests];
+        long time = START;
+        for (int i = 0; i < requests; i++) {
+            time += random.nextInt(200);
+            started[i] = time;
+            // Mostly fast, some requests take up to 30 s
+            latencies[i] = random.nextInt(10) == 0 ? random.nextInt(30_000) : random.nextInt(300);
+            completionOrder[i] = i;
+        }
+        Arrays.sort(completionOrder, (a, b) -> Double.compare(started[a] + latencies[a], started[b] + latencies[b]));
+
+        List<String> lines = new ArrayList<>();
+        lines.add("timestamp,latencyMs,status,route");
+        for (int i : completionOrder) {
+            lines.add(started[i] + "," + latencies[i] + ",200,/api/items/" + i);
+        }
+
+        long[] sorted = started.clone();
+        Arrays.sort(sorted);
+        try (TraceArrivalSource source = open(lines, TraceArrivalSource.DEFAULT_REORDER_WINDOW_MILLIS)) {
+            for (int i = 0; i < requests; i++) {
+                assertTrue(source.next());
+                assertEquals((sorted[i] - sorted[0]) / 1000.0, source.getArrivalTime(), 1e-9, "arrival " + i);
+            }
+            assertFalse(source.next());
+            assertEquals(0, source.getLateRecords());
+        }
+    }
+
+    @Test
+    void keepsEachRecordsOwnLatencyAndRoute() throws IOException {
+        List<String> lines = Arrays.asList(
+            (START + 900) + ",10,200,/api/fast",
+            START + ",950,200,/slow,page",
+            (START + 400) + ",2,200,/_next/static/app.js");
+
+        try (TraceArrivalSource source = open(lines, 1000)) {
+            assertTrue(source.next());
+            assertEquals(0.0, source.getArrivalTime());
+            assertEquals(950.0, source.getServiceMillis());
+            assertEquals(WorkloadType.PAGE_RENDERING, source.getWorkloadType());
+            assertTrue(source.next());
+            assertEquals(0.4, source.getArrivalTime(), 1e-9);
+            assertEquals(WorkloadType.STATIC_ASSETS, source.getWorkloadType());
+            assertTrue(source.next());
+            assertEquals(0.9, source.getArrivalTime(), 1e-9);
+            assertEquals(10.0, source.getServiceMillis());
+            assertEquals(WorkloadType.API_PROCESSING, source.getWorkloadType());
+            assertFalse(source.next());
+        }
+    }
+
+    @Test
+    void countsRecordsLaterThanTheWindowWithoutGoingBackInTime() throws IOException {
+        List<String> lines = Arrays.asList(
+            START + ",1,200,/a",
+            (START + 5000) + ",1,200,/b",
+            (START + 8000) + ",1,200,/c",
+            // Written after /b was already replayed, which started 3 s later
+            (START + 2000) + ",6000,200,/d",
+            (START + 9000) + ",1,200,/e");
+
+        try (TraceArrivalSource source = open(lines, 2000)) {
+            double previous = 0;
+            int count = 0;
+            while (source.next()) {
+                assertTrue(source.getArrivalTime() >= previous);
+                previous = source.getArrivalTime();
+                count++;
+            }
+            assertEquals(5, count);
+            assertEquals(9.0, previous);
+            assertEquals(1, source.getLateRecords());
+        }
+    }
+
+    private static TraceArrivalSource open(List<String> lines, long reorderWindowMillis) throws IOException {
+        Path file = Files.createTempFile("request-trace", ".csv");
+        file.toFile().deleteOnExit();
+        Files.write(file, lines, StandardCharsets.UTF_8);
+        return new TraceArrivalSource(new RequestTraceReader(file), reorderWindowMillis);
+    }
+}
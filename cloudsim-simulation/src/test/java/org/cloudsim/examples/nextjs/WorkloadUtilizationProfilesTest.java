@@ -0,0 +1,61 @@
+package org.cloudsim.examples.nextjs;
+
+import org.cloudsimplus.core.CloudSimPlus;
+import org.cloudsimplus.utilizationmodels.UtilizationModel;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WorkloadUtilizationProfilesTest {
+
+    private static final long START = 1_700_000_000_000L;
+    private static final long SAMPLE_MILLIS = 60_000;
+
+    @Test
+    void bandwidthFollowsTheRecordedRequestRate() {
+        // A day at one request per second, then three per second from noon, restarting the count at 6 pm
+        MetricsTimeSeriesStore history = new MetricsTimeSeriesStore();
+        double count = 0;
+        for (int i = 0; i < 1440; i++) {
+            count = i == 1080 ? 0 : count + (i < 720 ? 60 : 180);
+            history.record(new MetricsSnapshot.Builder()
+                .setTimestamp(START + i * SAMPLE_MILLIS)
+                .setMemoryUsage(50)
+                .setRequestCount(count)
+                .build());
+        }
+        MetricsSnapshot latest = new MetricsSnapshot.Builder().setMemoryUsage(50).build();
+
+        WorkloadUtilizationProfiles profiles = WorkloadUtilizationProfiles.calibrate(latest, history, 7);
+        UtilizationModel bw = profiles.instantiate(new CloudSimPlus()).getBwModel(WorkloadType.PAGE_RENDERING);
+        double morning = meanLevel(bw, profiles.getStepSeconds(), 2, 46);
+        double afternoon = meanLevel(bw, profiles.getStepSeconds(), 50, 94);
+
+        assertEquals(3.0, afternoon / morning, 0.3);
+        // The curve reshapes the level over the day without changing its mean
+        double mean = profiles.getMeanBwShare(WorkloadType.PAGE_RENDERING);
+        assertEquals(mean, (afternoon + morning) / 2, mean * 0.1);
+    }
+
+    @Test
+    void bandwidthStaysAroundItsShareWithoutHistory() {
+        MetricsSnapshot latest = new MetricsSnapshot.Builder().setMemoryUsage(50).build();
+
+        WorkloadUtilizationProfiles profiles = WorkloadUtilizationProfiles.calibrate(latest, null, 7);
+        UtilizationModel bw = profiles.instantiate(new CloudSimPlus()).getBwModel(WorkloadType.PAGE_RENDERING);
+        double first = meanLevel(bw, profiles.getStepSeconds(), 0, 48);
+        double second = meanLevel(bw, profiles.getStepSeconds(), 48, 96);
+
+        assertEquals(1.0, second / first, 0.15);
+        assertTrue(profiles.getMeanBwShare(WorkloadType.PAGE_RENDERING) > 0);
+    }
+
+    private static double meanLevel(UtilizationModel model, double stepSeconds, int fromStep, int toStep) {
+        double sum = 0;
+        for (int step = fromStep; step < toStep; step++) {
+            sum += model.getUtilization((step + 0.5) * stepSeconds);
+        }
+        return sum / (toStep - fromStep);
+    }
+}
@@ -21,6 +21,12 @@ class ExistingNextJSMonitor {
     constructor(options = {}) {
         this.options = {
             metricsFile: options.metricsFile || path.join(process.cwd(), 'cloudsim-metrics.json'),
+            historyFile: options.historyFile !== undefined ? options.historyFile :
+                path.join(process.cwd(), 'cloudsim-metrics-history.ndjson'),
+            maxHistoryBytes: options.maxHistoryBytes || 64 * 1024 * 1024,
+            traceFile: options.traceFile !== undefined ? options.traceFile :
+                path.join(process.cwd(), 'cloudsim-request-trace.csv'),
+            maxTraceBytes: options.maxTraceBytes || 256 * 1024 * 1024,
             updateInterval: options.updateInterval || 5000,
             enableConsoleOutput: options.enableConsoleOutput !== false,
             projectName: options.projectName || 'Existing-NextJS-App',
@@ -53,6 +59,7 @@ class ExistingNextJSMonitor {
 
         this.startTime = Date.now();
         this.requestTimes = [];
+        this.traceBuffer = [];
 
         this.initialize();
     }
@@ -60,6 +67,12 @@ class ExistingNextJSMonitor {
     initialize() {
         console.log(`🔗 CloudSim Integration Monitor initialized for: ${this.options.projectName}`);
         console.log(`📊 Metrics will be saved to: ${this.options.metricsFile}`);
+        if (this.options.historyFile) {
+            console.log(`🗂️  Metrics history will be appended to: ${this.options.historyFile}`);
+        }
+        if (this.options.traceFile) {
+            console.log(`🎬 Request trace will be appended to: ${this.options.traceFile}`);
+        }
 
         // Start periodic metrics collection
         this.metricsInterval = setInterval(() => {
@@ -170,6 +183,16 @@ class ExistingNextJSMonitor {
             this.requestTimes.shift();
         }
 
+        // Record the request for trace replay (flushed with the metrics file), stamped
+        // with when it started; requests finish out of order, so flushes sort by it
+        if (this.options.traceFile) {
+            const startedAt = Date.now() - Math.round(responseTime);
+            this.traceBuffer.push({
+                startedAt,
+                line: `${startedAt},${responseTime.toFixed(2)},${statusCode},${route}`
+            });
+        }
+
         // Update counters
         this.metrics.requestCount++;
 
@@ -281,12 +304,70 @@ class ExistingNextJSMonitor {
             };
 
             fs.writeFileSync(this.options.metricsFile, JSON.stringify(output, null, 2));
+            this.appendMetricsHistory(output);
+            this.flushRequestTrace();
 
         } catch (error) {
             console.error('⚠️  Error writing CloudSim metrics file:', error.message);
         }
     }
 
+    /**
+     * Append one compact JSON line per snapshot to the history file.
+     * The file is never rewritten; when it grows past maxHistoryBytes it is
+     * renamed to <historyFile>.1 and a new file is started, so readers can
+     * tail it incrementally.
+     */
+    appendMetricsHistory(output) {
+        if (!this.options.historyFile) {
+            return;
+        }
+
+        try {
+            const line = JSON.stringify(output) + '\n';
+            const historyFile = this.options.historyFile;
+
+            if (fs.existsSync(historyFile) &&
+                fs.statSync(historyFile).size + Buffer.byteLength(line) > this.options.maxHistoryBytes) {
+                fs.renameSync(historyFile, historyFile + '.1');
+            }
+
+            fs.appendFileSync(historyFile, line);
+        } catch (error) {
+            console.error('⚠️  Error appending CloudSim metrics history:', error.message);
+        }
+    }
+
+    /**
+     * Append buffered requests to the trace file as
+     * timestamp,latencyMs,status,route lines (route last, it may contain commas),
+     * in the order the requests started. A request still running at a flush can
+     * land after later-starting ones, by at most its own duration; the replay
+     * reorders records within a window to absorb that.
+     * Rotates to <traceFile>.1 past maxTraceBytes like the metrics history.
+     */
+    flushRequestTrace() {
+        if (!this.options.traceFile || this.traceBuffer.length === 0) {
+            return;
+        }
+
+        try {
+            this.traceBuffer.sort((a, b) => a.startedAt - b.startedAt);
+            const lines = this.traceBuffer.map(request => request.line).join('\n') + '\n';
+            this.traceBuffer = [];
+            const traceFile = this.options.traceFile;
+
+            if (fs.existsSync(traceFile) &&
+                fs.statSync(traceFile).size + Buffer.byteLength(lines) > this.options.maxTraceBytes) {
+                fs.renameSync(traceFile, traceFile + '.1');
+            }
+
+            fs.appendFileSync(traceFile, lines);
+        } catch (error) {
+            console.error('⚠️  Error appending CloudSim request trace:', error.message);
+        }
+    }
+
     /**
      * Log current metrics to console
      */